@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptHitTest;
+
+/**
+ * Compares the circle hit test against the previous {@link Math#pow(double, double)} version
+ * for a stream of touch points, such as the hover events sent while touch exploration is on.
+ * <p>
+ * The cached path region used for custom focal paths isn't covered, PromptPathRegion needs
+ * {@code android.graphics.Region} which can only be measured on a device.
+ */
+@State(Scope.Thread)
+public class HitTestBenchmark
+{
+    private static final int POINT_COUNT = 1024;
+
+    /**
+     * Where the touch points are relative to the circle.
+     * inside: all in the circle, bounds: in the bounds but outside the circle,
+     * outside: outside of the bounds, screen: spread over the whole screen.
+     */
+    @Param({"inside", "bounds", "outside", "screen"})
+    public String points;
+
+    private final float mCentreX = 540;
+    private final float mCentreY = 960;
+    private final float mRadius = 300;
+    private final float[] mX = new float[POINT_COUNT];
+    private final float[] mY = new float[POINT_COUNT];
+
+    @Setup
+    public void setup()
+    {
+        final Random random = new Random(42);
+        for (int i = 0; i < POINT_COUNT; i++)
+        {
+            final float angle = (float) (random.nextFloat() * Math.PI * 2);
+            final float distance;
+            switch (points)
+            {
+                case "inside":
+                    distance = random.nextFloat() * mRadius * 0.99f;
+                    break;
+                case "bounds":
+                    // Corners of the bounding box outside of the circle
+                    distance = mRadius * 1.05f;
+                    mX[i] = mCentreX + (random.nextBoolean() ? distance : -distance) * 0.9f;
+                    mY[i] = mCentreY + (random.nextBoolean() ? distance : -distance) * 0.9f;
+                    continue;
+                case "outside":
+                    distance = mRadius * (1.5f + random.nextFloat());
+                    break;
+                default:
+                    mX[i] = random.nextFloat() * 1080;
+                    mY[i] = random.nextFloat() * 1920;
+                    continue;
+            }
+            mX[i] = mCentreX + (float) Math.cos(angle) * distance;
+            mY[i] = mCentreY + (float) Math.sin(angle) * distance;
+        }
+    }
+
+    @Benchmark
+    public void circlePow(final Blackhole blackhole)
+    {
+        for (int i = 0; i < POINT_COUNT; i++)
+        {
+            blackhole.consume(Math.pow(mX[i] - mCentreX, 2) + Math.pow(mY[i] - mCentreY, 2)
+                    < Math.pow(mRadius, 2));
+        }
+    }
+
+    @Benchmark
+    public void circleHitTest(final Blackhole blackhole)
+    {
+        for (int i = 0; i < POINT_COUNT; i++)
+        {
+            blackhole.consume(PromptHitTest.isPointInCircle(mX[i], mY[i], mCentreX, mCentreY, mRadius));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptTextPlacement;
+
+/**
+ * Measures the maths run when a prompt is prepared and animated, for a range of screen sizes,
+ * focal positions and text sizes, using the default prompt dimensions.
+ * <p>
+ * The text placement is given the inputs that PromptText derives from the focal and clip
+ * bounds, and the focal edge angle and circumcircle points are derived from the focal and text
+ * bounds as in CirclePromptBackground, so each focal position takes the same branches as on a
+ * device. CirclePromptBackground only uses the circumcircle for an inset focal, the centre
+ * position. The text layout sizes are fixed, as measuring the text needs Android, so text
+ * measurement isn't covered.
+ */
+@State(Scope.Thread)
+public class PromptGeometryBenchmark
+{
+    /**
+     * The screen width x height in pixels.
+     */
+    @Param({"720x1280", "1080x1920", "1440x2560", "2048x1536"})
+    public String screen;
+
+    /**
+     * Where the focal is on the screen.
+     * fab: bottom right, toolbar: top left, centre: the middle of the screen.
+     */
+    @Param({"fab", "toolbar", "centre"})
+    public String focal;
+
+    /**
+     * The text layout sizes.
+     * title: one short primary text line, description: a primary line and three secondary lines
+     * filling the maximum text width.
+     */
+    @Param({"title", "description"})
+    public String text;
+
+    private final float[] mCircle = new float[3];
+    private int mScreenWidth;
+    private int mScreenHeight;
+    private float mDensity;
+    private float mFocalLeft;
+    private float mFocalTop;
+    private float mFocalRight;
+    private float mFocalBottom;
+    private float mFocalPadding;
+    private float mTextPadding;
+    private float mTextSeparation;
+    private float mMaxWidth;
+    private float mTextWidth;
+    private float mPrimaryTextHeight;
+    private float mSecondaryTextHeight;
+    private boolean mHasSecondaryText;
+    private boolean mFocalInset;
+    private boolean mTextPositionAbove;
+    private boolean mTextPositionLeft;
+    private float mTextLeft;
+    private float mTextTop;
+    private float mTextBottom;
+    private float mAngle;
+    private float mScale;
+
+    @Setup
+    public void setup()
+    {
+        final int separator = screen.indexOf('x');
+        mScreenWidth = Integer.parseInt(screen.substring(0, separator));
+        mScreenHeight = Integer.parseInt(screen.substring(separator + 1));
+        // Roughly the density used for each screen size
+        mDensity = Math.min(mScreenWidth, mScreenHeight) / 360f;
+        final float focalSize = 88 * mDensity;
+        switch (focal)
+        {
+            case "fab":
+                mFocalRight = mScreenWidth - 16 * mDensity;
+                mFocalBottom = mScreenHeight - 16 * mDensity;
+                break;
+            case "toolbar":
+                mFocalRight = 16 * mDensity + focalSize;
+                mFocalBottom = 4 * mDensity + focalSize;
+                break;
+            default:
+                mFocalRight = (mScreenWidth + focalSize) / 2;
+                mFocalBottom = (mScreenHeight + focalSize) / 2;
+                break;
+        }
+        mFocalLeft = mFocalRight - focalSize;
+        mFocalTop = mFocalBottom - focalSize;
+        // The PromptOptions defaults
+        mFocalPadding = 20 * mDensity;
+        mTextPadding = 40 * mDensity;
+        mTextSeparation = 16 * mDensity;
+        mMaxWidth = PromptGeometry.calculateMaxWidth(400 * mDensity, mScreenWidth, mTextPadding);
+        // Line heights for the default 22 and 18 text sizes
+        mPrimaryTextHeight = 22 * 1.17f * mDensity;
+        if ("title".equals(text))
+        {
+            mTextWidth = Math.min(160 * mDensity, mMaxWidth);
+            mHasSecondaryText = false;
+            mSecondaryTextHeight = 0;
+        }
+        else
+        {
+            mTextWidth = mMaxWidth;
+            mHasSecondaryText = true;
+            mSecondaryTextHeight = 3 * 18 * 1.17f * mDensity;
+        }
+        // Derived the same as in PromptText.updateTextPosition
+        final float focalCentreX = (mFocalLeft + mFocalRight) / 2;
+        final float focalCentreY = (mFocalTop + mFocalBottom) / 2;
+        mTextPositionAbove = focalCentreY > mScreenHeight / 2f;
+        mTextPositionLeft = focalCentreX > mScreenWidth / 2f;
+        final int inset = (int) (88 * mDensity);
+        mFocalInset = focalCentreX > inset && focalCentreX < mScreenWidth - inset
+                && focalCentreY > inset && focalCentreY < mScreenHeight - inset;
+        mTextLeft = textLeft();
+        mTextTop = textTop();
+        mTextBottom = mTextTop + mPrimaryTextHeight
+                + (mHasSecondaryText ? mTextSeparation + mSecondaryTextHeight : 0);
+        mAngle = focalAngle();
+        mScale = 0.6f;
+    }
+
+    /**
+     * Derived the same as in CirclePromptBackground.prepare, the angle to the furthest point on
+     * the focal from the text centre.
+     */
+    private float focalAngle()
+    {
+        final float distanceX = (mFocalLeft + mFocalRight) / 2 - mTextLeft + (mTextWidth / 2);
+        final float percentageOffset = 100 / mTextWidth * distanceX;
+        final float angle = 90 * (percentageOffset / 100);
+        return mTextTop < mFocalTop ? 180 - angle : 180 + angle;
+    }
+
+    private float textLeft()
+    {
+        return PromptTextPlacement.calculateTextLeft(mFocalInset, mTextPositionLeft,
+                (mFocalLeft + mFocalRight) / 2, 0, mScreenWidth, 0, mScreenWidth,
+                mTextWidth, mMaxWidth, mFocalPadding, mTextPadding);
+    }
+
+    private float textTop()
+    {
+        return PromptTextPlacement.calculateTextTop(mTextPositionAbove, mFocalTop, mFocalBottom,
+                mFocalPadding, true, mPrimaryTextHeight, mHasSecondaryText, mSecondaryTextHeight,
+                mTextSeparation);
+    }
+
+    @Benchmark
+    public float scale()
+    {
+        final float centreX = (mFocalLeft + mFocalRight) / 2;
+        final float centreY = (mFocalTop + mFocalBottom) / 2;
+        final float horizontalFromCentre = centreX - mFocalLeft;
+        final float verticalFromCentre = centreY - mFocalTop;
+        return PromptGeometry.scaleStart(centreX, mFocalLeft, horizontalFromCentre, mScale)
+                + PromptGeometry.scaleStart(centreY, mFocalTop, verticalFromCentre, mScale)
+                + PromptGeometry.scaleEnd(centreX, mFocalRight, horizontalFromCentre, mScale)
+                + PromptGeometry.scaleEnd(centreY, mFocalBottom, verticalFromCentre, mScale);
+    }
+
+    @Benchmark
+    public float maxWidth()
+    {
+        return PromptGeometry.calculateMaxWidth(400 * mDensity, mScreenWidth, mTextPadding);
+    }
+
+    @Benchmark
+    public void circumcircle(final Blackhole blackhole)
+    {
+        // The three points as in CirclePromptBackground.prepare
+        final float angle = focalAngle();
+        final float radius = mFocalRight - mFocalLeft + mFocalPadding;
+        final float x1 = PromptGeometry.circleEdgeX(angle, radius, (mFocalLeft + mFocalRight) / 2);
+        final float y1 = PromptGeometry.circleEdgeY(angle, radius, (mFocalTop + mFocalBottom) / 2);
+        final float y2 = mTextTop < mFocalTop ? mTextTop : mTextBottom;
+        float x3 = mTextLeft + mTextWidth + mTextPadding;
+        if (mFocalRight > x3)
+        {
+            x3 = mFocalRight + mFocalPadding;
+        }
+        PromptGeometry.calculateCircumcircle(x1, y1, mTextLeft - mTextPadding, y2, x3, y2, mCircle);
+        blackhole.consume(mCircle);
+    }
+
+    @Benchmark
+    public float focalCentredRadius()
+    {
+        return PromptGeometry.calculateFocalCentredRadius((mFocalLeft + mFocalRight) / 2,
+                mFocalBottom - mFocalTop, mFocalPadding, mTextLeft, mTextLeft + mTextWidth,
+                mPrimaryTextHeight + mSecondaryTextHeight, mTextPadding);
+    }
+
+    @Benchmark
+    public float circleEdgePoint()
+    {
+        final float radius = mFocalRight - mFocalLeft + mFocalPadding;
+        return PromptGeometry.circleEdgeX(mAngle, radius, (mFocalLeft + mFocalRight) / 2)
+                + PromptGeometry.circleEdgeY(mAngle, radius, (mFocalTop + mFocalBottom) / 2);
+    }
+
+    @Benchmark
+    public float rectangleEdgePoint()
+    {
+        return PromptGeometry.rectangleEdgeX(mAngle, mFocalRight - mFocalLeft, mFocalPadding,
+                    (mFocalLeft + mFocalRight) / 2)
+                + PromptGeometry.rectangleEdgeY(mAngle, mFocalBottom - mFocalTop, mFocalPadding,
+                    (mFocalTop + mFocalBottom) / 2);
+    }
+
+    @Benchmark
+    public float textPlacement()
+    {
+        return textLeft() + textTop();
+    }
+}
@@ -37,6 +37,17 @@ public class DialogResourceFinder extends ActivityResourceFinder
         mDialog = dialog;
     }
 
+    /**
+     * Get the dialog that the prompt is shown in.
+     *
+     * @return The dialog.
+     */
+    @NonNull
+    Dialog getDialog()
+    {
+        return mDialog;
+    }
+
     @Nullable
     @Override
     public View findViewById(@IdRes int resId)
@@ -20,7 +20,11 @@ import android.animation.Animator;
 import android.animation.ValueAnimator;
 import android.app.Activity;
 import android.app.Dialog;
+import android.content.BroadcastReceiver;
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.Canvas;
 import android.graphics.Path;
 import android.graphics.Point;
@@ -28,24 +32,36 @@ import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.Region;
+import android.graphics.drawable.Animatable;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
 import android.text.TextUtils;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.ViewTreeObserver;
+import android.view.Window;
 import android.view.accessibility.AccessibilityEvent;
 import android.view.accessibility.AccessibilityManager;
 import android.view.accessibility.AccessibilityNodeInfo;
 
+import java.util.concurrent.Executor;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.fragment.app.DialogFragment;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleEventObserver;
+import androidx.lifecycle.LifecycleOwner;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptMetrics;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptionsTemplate;
 
 /**
  * A Material Design tap target onboarding implementation.
@@ -141,6 +157,36 @@ public class MaterialTapTargetPrompt
      */
     float mFocalRippleProgress;
 
+    /**
+     * Idle animation pause reason for the prompt window not having focus.
+     */
+    static final int IDLE_PAUSED_WINDOW_FOCUS = 1;
+
+    /**
+     * Idle animation pause reason for the lifecycle owner being stopped.
+     */
+    static final int IDLE_PAUSED_STOPPED = 1 << 1;
+
+    /**
+     * Idle animation pause reason for the device being in power save mode.
+     */
+    static final int IDLE_PAUSED_POWER_SAVE = 1 << 2;
+
+    /**
+     * Idle animation pause reason for the prompt window not being visible.
+     */
+    static final int IDLE_PAUSED_HIDDEN = 1 << 3;
+
+    /**
+     * Idle animation pause reason for the focal being outside the clip bounds.
+     */
+    static final int IDLE_PAUSED_CLIPPED = 1 << 4;
+
+    /**
+     * The reasons that the idle animations are currently paused for, 0 if they are not paused.
+     */
+    int mIdleAnimationPauseReasons;
+
     /**
      * The prompt's current state.
      */
@@ -165,6 +211,61 @@ public class MaterialTapTargetPrompt
      */
     @Nullable final ViewTreeObserver.OnGlobalLayoutListener mGlobalLayoutListener;
 
+    /**
+     * The layout values that the prompt was last prepared with.
+     */
+    final PromptLayoutSnapshot mLayoutSnapshot = new PromptLayoutSnapshot();
+
+    /**
+     * The area of the prompt view that has changed since it was last invalidated.
+     */
+    final PromptDirtyRegion mDirtyRegion = new PromptDirtyRegion();
+
+    /**
+     * The overlay that the prompt view has been added to, null if the prompt view has been
+     * added as a child view.
+     */
+    @Nullable PromptOverlay mOverlay;
+
+    /**
+     * Keep the view attached for the next prompt in a sequence.
+     *
+     * @see #setKeepViewForNextPrompt(boolean)
+     */
+    private boolean mKeepViewForNextPrompt;
+
+    /**
+     * Has the prompt been prepared by {@link #prefetch()} since it was last shown.
+     */
+    boolean mPrefetched;
+
+    /**
+     * Complete without the exit animation as the next prompt in a sequence will morph from this one.
+     */
+    private boolean mMorphToNextPrompt;
+
+    /**
+     * The options of the previous prompt in a sequence to morph from when shown, null to use the
+     * reveal animation.
+     */
+    @Nullable private PromptOptions mMorphFrom;
+
+    /**
+     * Shows the prompt once the text has been measured on the text measure executor, null if
+     * the text isn't being measured.
+     */
+    @Nullable Runnable mTextMeasuredRunnable;
+
+    /**
+     * Used to continue showing the prompt on the main thread once the text has been measured.
+     */
+    @Nullable private Handler mMainHandler;
+
+    /**
+     * Records the prompt timings, null if there is no metrics listener.
+     */
+    @Nullable PromptMetricsRecorder mMetricsRecorder;
+
     /**
      * Default constructor.
      *
@@ -243,9 +344,30 @@ public class MaterialTapTargetPrompt
                     return;
                 }
             }
-            prepare();
 
-            if (mAnimationCurrent == null)
+            // The overlay isn't laid out with the rest of the window
+            if (mOverlay != null)
+            {
+                mOverlay.layout();
+            }
+
+            // Global layouts happen for any change in the window so only prepare the parts
+            // affected by what has actually moved
+            updateClipBounds();
+            final int changes = updateLayoutSnapshot();
+            if (changes == 0)
+            {
+                return;
+            }
+            prepare(changes);
+
+            if ((changes & (PromptLayoutSnapshot.CHANGED_TARGET | PromptLayoutSnapshot.CHANGED_TARGET_OFFSET
+                    | PromptLayoutSnapshot.CHANGED_CLIP)) == 0)
+            {
+                // Only the icon has moved
+                invalidateElements();
+            }
+            else if (mAnimationCurrent == null)
             {
                 // Force a relayout to update the view's location
                 updateAnimation(1, 1);
@@ -258,24 +380,133 @@ public class MaterialTapTargetPrompt
      */
     public void show()
     {
-        if (isStarting())
+        if (isStarting() || mTextMeasuredRunnable != null)
+        {
+            return;
+        }
+        final PromptMetricsRecorder metricsRecorder = getMetricsRecorder();
+        if (metricsRecorder != null)
+        {
+            metricsRecorder.onShowRequested();
+        }
+        final Executor executor = mView.mPromptOptions.getTextMeasureExecutor();
+        if (executor != null && measureText(executor))
         {
+            // Shown once the text has been measured
             return;
         }
+        showView();
+    }
 
+    /**
+     * Adds the prompt view and starts the reveal animation.
+     */
+    private void showView()
+    {
         final ViewGroup parent = mView.mPromptOptions.getResourceFinder().getPromptParentView();
 
-        // If dismissing or the prompt already exists in the parent view
-        if (isDismissing() || parent.findViewById(R.id.material_target_prompt_view) != null)
+        // A view taken over from the previous prompt in a sequence is already in place
+        final boolean viewAdopted = !isDismissing()
+                && (mOverlay != null ? mOverlay.mHost == parent : mView.getParent() == parent);
+        if (!viewAdopted)
         {
-            cleanUpPrompt(mState);
-        }
+            // If dismissing or the prompt already exists in the parent view
+            if (isDismissing() || mOverlay != null
+                    || parent.findViewById(R.id.material_target_prompt_view) != null)
+            {
+                cleanUpPrompt(mState);
+            }
 
-        parent.addView(mView);
+            mOverlay = PromptOverlay.create(this, parent);
+            if (mOverlay != null)
+            {
+                mOverlay.add();
+            }
+            else
+            {
+                parent.addView(mView);
+            }
+        }
+        if (mMetricsRecorder != null)
+        {
+            mMetricsRecorder.onShown();
+        }
         addGlobalLayoutListener();
         onPromptStateChanged(STATE_REVEALING);
         prepare();
-        startRevealAnimation();
+        final PromptOptions morphFrom = mMorphFrom;
+        mMorphFrom = null;
+        if (morphFrom == null || !startMorphAnimation(morphFrom))
+        {
+            startRevealAnimation();
+        }
+    }
+
+    /**
+     * Measures the prompt text on the executor, then shows the prompt on the main thread.
+     *
+     * @param executor The executor to measure the text on.
+     * @return False if the text doesn't need measuring and the prompt should be shown now.
+     */
+    boolean measureText(@NonNull final Executor executor)
+    {
+        // Already prepared or the view has been adopted from the previous prompt in a sequence
+        if (mPrefetched || mView.getParent() != null || mOverlay != null)
+        {
+            return false;
+        }
+        updateClipBounds();
+        final Runnable measureTask = mView.mPromptOptions.getPromptText().createMeasureTask(
+                mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
+        if (measureTask == null)
+        {
+            return false;
+        }
+        if (mMainHandler == null)
+        {
+            mMainHandler = new Handler(Looper.getMainLooper());
+        }
+        final Handler handler = mMainHandler;
+        final Runnable textMeasuredRunnable = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Ignore if cancelled or replaced by a newer measurement
+                if (mTextMeasuredRunnable == this)
+                {
+                    mTextMeasuredRunnable = null;
+                    showView();
+                }
+            }
+        };
+        mTextMeasuredRunnable = textMeasuredRunnable;
+        executor.execute(() -> {
+            try
+            {
+                measureTask.run();
+            }
+            finally
+            {
+                handler.post(textMeasuredRunnable);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Stop the prompt being shown once the text has been measured.
+     */
+    void cancelTextMeasurement()
+    {
+        if (mTextMeasuredRunnable != null)
+        {
+            if (mMainHandler != null)
+            {
+                mMainHandler.removeCallbacks(mTextMeasuredRunnable);
+            }
+            mTextMeasuredRunnable = null;
+        }
     }
 
     /**
@@ -356,6 +587,31 @@ public class MaterialTapTargetPrompt
         return mState == STATE_NOT_SHOWN || isDismissing() || isDismissed();
     }
 
+    /**
+     * Find the window that the resource finder's views are shown in.
+     *
+     * @param resourceFinder The prompt resource finder.
+     * @return The window or null if it couldn't be found.
+     */
+    @Nullable
+    static Window findWindow(@NonNull final ResourceFinder resourceFinder)
+    {
+        if (resourceFinder instanceof DialogResourceFinder)
+        {
+            return ((DialogResourceFinder) resourceFinder).getDialog().getWindow();
+        }
+        Context context = resourceFinder.getContext();
+        while (context instanceof ContextWrapper)
+        {
+            if (context instanceof Activity)
+            {
+                return ((Activity) context).getWindow();
+            }
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
     /**
      * Adds layout listener to view parent to capture layout changes.
      */
@@ -399,19 +655,21 @@ public class MaterialTapTargetPrompt
      */
     public void finish()
     {
+        cancelTextMeasurement();
         if (isComplete())
         {
             return;
         }
         cancelShowForTimer();
         cleanUpAnimation();
-        mAnimationCurrent = ValueAnimator.ofFloat(1f, 0f);
-        mAnimationCurrent.setDuration(225);
-        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
-        mAnimationCurrent.addUpdateListener(animation -> {
-            final float value = (float) animation.getAnimatedValue();
-            updateAnimation(1f + ((1f - value) / 4), value);
-        });
+        if (mMorphToNextPrompt)
+        {
+            // The next prompt animates from this one
+            onPromptStateChanged(STATE_FINISHING);
+            cleanUpPrompt(STATE_FINISHED, true);
+            return;
+        }
+        mAnimationCurrent = createExitAnimation(true);
         mAnimationCurrent.addListener(new AnimatorListener()
         {
             @Override
@@ -423,6 +681,7 @@ public class MaterialTapTargetPrompt
         });
         onPromptStateChanged(STATE_FINISHING);
         mAnimationCurrent.start();
+        startMetricsFrames(PromptMetrics.PHASE_DISMISS);
     }
 
     /**
@@ -432,19 +691,21 @@ public class MaterialTapTargetPrompt
      */
     public void dismiss()
     {
+        cancelTextMeasurement();
         if (isComplete())
         {
             return;
         }
         cancelShowForTimer();
         cleanUpAnimation();
-        mAnimationCurrent = ValueAnimator.ofFloat(1f, 0f);
-        mAnimationCurrent.setDuration(225);
-        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
-        mAnimationCurrent.addUpdateListener(animation -> {
-            final float value = (float) animation.getAnimatedValue();
-            updateAnimation(value, value);
-        });
+        if (mMorphToNextPrompt)
+        {
+            // The next prompt animates from this one
+            onPromptStateChanged(STATE_DISMISSING);
+            cleanUpPrompt(STATE_DISMISSED, true);
+            return;
+        }
+        mAnimationCurrent = createExitAnimation(false);
         mAnimationCurrent.addListener(new AnimatorListener()
         {
             @Override
@@ -456,24 +717,189 @@ public class MaterialTapTargetPrompt
         });
         onPromptStateChanged(STATE_DISMISSING);
         mAnimationCurrent.start();
+        startMetricsFrames(PromptMetrics.PHASE_DISMISS);
+    }
+
+    /**
+     * Creates the animation to remove the prompt from view.
+     *
+     * @param finish True for the finish expand and fade, false for the dismiss contract and fade.
+     * @return The animation, not started.
+     */
+    @NonNull
+    private ValueAnimator createExitAnimation(final boolean finish)
+    {
+        final ValueAnimator animation = ValueAnimator.ofFloat(1f, 0f);
+        animation.setDuration(225);
+        animation.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        animation.addUpdateListener(animator -> {
+            final float value = (float) animator.getAnimatedValue();
+            updateAnimation(finish ? 1f + ((1f - value) / 4) : value, value);
+        });
+        return animation;
     }
 
     /**
      * Removes the prompt from view and triggers the {@link #onPromptStateChanged(int)} event.
      */
     void cleanUpPrompt(final int state)
+    {
+        cleanUpPrompt(state, false);
+    }
+
+    /**
+     * Removes the prompt from view and triggers the {@link #onPromptStateChanged(int)} event.
+     *
+     * @param state The dismissed or finished state.
+     * @param morphToNextPrompt True if the exit animation was skipped for the next prompt to
+     *                          morph from, the exit animation is run if the next prompt
+     *                          doesn't take over the view.
+     */
+    private void cleanUpPrompt(final int state, final boolean morphToNextPrompt)
     {
         cleanUpAnimation();
         removeGlobalLayoutListener();
-        final ViewGroup parent = (ViewGroup) mView.getParent();
-        if (parent != null)
+        final boolean keepView = mKeepViewForNextPrompt;
+        if (!keepView)
         {
-            parent.removeView(mView);
+            removeView();
         }
         if (isDismissing())
         {
             onPromptStateChanged(state);
         }
+        if (keepView)
+        {
+            if (morphToNextPrompt && mState == state
+                    && (mOverlay != null || mView.getParent() != null))
+            {
+                // The next prompt couldn't take over the view, so animate out as normal
+                startRemoveViewAnimation(state == STATE_FINISHED);
+            }
+            else
+            {
+                // Does nothing if the view was adopted by the next prompt
+                removeView();
+            }
+        }
+        if (mMetricsRecorder != null)
+        {
+            mMetricsRecorder.onComplete();
+        }
+    }
+
+    /**
+     * Runs the exit animation for a prompt that has already completed, then removes the view.
+     *
+     * @param finish True for the finish animation, false for the dismiss animation.
+     */
+    private void startRemoveViewAnimation(final boolean finish)
+    {
+        mAnimationCurrent = createExitAnimation(finish);
+        mAnimationCurrent.addListener(new AnimatorListener()
+        {
+            @Override
+            public void onAnimationEnd(Animator animation)
+            {
+                animation.removeAllListeners();
+                removeView();
+                mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED);
+            }
+        });
+        mAnimationCurrent.start();
+    }
+
+    /**
+     * Removes the prompt view from the parent view or overlay.
+     */
+    void removeView()
+    {
+        if (mOverlay != null)
+        {
+            mOverlay.remove();
+            mOverlay = null;
+        }
+        else
+        {
+            final ViewGroup parent = (ViewGroup) mView.getParent();
+            if (parent != null)
+            {
+                parent.removeView(mView);
+            }
+        }
+    }
+
+    /**
+     * Take over the attached view of the previous prompt in a sequence.
+     *
+     * @param previous The prompt that has just completed.
+     * @return True if the view was adopted, false if the previous prompt's view can't be reused.
+     * @see PromptViewHandoff#adopt(MaterialTapTargetPrompt, MaterialTapTargetPrompt)
+     */
+    boolean adoptView(@NonNull final MaterialTapTargetPrompt previous)
+    {
+        return PromptViewHandoff.adopt(this, previous);
+    }
+
+    /**
+     * Set whether the view is kept attached until after the finished or dismissed state change
+     * has been emitted, so the next prompt in a sequence can take over the view with
+     * {@link #adoptView(MaterialTapTargetPrompt)}.
+     *
+     * @param keepView True to keep the view for the next prompt.
+     */
+    void setKeepViewForNextPrompt(final boolean keepView)
+    {
+        mKeepViewForNextPrompt = keepView;
+    }
+
+    /**
+     * Set whether the prompt completes without the exit animation, as the next prompt in a
+     * sequence will morph from it.
+     *
+     * @param morphToNextPrompt True to skip the exit animation.
+     */
+    void setMorphToNextPrompt(final boolean morphToNextPrompt)
+    {
+        mMorphToNextPrompt = morphToNextPrompt;
+    }
+
+    /**
+     * Morph from the previous prompt in a sequence instead of revealing when next shown.
+     *
+     * @param previous The prompt that has just completed, whose view this prompt has adopted.
+     */
+    void setMorphFrom(@NonNull final MaterialTapTargetPrompt previous)
+    {
+        mMorphFrom = previous.mView.mPromptOptions;
+    }
+
+    /**
+     * Get the metrics recorder, creating it if there is a metrics listener.
+     *
+     * @return The recorder or null if the timings aren't being recorded.
+     */
+    @Nullable
+    PromptMetricsRecorder getMetricsRecorder()
+    {
+        if (mMetricsRecorder == null && mView.mPromptOptions.getPromptMetricsListener() != null)
+        {
+            mMetricsRecorder = new PromptMetricsRecorder(this);
+        }
+        return mMetricsRecorder;
+    }
+
+    /**
+     * Start recording the animation frames if the timings are being recorded.
+     *
+     * @param phase The animation that the frames are for.
+     */
+    private void startMetricsFrames(final int phase)
+    {
+        if (mMetricsRecorder != null)
+        {
+            mMetricsRecorder.startFrames(phase);
+        }
     }
 
     /**
@@ -488,6 +914,22 @@ public class MaterialTapTargetPrompt
             mAnimationCurrent.cancel();
             mAnimationCurrent = null;
         }
+        if (mMetricsRecorder != null)
+        {
+            mMetricsRecorder.stopFrames();
+        }
+        if (mView.mMorph != null)
+        {
+            mView.mMorph.clear();
+        }
+        cleanUpIdleAnimation();
+    }
+
+    /**
+     * Stops the idle animations and removes references to them.
+     */
+    void cleanUpIdleAnimation()
+    {
         if (mAnimationFocalRipple != null)
         {
             mAnimationFocalRipple.removeAllUpdateListeners();
@@ -500,6 +942,12 @@ public class MaterialTapTargetPrompt
             mAnimationFocalBreathing.cancel();
             mAnimationFocalBreathing = null;
         }
+        if (mView.mFocalIdleDrawable != null)
+        {
+            ((Animatable) mView.mFocalIdleDrawable).stop();
+            mView.mFocalIdleDrawable.setCallback(null);
+            mView.mFocalIdleDrawable = null;
+        }
     }
 
     /**
@@ -522,19 +970,97 @@ public class MaterialTapTargetPrompt
             public void onAnimationEnd(@NonNull Animator animation)
             {
                 animation.removeAllListeners();
-                updateAnimation(1, 1);
-                cleanUpAnimation();
-                if (mView.mPromptOptions.getIdleAnimationEnabled())
-                {
-                    startIdleAnimations();
-                }
-                onPromptStateChanged(STATE_REVEALED);
+                onRevealAnimationEnd();
+            }
+        });
+        mAnimationCurrent.start();
+        startMetricsFrames(PromptMetrics.PHASE_REVEAL);
+    }
 
-                mView.requestFocus();
-                mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_FOCUSED);
+    /**
+     * Morph from the previous prompt in a sequence instead of revealing, animating the focal,
+     * background and text from the previous prompt's positions in a single animation.
+     *
+     * @param from The options for the prompt to morph from.
+     * @return False if the prompts can't be morphed between and the reveal animation should be used.
+     */
+    boolean startMorphAnimation(@NonNull final PromptOptions from)
+    {
+        // Morph to the fully revealed state
+        updateAnimation(1, 1);
+        cleanUpAnimation();
+        if (mView.mMorph == null)
+        {
+            mView.mMorph = new PromptMorph();
+        }
+        if (!mView.mMorph.prepare(from, mView.mPromptOptions))
+        {
+            return false;
+        }
+        updateMorph(0);
+        mAnimationCurrent = ValueAnimator.ofFloat(0f, 1f);
+        mAnimationCurrent.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
+        mAnimationCurrent.setDuration(225);
+        // The interpolated fraction is used so the animated value isn't boxed for every frame
+        mAnimationCurrent.addUpdateListener(animation -> updateMorph(animation.getAnimatedFraction()));
+        mAnimationCurrent.addListener(new AnimatorListener()
+        {
+            @Override
+            public void onAnimationEnd(@NonNull Animator animation)
+            {
+                animation.removeAllListeners();
+                // The elements were drawn transformed so their last drawn bounds are unknown
+                mDirtyRegion.mDirtyAll = true;
+                onRevealAnimationEnd();
             }
         });
         mAnimationCurrent.start();
+        startMetricsFrames(PromptMetrics.PHASE_REVEAL);
+        return true;
+    }
+
+    /**
+     * Update the morph from the previous prompt for the animation progress.
+     *
+     * @param progress The morph progress between 0 and 1.
+     */
+    void updateMorph(final float progress)
+    {
+        final PromptMorph morph = mView.mMorph;
+        if (morph == null || morph.mFrom == null)
+        {
+            return;
+        }
+        morph.update(progress);
+        // Cross fade from the previous prompt
+        morph.mFrom.getPromptText().update(morph.mFrom, 1, 1 - progress);
+        final PromptOptions options = mView.mPromptOptions;
+        options.getPromptText().update(options, 1, progress);
+        if (mView.mIconDrawable != null)
+        {
+            mView.mIconDrawable.setAlpha((int) (255f * progress));
+        }
+        options.getPromptFocal().update(options, 1, progress);
+        options.getPromptBackground().update(options, 1, progress);
+        mView.invalidateRecordings();
+        mView.invalidate();
+    }
+
+    /**
+     * Complete revealing the prompt, starting the idle animations.
+     */
+    void onRevealAnimationEnd()
+    {
+        updateAnimation(1, 1);
+        cleanUpAnimation();
+        if (mView.mPromptOptions.getIdleAnimationEnabled())
+        {
+            startIdleAnimations();
+        }
+        onPromptStateChanged(STATE_REVEALED);
+
+        mView.requestFocus();
+        mView.sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_FOCUSED);
     }
 
     /**
@@ -543,6 +1069,20 @@ public class MaterialTapTargetPrompt
     void startIdleAnimations()
     {
         cleanUpAnimation();
+        final Drawable idleDrawable = mView.mPromptOptions.getPromptFocal()
+                .getIdleAnimationDrawable(mView.mPromptOptions);
+        if (idleDrawable instanceof Animatable)
+        {
+            // The drawable is animated by the RenderThread so there is no per frame work to do here
+            mView.mFocalIdleDrawable = idleDrawable;
+            idleDrawable.setCallback(mView);
+            if (mIdleAnimationPauseReasons == 0)
+            {
+                ((Animatable) idleDrawable).start();
+            }
+            mView.invalidate();
+            return;
+        }
         mAnimationFocalBreathing = ValueAnimator.ofFloat(1, 1.1f, 1);
         mAnimationFocalBreathing.setInterpolator(mView.mPromptOptions.getAnimationInterpolator());
         mAnimationFocalBreathing.setDuration(1000);
@@ -572,7 +1112,7 @@ public class MaterialTapTargetPrompt
                 direction = newDirection;
                 mFocalRippleProgress = newFocalFraction;
                 mView.mPromptOptions.getPromptFocal().update(mView.mPromptOptions, newFocalFraction, 1);
-                mView.invalidate();
+                invalidateFocal();
             }
         });
 
@@ -582,36 +1122,230 @@ public class MaterialTapTargetPrompt
         mAnimationFocalRipple.addUpdateListener(animation -> {
             final float value = (float) animation.getAnimatedValue();
             mView.mPromptOptions.getPromptFocal().updateRipple(value, (1.6f - value) * 2);
+            invalidateFocal();
         });
         mAnimationFocalBreathing.start();
+        if (mIdleAnimationPauseReasons != 0)
+        {
+            pauseIdleAnimations();
+        }
+    }
+
+    /**
+     * Adds or removes a reason for pausing the idle animations.
+     * The idle animations are paused while there is at least one reason and resumed from where
+     * they left off once all the reasons have been removed.
+     *
+     * @param reason The pause reason, one of the IDLE_PAUSED_ constants.
+     * @param paused True to add the reason, false to remove it.
+     */
+    void setIdleAnimationPaused(final int reason, final boolean paused)
+    {
+        final boolean wasPaused = mIdleAnimationPauseReasons != 0;
+        if (paused)
+        {
+            mIdleAnimationPauseReasons |= reason;
+        }
+        else
+        {
+            mIdleAnimationPauseReasons &= ~reason;
+        }
+        final boolean isPaused = mIdleAnimationPauseReasons != 0;
+        if (wasPaused != isPaused)
+        {
+            if (isPaused)
+            {
+                pauseIdleAnimations();
+            }
+            else
+            {
+                resumeIdleAnimations();
+            }
+        }
+    }
+
+    /**
+     * Pauses the running idle animations.
+     */
+    void pauseIdleAnimations()
+    {
+        if (mAnimationFocalBreathing != null)
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+            {
+                mAnimationFocalBreathing.pause();
+                if (mAnimationFocalRipple != null)
+                {
+                    mAnimationFocalRipple.pause();
+                }
+            }
+            else
+            {
+                // Animators can't be paused so stop them, they are started again on resume
+                cleanUpIdleAnimation();
+            }
+        }
+        else if (mView.mFocalIdleDrawable != null)
+        {
+            ((Animatable) mView.mFocalIdleDrawable).stop();
+        }
+    }
+
+    /**
+     * Resumes the paused idle animations.
+     */
+    void resumeIdleAnimations()
+    {
+        if (mAnimationFocalBreathing != null)
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT)
+            {
+                mAnimationFocalBreathing.resume();
+                if (mAnimationFocalRipple != null)
+                {
+                    mAnimationFocalRipple.resume();
+                }
+            }
+        }
+        else if (mView.mFocalIdleDrawable != null)
+        {
+            ((Animatable) mView.mFocalIdleDrawable).start();
+        }
+        else if (mState == STATE_REVEALED && mView.mPromptOptions.getIdleAnimationEnabled())
+        {
+            startIdleAnimations();
+        }
+    }
+
+    /**
+     * Updates the positioning and alpha values using the animation values.
+     *
+     * @param revealModifier The amount to modify the reveal size, between 0 and 1.
+     * @param alphaModifier  The amount to modify the alpha value, between 0 and 1.
+     */
+    void updateAnimation(final float revealModifier, final float alphaModifier)
+    {
+        if (mView.getParent() == null)
+        {
+            return;
+        }
+        mView.mPromptOptions.getPromptText().update(mView.mPromptOptions, revealModifier, alphaModifier);
+        if (mView.mIconDrawable != null)
+        {
+            mView.mIconDrawable.setAlpha((int) (255f * alphaModifier));
+        }
+        mView.mPromptOptions.getPromptFocal().update(mView.mPromptOptions, revealModifier, alphaModifier);
+        mView.mPromptOptions.getPromptBackground().update(mView.mPromptOptions, revealModifier, alphaModifier);
+        mView.invalidateRecordings();
+        invalidateElements();
+    }
+
+    /**
+     * Invalidate the area of the prompt view changed by the focal, e.g. for an idle animation frame.
+     */
+    void invalidateFocal()
+    {
+        mDirtyRegion.add(mView.mPromptOptions.getPromptFocal().getDrawnBounds(mDirtyRegion.mElementBounds),
+                mDirtyRegion.mLastFocalBounds);
+        mDirtyRegion.invalidate(mView);
+    }
+
+    /**
+     * Invalidate the area of the prompt view changed by any of the prompt elements.
+     */
+    void invalidateElements()
+    {
+        final PromptOptions options = mView.mPromptOptions;
+        mDirtyRegion.add(options.getPromptBackground().getDrawnBounds(mDirtyRegion.mElementBounds),
+                mDirtyRegion.mLastBackgroundBounds);
+        mDirtyRegion.add(options.getPromptFocal().getDrawnBounds(mDirtyRegion.mElementBounds),
+                mDirtyRegion.mLastFocalBounds);
+        mDirtyRegion.add(options.getPromptText().getDrawnBounds(mDirtyRegion.mElementBounds),
+                mDirtyRegion.mLastTextBounds);
+        mDirtyRegion.add(getIconDrawnBounds(mDirtyRegion.mElementBounds), mDirtyRegion.mLastIconBounds);
+        mDirtyRegion.invalidate(mView);
     }
 
     /**
-     * Updates the positioning and alpha values using the animation values.
+     * Get the area that the icon drawable or target render view is drawn in.
      *
-     * @param revealModifier The amount to modify the reveal size, between 0 and 1.
-     * @param alphaModifier  The amount to modify the alpha value, between 0 and 1.
+     * @param bounds Set to the drawn area.
+     * @return Always true.
      */
-    void updateAnimation(final float revealModifier, final float alphaModifier)
+    boolean getIconDrawnBounds(@NonNull final RectF bounds)
     {
-        if (mView.getParent() == null)
+        if (mView.mIconDrawable != null)
         {
-            return;
+            bounds.set(mView.mIconDrawableLeft, mView.mIconDrawableTop,
+                    mView.mIconDrawableLeft + mView.mIconDrawable.getIntrinsicWidth(),
+                    mView.mIconDrawableTop + mView.mIconDrawable.getIntrinsicHeight());
         }
-        mView.mPromptOptions.getPromptText().update(mView.mPromptOptions, revealModifier, alphaModifier);
-        if (mView.mIconDrawable != null)
+        else if (mView.mTargetRenderView != null)
         {
-            mView.mIconDrawable.setAlpha((int) (255f * alphaModifier));
+            bounds.set(mView.mIconDrawableLeft, mView.mIconDrawableTop,
+                    mView.mIconDrawableLeft + mView.mTargetRenderView.getWidth(),
+                    mView.mIconDrawableTop + mView.mTargetRenderView.getHeight());
         }
-        mView.mPromptOptions.getPromptFocal().update(mView.mPromptOptions, revealModifier, alphaModifier);
-        mView.mPromptOptions.getPromptBackground().update(mView.mPromptOptions, revealModifier, alphaModifier);
-        mView.invalidate();
+        else
+        {
+            bounds.setEmpty();
+        }
+        return true;
     }
 
     /**
      * Update the focal and text positioning.
      */
     void prepare()
+    {
+        updateClipBounds();
+        final int changes = updateLayoutSnapshot();
+        final PromptMetricsRecorder metricsRecorder = getMetricsRecorder();
+        final long prepareStart = metricsRecorder != null ? System.nanoTime() : 0;
+        // Only the parts that have moved since being prefetched need preparing again
+        prepare(mPrefetched ? changes : PromptLayoutSnapshot.CHANGED_ALL);
+        if (metricsRecorder != null)
+        {
+            metricsRecorder.onPrepared(System.nanoTime() - prepareStart);
+        }
+        mPrefetched = false;
+    }
+
+    /**
+     * Prepare the prompt before it is shown, so that showing it only needs to prepare the parts
+     * that have moved since. Used by a sequence to prepare the next prompts in idle time.
+     * Does nothing if the prompt is already showing.
+     */
+    void prefetch()
+    {
+        if (mState != STATE_NOT_SHOWN && !isDismissed())
+        {
+            return;
+        }
+        updateClipBounds();
+        // The prompt view will fill the parent view when shown so take its position from the parent
+        final ViewGroup parent = mView.mPromptOptions.getResourceFinder().getPromptParentView();
+        final View targetRenderView = mView.mPromptOptions.getTargetRenderView();
+        mLayoutSnapshot.mHasSnapshot = false;
+        mLayoutSnapshot.update(parent, parent, mView.mPromptOptions.getTargetView(),
+                targetRenderView != null ? targetRenderView : mView.mPromptOptions.getTargetView(),
+                mView.mClipBounds, mView.mClipToBounds);
+        final PromptMetricsRecorder metricsRecorder = getMetricsRecorder();
+        final long prepareStart = metricsRecorder != null ? System.nanoTime() : 0;
+        prepare(PromptLayoutSnapshot.CHANGED_ALL);
+        if (metricsRecorder != null)
+        {
+            metricsRecorder.onPrepared(System.nanoTime() - prepareStart);
+        }
+        mPrefetched = true;
+    }
+
+    /**
+     * Update the parts of the prompt affected by the layout changes.
+     *
+     * @param changes The layout changes, a combination of the {@link PromptLayoutSnapshot} CHANGED_ flags.
+     */
+    void prepare(int changes)
     {
         final View targetRenderView = mView.mPromptOptions.getTargetRenderView();
         if (targetRenderView == null)
@@ -622,22 +1356,114 @@ public class MaterialTapTargetPrompt
         {
             mView.mTargetRenderView = targetRenderView;
         }
-        updateClipBounds();
-        final View targetView = mView.mPromptOptions.getTargetView();
-        if (targetView != null)
+        if (mView.mTargetRenderView != null && mView.mPromptOptions.getTargetRenderCacheEnabled())
         {
-            final int[] viewPosition = new int[2];
-            mView.getLocationInWindow(viewPosition);
-            mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetView, viewPosition);
+            if (mView.mTargetRenderCache == null)
+            {
+                mView.mTargetRenderCache = new TargetRenderCache();
+            }
+            if ((changes & PromptLayoutSnapshot.CHANGED_TARGET) != 0)
+            {
+                mView.mTargetRenderCache.invalidate();
+            }
         }
-        else
+        if ((changes & PromptLayoutSnapshot.CHANGED_TARGET_OFFSET) != 0
+                && ((changes & (PromptLayoutSnapshot.CHANGED_TARGET | PromptLayoutSnapshot.CHANGED_CLIP)) != 0
+                    || !offset(mLayoutSnapshot.mTargetOffsetX, mLayoutSnapshot.mTargetOffsetY)))
         {
-            final PointF targetPosition = mView.mPromptOptions.getTargetPosition();
-            mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetPosition.x, targetPosition.y);
+            changes |= PromptLayoutSnapshot.CHANGED_TARGET;
+        }
+        if ((changes & PromptLayoutSnapshot.CHANGED_TARGET) != 0)
+        {
+            final View targetView = mView.mPromptOptions.getTargetView();
+            if (targetView != null)
+            {
+                mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetView,
+                        mLayoutSnapshot.mPromptViewPosition);
+            }
+            else
+            {
+                final PointF targetPosition = mView.mPromptOptions.getTargetPosition();
+                mView.mPromptOptions.getPromptFocal().prepare(mView.mPromptOptions, targetPosition.x, targetPosition.y);
+            }
+        }
+        if ((changes & (PromptLayoutSnapshot.CHANGED_TARGET | PromptLayoutSnapshot.CHANGED_CLIP)) != 0)
+        {
+            // The text is positioned around the focal and the background around both
+            mView.mPromptOptions.getPromptText().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
+            mView.mPromptOptions.getPromptBackground().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
+            mView.invalidateRecordings();
         }
-        mView.mPromptOptions.getPromptText().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
-        mView.mPromptOptions.getPromptBackground().prepare(mView.mPromptOptions, mView.mClipToBounds, mView.mClipBounds);
         updateIconPosition();
+        updateIdleAnimationClipped();
+        // Reposition the idle animation drawable, falling back to the animators if no longer supported
+        if (mView.mFocalIdleDrawable != null && mView.mFocalIdleDrawable
+                != mView.mPromptOptions.getPromptFocal().getIdleAnimationDrawable(mView.mPromptOptions))
+        {
+            startIdleAnimations();
+        }
+    }
+
+    /**
+     * Move the prompt after the target has moved without anything else changing, preparing only
+     * the elements that can't be moved.
+     *
+     * @param dx The horizontal distance that the target has moved.
+     * @param dy The vertical distance that the target has moved.
+     * @return False if the focal can't be moved and everything needs preparing again.
+     */
+    boolean offset(final float dx, final float dy)
+    {
+        final PromptOptions options = mView.mPromptOptions;
+        if (!options.getPromptFocal().offset(options, dx, dy))
+        {
+            return false;
+        }
+        if (!options.getPromptText().offset(options, dx, dy))
+        {
+            options.getPromptText().prepare(options, mView.mClipToBounds, mView.mClipBounds);
+        }
+        if (!options.getPromptBackground().offset(options, dx, dy))
+        {
+            options.getPromptBackground().prepare(options, mView.mClipToBounds, mView.mClipBounds);
+        }
+        mView.invalidateRecordings();
+        return true;
+    }
+
+    /**
+     * Take a snapshot of the layout values that the prompt depends on.
+     *
+     * @return The changes since the last snapshot, a combination of the {@link PromptLayoutSnapshot}
+     * CHANGED_ flags.
+     */
+    int updateLayoutSnapshot()
+    {
+        final ViewGroup parent = mOverlay != null ? mOverlay.mHost : (ViewGroup) mView.getParent();
+        if (parent == null)
+        {
+            mView.getLocationInWindow(mLayoutSnapshot.mPromptViewPosition);
+            mLayoutSnapshot.mHasSnapshot = false;
+            return PromptLayoutSnapshot.CHANGED_ALL;
+        }
+        final View targetRenderView = mView.mPromptOptions.getTargetRenderView();
+        // The overlay fills the host but isn't part of the window's view hierarchy so can't
+        // report its own position
+        return mLayoutSnapshot.update(mOverlay != null ? mOverlay.mHost : mView, parent,
+                mView.mPromptOptions.getTargetView(),
+                targetRenderView != null ? targetRenderView : mView.mPromptOptions.getTargetView(),
+                mView.mClipBounds, mView.mClipToBounds);
+    }
+
+    /**
+     * Pause the idle animations while the focal is scrolled outside of the clip bounds.
+     */
+    void updateIdleAnimationClipped()
+    {
+        final RectF focalBounds = mView.mPromptOptions.getPromptFocal().getBounds();
+        setIdleAnimationPaused(IDLE_PAUSED_CLIPPED, mView.mClipToBounds
+                && !mView.mClipBounds.intersects((int) focalBounds.left, (int) focalBounds.top,
+                        (int) Math.ceil(focalBounds.right), (int) Math.ceil(focalBounds.bottom)));
     }
 
     /**
@@ -657,7 +1483,7 @@ public class MaterialTapTargetPrompt
         else if (mView.mTargetRenderView != null)
         {
             final int[] viewPosition = new int[2];
-            mView.getLocationInWindow(viewPosition);
+            (mOverlay != null ? mOverlay.mHost : mView).getLocationInWindow(viewPosition);
             final int[] targetPosition = new int[2];
             mView.mTargetRenderView.getLocationInWindow(targetPosition);
 
@@ -739,6 +1565,75 @@ public class MaterialTapTargetPrompt
         boolean mClipToBounds;
         AccessibilityManager mAccessibilityManager;
 
+        /**
+         * The recorded background and text, only used on API 29+ when hardware accelerated.
+         */
+        @Nullable PromptRenderNodes mRenderNodes;
+
+        /**
+         * The focal idle animation drawable when the idle animation is run by the RenderThread.
+         */
+        @Nullable Drawable mFocalIdleDrawable;
+
+        /**
+         * Morphs from the previous prompt in a sequence, kept for reuse between prompts.
+         */
+        @Nullable PromptMorph mMorph;
+
+        /**
+         * The lifecycle owner observed to pause the idle animations while stopped.
+         */
+        @Nullable LifecycleOwner mLifecycleOwner;
+
+        /**
+         * Pauses the idle animations while the lifecycle owner is stopped.
+         */
+        final LifecycleEventObserver mLifecycleObserver = (source, event) -> {
+            if (event == Lifecycle.Event.ON_START)
+            {
+                mPrompt.setIdleAnimationPaused(IDLE_PAUSED_STOPPED, false);
+            }
+            else if (event == Lifecycle.Event.ON_STOP)
+            {
+                mPrompt.setIdleAnimationPaused(IDLE_PAUSED_STOPPED, true);
+            }
+        };
+
+        /**
+         * Pauses the idle animations while the device is in power save mode, only registered on API 21+.
+         */
+        @Nullable BroadcastReceiver mPowerSaveReceiver;
+
+        /**
+         * The cached target view rendering, null if the target isn't rendered or caching is disabled.
+         */
+        @Nullable TargetRenderCache mTargetRenderCache;
+
+        /**
+         * Refreshes the target render cache when the target has been invalidated.
+         * The dirty flag is only set between the target invalidating and the next draw pass.
+         * Also updates the window visibility when the prompt is in an overlay.
+         */
+        final ViewTreeObserver.OnPreDrawListener mTargetPreDrawListener = () -> {
+            if (mPrompt != null && mPrompt.mOverlay != null)
+            {
+                // The window visibility isn't sent to views in an overlay, but a traversal always
+                // follows a window visibility change
+                mPrompt.mOverlay.updateWindowVisibility();
+            }
+            if (mTargetRenderCache != null && mTargetRenderView != null && mTargetRenderView.isDirty())
+            {
+                mTargetRenderCache.invalidate();
+                invalidate();
+            }
+            return true;
+        };
+
+        /**
+         * Resolves the touch gestures on the view to presses.
+         */
+        final PromptGestureTracker mGestureTracker;
+
         /**
          * Create a new prompt view.
          *
@@ -756,11 +1651,17 @@ public class MaterialTapTargetPrompt
                 // Disable hardware acceleration
                 setLayerType(View.LAYER_TYPE_SOFTWARE, null);
             }
+            else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)
+            {
+                mRenderNodes = new PromptRenderNodes();
+            }
             /*paddingPaint.setColor(Color.GREEN);
             paddingPaint.setAlpha(100);
             itemPaint.setColor(Color.BLUE);
             itemPaint.setAlpha(100);*/
 
+            mGestureTracker = new PromptGestureTracker(this);
+
             setAccessibilityDelegate(new AccessibilityDelegate());
             mAccessibilityManager = (AccessibilityManager) context.getSystemService(Context.ACCESSIBILITY_SERVICE);
 
@@ -773,35 +1674,95 @@ public class MaterialTapTargetPrompt
         protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec)
         {
             // Stop the prompt increasing the parent size by setting it to the parents size.
+            if (mPrompt != null && mPrompt.mOverlay != null)
+            {
+                // Measured by the prompt to fill the overlay host
+                this.setMeasuredDimension(MeasureSpec.getSize(widthMeasureSpec),
+                        MeasureSpec.getSize(heightMeasureSpec));
+                return;
+            }
             final View parent = (View) this.getParent();
             this.setMeasuredDimension(parent.getMeasuredWidth(), parent.getMeasuredHeight());
         }
 
+        @Override
+        protected void onSizeChanged(int w, int h, int oldw, int oldh)
+        {
+            super.onSizeChanged(w, h, oldw, oldh);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mRenderNodes != null)
+            {
+                mRenderNodes.setSize(w, h);
+            }
+        }
+
+        /**
+         * Marks the recorded background and text as changed so they are recorded again on the
+         * next draw. Not needed when only the focal has changed.
+         */
+        void invalidateRecordings()
+        {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mRenderNodes != null)
+            {
+                mRenderNodes.invalidate();
+            }
+        }
+
         @Override
         public void onDraw(final Canvas canvas)
         {
+            if (mPrompt != null && mPrompt.mMetricsRecorder != null)
+            {
+                mPrompt.mMetricsRecorder.onDraw();
+            }
             if (mClipToBounds)
             {
                 canvas.clipRect(mClipBounds);
             }
 
-            //Draw the backgrounds, clipping the focal path so we don't draw over it.
-            final Path focalPath = mPromptOptions.getPromptFocal().getPath();
-            if (focalPath != null)
+            final boolean morphing = mMorph != null && mMorph.mFrom != null;
+            final boolean useRenderNodes = Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q
+                    && !morphing && mRenderNodes != null && canvas.isHardwareAccelerated();
+
+            if (morphing)
             {
-                canvas.save();
-                canvas.clipPath(focalPath, Region.Op.DIFFERENCE);
+                mMorph.drawShapes(canvas, mPromptOptions);
             }
+            else
+            {
+                //Draw the backgrounds, clipping the focal path so we don't draw over it.
+                final Path focalPath = mPromptOptions.getPromptFocal().getPath();
+                if (focalPath != null)
+                {
+                    canvas.save();
+                    canvas.clipPath(focalPath, Region.Op.DIFFERENCE);
+                }
 
-            mPromptOptions.getPromptBackground().draw(canvas);
+                if (useRenderNodes)
+                {
+                    // Replay the recorded background, only the clip changes while the focal animates
+                    mRenderNodes.drawBackground(canvas, mPromptOptions.getPromptBackground());
+                }
+                else
+                {
+                    mPromptOptions.getPromptBackground().draw(canvas);
+                }
 
-            if (focalPath != null)
-            {
-                canvas.restore();
-            }
+                if (focalPath != null)
+                {
+                    canvas.restore();
+                }
 
-            //Draw the focal
-            mPromptOptions.getPromptFocal().draw(canvas);
+                //Draw the focal
+                if (mFocalIdleDrawable != null)
+                {
+                    // Draws and animates the focal and ripple without invalidating the view
+                    mFocalIdleDrawable.draw(canvas);
+                }
+                else
+                {
+                    mPromptOptions.getPromptFocal().draw(canvas);
+                }
+            }
 
             /*canvas.drawRect(mPrimaryTextLeft - padding, mPrimaryTextTop, mPrimaryTextLeft, mPrimaryTextTop + mSecondaryTextOffsetTop + mSecondaryTextLayout.getHeight(), paddingPaint);
             canvas.drawRect(mTextBounds, itemPaint);
@@ -817,30 +1778,104 @@ public class MaterialTapTargetPrompt
             else if (mTargetRenderView != null)
             {
                 canvas.translate(mIconDrawableLeft, mIconDrawableTop);
-                mTargetRenderView.draw(canvas);
+                if (mTargetRenderCache != null)
+                {
+                    mTargetRenderCache.draw(canvas, mTargetRenderView);
+                }
+                else
+                {
+                    mTargetRenderView.draw(canvas);
+                }
                 canvas.translate(-mIconDrawableLeft, -mIconDrawableTop);
             }
 
             //Draw the text
-            mPromptOptions.getPromptText().draw(canvas);
+            if (morphing)
+            {
+                mMorph.drawText(canvas, mPromptOptions);
+            }
+            else if (useRenderNodes)
+            {
+                mRenderNodes.drawText(canvas, mPromptOptions.getPromptText());
+            }
+            else
+            {
+                mPromptOptions.getPromptText().draw(canvas);
+            }
+        }
+
+        @Override
+        protected void onAttachedToWindow()
+        {
+            super.onAttachedToWindow();
+            getViewTreeObserver().addOnPreDrawListener(mTargetPreDrawListener);
+            final Context context = getContext();
+            if (context instanceof LifecycleOwner)
+            {
+                // Adding the observer dispatches the events up to the current state
+                mLifecycleOwner = (LifecycleOwner) context;
+                mLifecycleOwner.getLifecycle().addObserver(mLifecycleObserver);
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP)
+            {
+                final PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+                if (powerManager != null)
+                {
+                    mPowerSaveReceiver = new BroadcastReceiver()
+                    {
+                        @Override
+                        public void onReceive(Context context, Intent intent)
+                        {
+                            mPrompt.setIdleAnimationPaused(IDLE_PAUSED_POWER_SAVE,
+                                    powerManager.isPowerSaveMode());
+                        }
+                    };
+                    context.registerReceiver(mPowerSaveReceiver,
+                            new IntentFilter(PowerManager.ACTION_POWER_SAVE_MODE_CHANGED));
+                    mPrompt.setIdleAnimationPaused(IDLE_PAUSED_POWER_SAVE, powerManager.isPowerSaveMode());
+                }
+            }
+        }
+
+        @Override
+        public void onWindowFocusChanged(boolean hasWindowFocus)
+        {
+            super.onWindowFocusChanged(hasWindowFocus);
+            mPrompt.setIdleAnimationPaused(IDLE_PAUSED_WINDOW_FOCUS, !hasWindowFocus);
+        }
+
+        @Override
+        protected void onWindowVisibilityChanged(int visibility)
+        {
+            super.onWindowVisibilityChanged(visibility);
+            mPrompt.setIdleAnimationPaused(IDLE_PAUSED_HIDDEN, visibility != View.VISIBLE);
+        }
+
+        @Override
+        protected boolean verifyDrawable(@NonNull Drawable who)
+        {
+            return who == mFocalIdleDrawable || super.verifyDrawable(who);
         }
 
         @Override
         public boolean onHoverEvent(MotionEvent event) {
             if (mAccessibilityManager.isTouchExplorationEnabled() && event.getPointerCount() == 1) {
-                final int action = event.getAction();
-                switch (action) {
+                final int action;
+                switch (event.getActionMasked()) {
                     case MotionEvent.ACTION_HOVER_ENTER: {
-                        event.setAction(MotionEvent.ACTION_DOWN);
+                        action = MotionEvent.ACTION_DOWN;
                     } break;
                     case MotionEvent.ACTION_HOVER_MOVE: {
-                        event.setAction(MotionEvent.ACTION_MOVE);
+                        action = MotionEvent.ACTION_MOVE;
                     } break;
                     case MotionEvent.ACTION_HOVER_EXIT: {
-                        event.setAction(MotionEvent.ACTION_UP);
+                        action = MotionEvent.ACTION_UP;
                     } break;
+                    default: {
+                        action = event.getActionMasked();
+                    }
                 }
-                return onTouchEvent(event);
+                return mGestureTracker.onGestureEvent(action, event.getX(), event.getY());
             }
             return super.onHoverEvent(event);
         }
@@ -848,34 +1883,8 @@ public class MaterialTapTargetPrompt
         @Override
         public boolean onTouchEvent(MotionEvent event)
         {
-            final float x = event.getX();
-            final float y = event.getY();
-            //If the touch point is within the prompt background stop the event from passing through it
-            boolean captureEvent = (!mClipToBounds || mClipBounds.contains((int) x, (int) y))
-                    && mPromptOptions.getPromptBackground().contains(x, y);
-            //If the touch event was at least in the background and in the focal
-            if (captureEvent && mPromptOptions.getPromptFocal().contains(x, y))
-            {
-                //Override allowing the touch event to pass through the view with the user defined value
-                captureEvent = mPromptOptions.getCaptureTouchEventOnFocal();
-                if (mPromptTouchedListener != null)
-                {
-                    mPromptTouchedListener.onFocalPressed();
-                }
-            }
-            else
-            {
-                // If the prompt background was not touched
-                if (!captureEvent)
-                {
-                    captureEvent = mPromptOptions.getCaptureTouchEventOutsidePrompt();
-                }
-                if (mPromptTouchedListener != null)
-                {
-                    mPromptTouchedListener.onNonFocalPressed();
-                }
-            }
-            return captureEvent;
+            return mGestureTracker.onGestureEvent(event.getActionMasked(),
+                    event.getX(), event.getY());
         }
 
         @Override
@@ -913,7 +1922,28 @@ public class MaterialTapTargetPrompt
         protected void onDetachedFromWindow()
         {
             super.onDetachedFromWindow();
+            mGestureTracker.endGesture();
             mPrompt.cleanUpAnimation();
+            mPrompt.mIdleAnimationPauseReasons = 0;
+            if (mLifecycleOwner != null)
+            {
+                mLifecycleOwner.getLifecycle().removeObserver(mLifecycleObserver);
+                mLifecycleOwner = null;
+            }
+            if (mPowerSaveReceiver != null)
+            {
+                getContext().unregisterReceiver(mPowerSaveReceiver);
+                mPowerSaveReceiver = null;
+            }
+            getViewTreeObserver().removeOnPreDrawListener(mTargetPreDrawListener);
+            if (mTargetRenderCache != null)
+            {
+                mTargetRenderCache.discard();
+            }
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mRenderNodes != null)
+            {
+                mRenderNodes.discard();
+            }
         }
 
         @Override
@@ -1146,6 +2176,74 @@ public class MaterialTapTargetPrompt
             super(resourceFinder);
             load(themeResId);
         }
+
+        /**
+         * Creates a builder for a material tap target prompt from a template instead of loading
+         * a theme.
+         *
+         * @param fragment the fragment to show the prompt within.
+         * @param template the template with the resolved prompt values.
+         * @see PromptOptions#createTemplate()
+         */
+        public Builder(@NonNull final Fragment fragment, @NonNull final PromptOptionsTemplate template)
+        {
+            this(new SupportFragmentResourceFinder(fragment), template);
+        }
+
+        /**
+         * Creates a builder for a material tap target prompt from a template instead of loading
+         * a theme.
+         *
+         * @param dialogFragment the dialog fragment to show the prompt within.
+         * @param template       the template with the resolved prompt values.
+         * @see PromptOptions#createTemplate()
+         */
+        public Builder(@NonNull final DialogFragment dialogFragment,
+                       @NonNull final PromptOptionsTemplate template)
+        {
+            this(new SupportFragmentResourceFinder(dialogFragment), template);
+        }
+
+        /**
+         * Creates a builder for a material tap target prompt from a template instead of loading
+         * a theme.
+         *
+         * @param dialog   the dialog to show the prompt within.
+         * @param template the template with the resolved prompt values.
+         * @see PromptOptions#createTemplate()
+         */
+        public Builder(@NonNull final Dialog dialog, @NonNull final PromptOptionsTemplate template)
+        {
+            this(new DialogResourceFinder(dialog), template);
+        }
+
+        /**
+         * Creates a builder for a material tap target prompt from a template instead of loading
+         * a theme.
+         *
+         * @param activity the activity to show the prompt within.
+         * @param template the template with the resolved prompt values.
+         * @see PromptOptions#createTemplate()
+         */
+        public Builder(@NonNull final Activity activity, @NonNull final PromptOptionsTemplate template)
+        {
+            this(new ActivityResourceFinder(activity), template);
+        }
+
+        /**
+         * Creates a builder for a material tap target prompt from a template instead of loading
+         * a theme.
+         *
+         * @param resourceFinder The {@link ResourceFinder} used to find views and resources.
+         * @param template       the template with the resolved prompt values.
+         * @see PromptOptions#createTemplate()
+         */
+        public Builder(@NonNull final ResourceFinder resourceFinder,
+                       @NonNull final PromptOptionsTemplate template)
+        {
+            super(resourceFinder);
+            applyTemplate(template);
+        }
     }
 
     /**
@@ -16,6 +16,9 @@
 
 package uk.co.samuelwall.materialtaptargetprompt;
 
+import android.os.Looper;
+import android.os.MessageQueue;
+
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -60,17 +63,24 @@ public class MaterialTapTargetSequence
             if (prompt != null)
             {
                 prompt.mView.mPromptOptions.setSequenceListener(null);
+                // Only applies while shown in this sequence
+                prompt.setKeepViewForNextPrompt(false);
+                prompt.setMorphToNextPrompt(false);
             }
             nextPromptIndex++;
             // Check if there is another prompt to show
             if (items.size() > nextPromptIndex)
             {
-                show(nextPromptIndex);
+                show(nextPromptIndex, prompt);
             }
-            else if (mOnCompleteListener != null)
+            else
             {
-                mOnCompleteListener.onSequenceComplete();
-                nextPromptIndex = -1;
+                cancelPrefetch();
+                if (mOnCompleteListener != null)
+                {
+                    mOnCompleteListener.onSequenceComplete();
+                    nextPromptIndex = -1;
+                }
             }
         }
     };
@@ -81,6 +91,27 @@ public class MaterialTapTargetSequence
     @Nullable
     private SequenceCompleteListener mOnCompleteListener;
 
+    /**
+     * Should the prompts in the sequence share a single prompt view.
+     */
+    private boolean mPromptViewReuseEnabled;
+
+    /**
+     * The number of prompts after the current prompt to prepare in idle time.
+     */
+    private int mPrefetchDepth;
+
+    /**
+     * Should each prompt morph into the next prompt.
+     */
+    private boolean mMorphTransitionEnabled;
+
+    /**
+     * Prepares the next prompts once the current prompt has been revealed, null if not scheduled.
+     */
+    @Nullable
+    MessageQueue.IdleHandler mPrefetchIdleHandler;
+
     /**
      * Set the listener to listen with the action to call when the sequence ends
      * @param listener the listener with the action to execute
@@ -92,6 +123,88 @@ public class MaterialTapTargetSequence
         return this;
     }
 
+    /**
+     * Enable/disable sharing one prompt view between the prompts in the sequence.
+     * When enabled the view is kept attached when a prompt completes and is taken over by the
+     * next prompt, instead of each prompt adding and removing its own view. The view is removed
+     * when the sequence completes or is stopped.
+     * false by default
+     *
+     * @param enabled Prompt view reuse enabled
+     * @return This.
+     */
+    @NonNull
+    public MaterialTapTargetSequence setPromptViewReuseEnabled(final boolean enabled)
+    {
+        mPromptViewReuseEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Do the prompts in the sequence share a single prompt view.
+     *
+     * @return True if prompt view reuse is enabled.
+     */
+    public boolean getPromptViewReuseEnabled()
+    {
+        return mPromptViewReuseEnabled;
+    }
+
+    /**
+     * Enable/disable morphing from each prompt to the next prompt in a single animation, instead
+     * of the prompt running its exit animation followed by the next prompt's reveal animation.
+     * The focal, background and text move and resize from the previous prompt's positions to
+     * the next prompt's. Morphing shares one prompt view between the prompts in the same way as
+     * {@link #setPromptViewReuseEnabled(boolean)}.
+     * The last prompt in the sequence uses its exit animation.
+     * false by default
+     *
+     * @param enabled Morph transition enabled
+     * @return This.
+     */
+    @NonNull
+    public MaterialTapTargetSequence setMorphTransitionEnabled(final boolean enabled)
+    {
+        mMorphTransitionEnabled = enabled;
+        return this;
+    }
+
+    /**
+     * Does each prompt morph into the next prompt.
+     *
+     * @return True if morph transition is enabled.
+     */
+    public boolean getMorphTransitionEnabled()
+    {
+        return mMorphTransitionEnabled;
+    }
+
+    /**
+     * Set the number of prompts after the current prompt to create and prepare in idle time once
+     * the current prompt has been revealed, so that the next prompt can start rendering as soon
+     * as it is shown. One prompt is prepared each time the main thread is idle.
+     * 0 by default, which disables prefetching.
+     *
+     * @param depth The number of prompts to prefetch.
+     * @return This.
+     */
+    @NonNull
+    public MaterialTapTargetSequence setPrefetchDepth(final int depth)
+    {
+        mPrefetchDepth = depth;
+        return this;
+    }
+
+    /**
+     * Get the number of prompts after the current prompt that are prepared in idle time.
+     *
+     * @return The prefetch depth.
+     */
+    public int getPrefetchDepth()
+    {
+        return mPrefetchDepth;
+    }
+
     /**
      * Add a prompt to the end of the sequence.
      *
@@ -222,16 +335,100 @@ public class MaterialTapTargetSequence
      * @param index The 0 based index for the sequence item to show.
      */
     private void show(final int index)
+    {
+        this.show(index, null);
+    }
+
+    /**
+     * Shows a prompt from a sequence item at the supplied index, taking over the previous
+     * prompt's view if prompt view reuse is enabled.
+     *
+     * @param index The 0 based index for the sequence item to show.
+     * @param previous The prompt that has just completed or null if there isn't one.
+     */
+    private void show(final int index, @Nullable final MaterialTapTargetPrompt previous)
     {
         final SequenceItem sequenceItem = this.items.get(index);
         sequenceItem.setSequenceListener(this.itemListener);
         final MaterialTapTargetPrompt prompt = sequenceItem.getState().getPrompt();
         if (prompt != null)
         {
+            final boolean reuseView = mPromptViewReuseEnabled || mMorphTransitionEnabled;
+            prompt.setKeepViewForNextPrompt(reuseView);
+            prompt.setMorphToNextPrompt(mMorphTransitionEnabled && index + 1 < this.items.size());
+            if (reuseView && previous != null && prompt.adoptView(previous) && mMorphTransitionEnabled)
+            {
+                prompt.setMorphFrom(previous);
+            }
             // add the listener to trigger the next in the sequence
             prompt.mView.mPromptOptions.setSequenceListener(sequenceItem);
         }
         sequenceItem.show();
+        if (this.nextPromptIndex == index)
+        {
+            this.schedulePrefetch(index, prompt);
+        }
+    }
+
+    /**
+     * Schedule preparing the prompts after the current prompt in idle time, replacing any
+     * previously scheduled prefetch.
+     *
+     * @param index The index of the current prompt.
+     * @param current The current prompt or null if it doesn't have one.
+     */
+    private void schedulePrefetch(final int index, @Nullable final MaterialTapTargetPrompt current)
+    {
+        this.cancelPrefetch();
+        if (mPrefetchDepth <= 0 || index + 1 >= this.items.size())
+        {
+            return;
+        }
+        mPrefetchIdleHandler = new MessageQueue.IdleHandler()
+        {
+            int mPrefetchIndex = index + 1;
+
+            @Override
+            public boolean queueIdle()
+            {
+                if (nextPromptIndex != index)
+                {
+                    // The sequence has moved on
+                    mPrefetchIdleHandler = null;
+                    return false;
+                }
+                if (current != null && current.getState() != MaterialTapTargetPrompt.STATE_REVEALED)
+                {
+                    // Don't compete with the reveal animation frames
+                    return true;
+                }
+                final MaterialTapTargetPrompt prompt = items.get(mPrefetchIndex).getState().getPrompt();
+                if (prompt != null)
+                {
+                    prompt.prefetch();
+                }
+                mPrefetchIndex++;
+                if (mPrefetchIndex < items.size() && mPrefetchIndex <= index + mPrefetchDepth)
+                {
+                    return true;
+                }
+                mPrefetchIdleHandler = null;
+                return false;
+            }
+        };
+        Looper.myQueue().addIdleHandler(mPrefetchIdleHandler);
+    }
+
+    /**
+     * Remove the scheduled prefetch if there is one.
+     */
+    private void cancelPrefetch()
+    {
+        if (mPrefetchIdleHandler != null)
+        {
+            Looper.myQueue().removeIdleHandler(mPrefetchIdleHandler);
+            mPrefetchIdleHandler = null;
+        }
     }
 
     /**
@@ -243,6 +440,7 @@ public class MaterialTapTargetSequence
     @NonNull
     public MaterialTapTargetSequence finish()
     {
+        this.cancelPrefetch();
         if (this.nextPromptIndex > -1 && this.nextPromptIndex < this.items.size())
         {
             final SequenceItem sequenceItem = this.items.get(nextPromptIndex);
@@ -251,6 +449,8 @@ public class MaterialTapTargetSequence
             if (prompt != null)
             {
                 prompt.mView.mPromptOptions.setSequenceListener(null);
+                // Stopping the sequence so there is no next prompt to morph to
+                prompt.setMorphToNextPrompt(false);
             }
             sequenceItem.finish();
         }
@@ -266,6 +466,7 @@ public class MaterialTapTargetSequence
     @NonNull
     public MaterialTapTargetSequence dismiss()
     {
+        this.cancelPrefetch();
         if (this.nextPromptIndex > -1 && this.nextPromptIndex < this.items.size())
         {
             final SequenceItem sequenceItem = this.items.get(nextPromptIndex);
@@ -274,6 +475,8 @@ public class MaterialTapTargetSequence
             if (prompt != null)
             {
                 prompt.mView.mPromptOptions.setSequenceListener(null);
+                // Stopping the sequence so there is no next prompt to morph to
+                prompt.setMorphToNextPrompt(false);
             }
             sequenceItem.dismiss();
         }
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Tracks the area of the prompt view that needs redrawing for a frame.
+ * <p>
+ * Each element's dirty area is where it was drawn on the previous frame combined with where it
+ * is drawn now, so an idle animation frame only redraws the area around the focal.
+ */
+class PromptDirtyRegion
+{
+    /**
+     * Where the focal was drawn on the last invalidated frame.
+     */
+    final RectF mLastFocalBounds = new RectF();
+
+    /**
+     * Where the text was drawn on the last invalidated frame.
+     */
+    final RectF mLastTextBounds = new RectF();
+
+    /**
+     * Where the background was drawn on the last invalidated frame.
+     */
+    final RectF mLastBackgroundBounds = new RectF();
+
+    /**
+     * Where the icon or target render view was drawn on the last invalidated frame.
+     */
+    final RectF mLastIconBounds = new RectF();
+
+    /**
+     * The area that needs to be redrawn.
+     */
+    final RectF mDirtyBounds = new RectF();
+
+    /**
+     * Does the whole view need to be redrawn.
+     */
+    boolean mDirtyAll;
+
+    /**
+     * Reused for reading the element drawn bounds.
+     */
+    final RectF mElementBounds = new RectF();
+
+    /**
+     * Reused for the invalidated area.
+     */
+    private final Rect mDirtyRect = new Rect();
+
+    /**
+     * Add an element's dirty area, the element bounds must have been read into
+     * {@link #mElementBounds}.
+     *
+     * @param reported The value returned from reading the element bounds, false if the element
+     *                 doesn't report its bounds.
+     * @param lastBounds Where the element was drawn on the last frame, updated to the new bounds.
+     */
+    void add(final boolean reported, @NonNull final RectF lastBounds)
+    {
+        if (!reported)
+        {
+            mDirtyAll = true;
+            lastBounds.setEmpty();
+            return;
+        }
+        mDirtyBounds.union(lastBounds);
+        mDirtyBounds.union(mElementBounds);
+        lastBounds.set(mElementBounds);
+    }
+
+    /**
+     * Invalidate the dirty area of the view and reset for the next frame.
+     *
+     * @param view The view to invalidate.
+     */
+    void invalidate(@NonNull final View view)
+    {
+        if (mDirtyAll)
+        {
+            view.invalidate();
+        }
+        else if (!mDirtyBounds.isEmpty())
+        {
+            mDirtyBounds.roundOut(mDirtyRect);
+            // Allow for anti-aliasing
+            mDirtyRect.inset(-1, -1);
+            // Ignored by hardware accelerated views on API 21+ which calculate the area themselves
+            //noinspection deprecation
+            view.invalidate(mDirtyRect);
+        }
+        mDirtyAll = false;
+        mDirtyBounds.setEmpty();
+    }
+}
@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.view.MotionEvent;
+import android.view.ViewConfiguration;
+
+import androidx.annotation.NonNull;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Tracks the touch gestures on a prompt view, resolving each gesture to at most one focal or
+ * non focal press.
+ * <p>
+ * A press is resolved when the gesture starts, or when it is released or long pressed if press
+ * on release is enabled. A gesture that moves further than the touch slop before it is resolved
+ * is cancelled.
+ */
+class PromptGestureTracker
+{
+    /**
+     * No gesture is being tracked.
+     */
+    static final int GESTURE_NONE = 0;
+
+    /**
+     * The press is waiting to be resolved when the touch is released or long pressed.
+     */
+    static final int GESTURE_PENDING = 1;
+
+    /**
+     * The press has been resolved for the current gesture.
+     */
+    static final int GESTURE_RESOLVED = 2;
+
+    /**
+     * The touch moved too far to be a press, the rest of the gesture is ignored.
+     */
+    static final int GESTURE_CANCELLED = 3;
+
+    /**
+     * The view that the gestures are on.
+     */
+    @NonNull final MaterialTapTargetPrompt.PromptView mView;
+
+    /**
+     * The state of the current touch gesture.
+     */
+    int mState = GESTURE_NONE;
+
+    /**
+     * Was the gesture captured by the prompt when it started.
+     */
+    boolean mCaptured;
+
+    /**
+     * Did the gesture start in the focal.
+     */
+    boolean mOnFocal;
+
+    /**
+     * The position the gesture started at.
+     */
+    float mDownX, mDownY;
+
+    /**
+     * The squared distance a touch can move and still be a press.
+     */
+    final int mTouchSlopSquare;
+
+    /**
+     * Resolves a pending press when the touch is held for the long press timeout.
+     */
+    final Runnable mLongPressRunnable = () -> {
+        if (mState == GESTURE_PENDING)
+        {
+            resolvePress();
+        }
+    };
+
+    /**
+     * Constructor.
+     *
+     * @param view The view that the gestures are on.
+     */
+    PromptGestureTracker(@NonNull final MaterialTapTargetPrompt.PromptView view)
+    {
+        mView = view;
+        final int touchSlop = ViewConfiguration.get(view.getContext()).getScaledTouchSlop();
+        mTouchSlopSquare = touchSlop * touchSlop;
+    }
+
+    /**
+     * Update the gesture state for a touch, or a hover translated to a touch.
+     * The press is resolved at most once per gesture, the events after the first only update
+     * the state and return the capture decision made when the gesture started.
+     *
+     * @param action The masked touch action.
+     * @param x The touch x position.
+     * @param y The touch y position.
+     * @return True if the event is captured by the prompt.
+     */
+    boolean onGestureEvent(final int action, final float x, final float y)
+    {
+        switch (action)
+        {
+            case MotionEvent.ACTION_DOWN:
+                startGesture(x, y);
+                break;
+            case MotionEvent.ACTION_MOVE:
+                if (mState == GESTURE_NONE)
+                {
+                    // Not part of a tracked gesture
+                    return hitTest(x, y);
+                }
+                if (mState == GESTURE_PENDING)
+                {
+                    final float dx = x - mDownX;
+                    final float dy = y - mDownY;
+                    if (dx * dx + dy * dy > mTouchSlopSquare)
+                    {
+                        cancelGesture();
+                    }
+                }
+                break;
+            case MotionEvent.ACTION_UP:
+                if (mState == GESTURE_NONE)
+                {
+                    return hitTest(x, y);
+                }
+                if (mState == GESTURE_PENDING)
+                {
+                    resolvePress();
+                }
+                endGesture();
+                break;
+            case MotionEvent.ACTION_CANCEL:
+                endGesture();
+                break;
+            default:
+                if (mState == GESTURE_NONE)
+                {
+                    return hitTest(x, y);
+                }
+                break;
+        }
+        return mCaptured;
+    }
+
+    /**
+     * End the current gesture without resolving a press.
+     */
+    void endGesture()
+    {
+        mState = GESTURE_NONE;
+        mView.removeCallbacks(mLongPressRunnable);
+    }
+
+    /**
+     * Start a new gesture, resolving the press now unless it is resolved on release.
+     * A gesture that isn't captured is always resolved now, as the rest of its events won't
+     * be sent to the prompt.
+     *
+     * @param x The touch x position.
+     * @param y The touch y position.
+     */
+    private void startGesture(final float x, final float y)
+    {
+        mView.removeCallbacks(mLongPressRunnable);
+        mDownX = x;
+        mDownY = y;
+        mCaptured = hitTest(x, y);
+        final PromptOptions options = mView.mPromptOptions;
+        if (mCaptured && options.getPressOnRelease())
+        {
+            mState = GESTURE_PENDING;
+            if (options.getLongPressEnabled())
+            {
+                mView.postDelayed(mLongPressRunnable, ViewConfiguration.getLongPressTimeout());
+            }
+        }
+        else
+        {
+            resolvePress();
+        }
+    }
+
+    /**
+     * Test where a touch is in the prompt, setting {@link #mOnFocal}.
+     *
+     * @param x The touch x position.
+     * @param y The touch y position.
+     * @return True if the touch should be captured by the prompt.
+     */
+    private boolean hitTest(final float x, final float y)
+    {
+        final PromptOptions options = mView.mPromptOptions;
+        //If the touch point is within the prompt background stop the event from passing through it
+        boolean captureEvent = (!mView.mClipToBounds || mView.mClipBounds.contains((int) x, (int) y))
+                && options.getPromptBackground().contains(x, y);
+        //If the touch event was at least in the background and in the focal
+        mOnFocal = captureEvent && options.getPromptFocal().contains(x, y);
+        if (mOnFocal)
+        {
+            //Override allowing the touch event to pass through the view with the user defined value
+            captureEvent = options.getCaptureTouchEventOnFocal();
+        }
+        // If the prompt background was not touched
+        else if (!captureEvent)
+        {
+            captureEvent = options.getCaptureTouchEventOutsidePrompt();
+        }
+        return captureEvent;
+    }
+
+    /**
+     * Resolve the press for the current gesture, notifying the listener.
+     */
+    private void resolvePress()
+    {
+        mState = GESTURE_RESOLVED;
+        mView.removeCallbacks(mLongPressRunnable);
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mView.mPromptTouchedListener;
+        if (listener != null)
+        {
+            if (mOnFocal)
+            {
+                listener.onFocalPressed();
+            }
+            else
+            {
+                listener.onNonFocalPressed();
+            }
+        }
+    }
+
+    /**
+     * Stop the current gesture from resolving a press, the remaining events in the gesture
+     * are still captured if the gesture start was.
+     */
+    private void cancelGesture()
+    {
+        mState = GESTURE_CANCELLED;
+        mView.removeCallbacks(mLongPressRunnable);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Snapshot of the layout values that the prompt positioning depends on.
+ * <p>
+ * Used by the global layout listener to skip preparing the prompt again when a layout pass
+ * somewhere else in the window hasn't moved anything that the prompt depends on.
+ */
+class PromptLayoutSnapshot
+{
+    /**
+     * The target or prompt view has moved or changed size so the focal, text and background
+     * need preparing again.
+     */
+    static final int CHANGED_TARGET = 1;
+
+    /**
+     * The clip bounds or parent size have changed so the text and background need preparing again.
+     */
+    static final int CHANGED_CLIP = 1 << 1;
+
+    /**
+     * The target render view has moved or scrolled so the icon needs positioning again.
+     */
+    static final int CHANGED_ICON = 1 << 2;
+
+    /**
+     * The target has moved without changing size so the prompt can be moved by
+     * {@link #mTargetOffsetX} and {@link #mTargetOffsetY} instead of being prepared again.
+     */
+    static final int CHANGED_TARGET_OFFSET = 1 << 3;
+
+    /**
+     * Everything needs preparing again.
+     */
+    static final int CHANGED_ALL = CHANGED_TARGET | CHANGED_CLIP | CHANGED_ICON;
+
+    /**
+     * The prompt view position in the window.
+     */
+    final int[] mPromptViewPosition = new int[2];
+
+    /**
+     * The target view position in the window.
+     */
+    final int[] mTargetPosition = new int[2];
+
+    /**
+     * The target render view position in the window.
+     */
+    final int[] mTargetRenderPosition = new int[2];
+
+    /**
+     * The bounds that the prompt is clipped to.
+     */
+    final Rect mClipBounds = new Rect();
+
+    int mTargetWidth;
+    int mTargetHeight;
+    int mTargetOffsetX;
+    int mTargetOffsetY;
+    int mTargetRenderScrollX;
+    int mTargetRenderScrollY;
+    int mParentWidth;
+    int mParentHeight;
+    boolean mClipToBounds;
+
+    /**
+     * Has a snapshot been taken.
+     */
+    boolean mHasSnapshot;
+
+    /**
+     * Reused for reading view positions.
+     */
+    private final int[] mPosition = new int[2];
+
+    /**
+     * Take a new snapshot and compare it to the previous one.
+     *
+     * @param promptView The prompt view.
+     * @param parent The view that the prompt view is added to.
+     * @param target The prompt target view or null if targeting a position.
+     * @param targetRender The view rendered in the focal or null if there isn't one.
+     * @param clipBounds The current clip bounds.
+     * @param clipToBounds True if the prompt is clipped to the clip bounds.
+     * @return The changes since the last snapshot, a combination of the CHANGED_ flags or 0 if
+     * nothing has changed.
+     */
+    int update(@NonNull final View promptView, @NonNull final View parent,
+               @Nullable final View target, @Nullable final View targetRender,
+               @NonNull final Rect clipBounds, final boolean clipToBounds)
+    {
+        int changes = mHasSnapshot ? 0 : CHANGED_ALL;
+
+        promptView.getLocationInWindow(mPosition);
+        if (updatePosition(mPromptViewPosition))
+        {
+            // Everything is positioned relative to the prompt view
+            changes |= CHANGED_TARGET | CHANGED_ICON;
+        }
+
+        if (target != null)
+        {
+            target.getLocationInWindow(mPosition);
+            final int offsetX = mPosition[0] - mTargetPosition[0];
+            final int offsetY = mPosition[1] - mTargetPosition[1];
+            final boolean resized = target.getWidth() != mTargetWidth || target.getHeight() != mTargetHeight;
+            if (updatePosition(mTargetPosition) || resized)
+            {
+                if (resized || !mHasSnapshot)
+                {
+                    mTargetWidth = target.getWidth();
+                    mTargetHeight = target.getHeight();
+                    changes |= CHANGED_TARGET;
+                }
+                else
+                {
+                    mTargetOffsetX = offsetX;
+                    mTargetOffsetY = offsetY;
+                    changes |= CHANGED_TARGET_OFFSET;
+                }
+            }
+        }
+
+        if (targetRender != null)
+        {
+            targetRender.getLocationInWindow(mPosition);
+            if (updatePosition(mTargetRenderPosition)
+                    || targetRender.getScrollX() != mTargetRenderScrollX
+                    || targetRender.getScrollY() != mTargetRenderScrollY)
+            {
+                mTargetRenderScrollX = targetRender.getScrollX();
+                mTargetRenderScrollY = targetRender.getScrollY();
+                changes |= CHANGED_ICON;
+            }
+        }
+
+        if (parent.getWidth() != mParentWidth || parent.getHeight() != mParentHeight)
+        {
+            mParentWidth = parent.getWidth();
+            mParentHeight = parent.getHeight();
+            changes |= CHANGED_CLIP;
+        }
+
+        if (clipToBounds != mClipToBounds || !clipBounds.equals(mClipBounds))
+        {
+            mClipToBounds = clipToBounds;
+            mClipBounds.set(clipBounds);
+            changes |= CHANGED_CLIP;
+        }
+
+        mHasSnapshot = true;
+        return changes;
+    }
+
+    /**
+     * Copy the last read position into the snapshot position.
+     *
+     * @param snapshotPosition The snapshot position to update.
+     * @return True if the position has changed.
+     */
+    private boolean updatePosition(@NonNull final int[] snapshotPosition)
+    {
+        if (snapshotPosition[0] == mPosition[0] && snapshotPosition[1] == mPosition[1])
+        {
+            return false;
+        }
+        snapshotPosition[0] = mPosition[0];
+        snapshotPosition[1] = mPosition[1];
+        return true;
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+import android.view.WindowManager;
+
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptMetrics;
+
+/**
+ * Records the {@link PromptMetrics} for a prompt from being shown until it has been dismissed or
+ * finished, then passes them to the options metrics listener.
+ * <p>
+ * The animation frames are taken from the window frame metrics on API 24+ when the window is
+ * hardware accelerated, otherwise from the time between Choreographer frames on API 16+.
+ * Only the prepare and first frame timings are recorded below API 16.
+ */
+class PromptMetricsRecorder
+{
+    /**
+     * The frame interval used if the display refresh rate can't be read, 60Hz.
+     */
+    static final long DEFAULT_FRAME_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1) / 60;
+
+    /**
+     * The prompt being recorded.
+     */
+    @NonNull final MaterialTapTargetPrompt mPrompt;
+
+    /**
+     * The metrics being recorded, null until there is something to record.
+     */
+    @Nullable PromptMetrics mMetrics;
+
+    /**
+     * When {@link MaterialTapTargetPrompt#show()} was called, -1 if it hasn't been.
+     */
+    long mShowRequestedTime = -1;
+
+    /**
+     * When the current showing was requested, -1 if the prompt isn't showing.
+     */
+    long mShownTime = -1;
+
+    /**
+     * Has the prompt been drawn since it was shown.
+     */
+    boolean mFirstFrameDrawn;
+
+    /**
+     * The animation the frames are being recorded for.
+     */
+    int mPhase = PromptMetrics.PHASE_NONE;
+
+    /**
+     * The display frame interval.
+     */
+    long mFrameIntervalNanos = DEFAULT_FRAME_INTERVAL_NANOS;
+
+    /**
+     * The last Choreographer frame time, 0 before the first frame in a phase.
+     */
+    long mLastFrameTimeNanos;
+
+    @Nullable private ChoreographerFrameCallback mFrameCallback;
+    @Nullable private FrameMetricsListener mFrameMetricsListener;
+    @Nullable private Window mFrameMetricsWindow;
+
+    PromptMetricsRecorder(@NonNull final MaterialTapTargetPrompt prompt)
+    {
+        mPrompt = prompt;
+    }
+
+    /**
+     * Get the metrics being recorded, creating them if needed.
+     *
+     * @return The metrics.
+     */
+    @NonNull
+    PromptMetrics getMetrics()
+    {
+        if (mMetrics == null)
+        {
+            mMetrics = new PromptMetrics();
+        }
+        return mMetrics;
+    }
+
+    /**
+     * Called when {@link MaterialTapTargetPrompt#show()} is called, which may be before the text
+     * has been measured.
+     */
+    void onShowRequested()
+    {
+        mShowRequestedTime = System.nanoTime();
+    }
+
+    /**
+     * Called when the prompt view has been added, after the previous showing has completed.
+     */
+    void onShown()
+    {
+        getMetrics();
+        mShownTime = mShowRequestedTime >= 0 ? mShowRequestedTime : System.nanoTime();
+        mShowRequestedTime = -1;
+        mFirstFrameDrawn = false;
+        mFrameIntervalNanos = readFrameInterval();
+    }
+
+    /**
+     * Called after the prompt has been prepared.
+     *
+     * @param durationNanos The time taken to prepare.
+     */
+    void onPrepared(final long durationNanos)
+    {
+        getMetrics().recordPrepare(durationNanos);
+    }
+
+    /**
+     * Called when the prompt view is drawn.
+     */
+    void onDraw()
+    {
+        if (mShownTime >= 0 && !mFirstFrameDrawn)
+        {
+            mFirstFrameDrawn = true;
+            getMetrics().recordTimeToFirstFrame(System.nanoTime() - mShownTime);
+        }
+    }
+
+    /**
+     * Start recording the frames for an animation.
+     *
+     * @param phase {@link PromptMetrics#PHASE_REVEAL} or {@link PromptMetrics#PHASE_DISMISS}.
+     */
+    void startFrames(final int phase)
+    {
+        if (mShownTime < 0)
+        {
+            return;
+        }
+        stopFrames();
+        mPhase = phase;
+        mLastFrameTimeNanos = 0;
+        if (addFrameMetricsListener())
+        {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+        {
+            if (mFrameCallback == null)
+            {
+                mFrameCallback = new ChoreographerFrameCallback();
+            }
+            Choreographer.getInstance().postFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Stop recording the animation frames.
+     */
+    void stopFrames()
+    {
+        mPhase = PromptMetrics.PHASE_NONE;
+        if (mFrameCallback != null)
+        {
+            Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        }
+    }
+
+    /**
+     * Called when the prompt has been dismissed or finished, passes the metrics to the listener.
+     */
+    void onComplete()
+    {
+        stopFrames();
+        removeFrameMetricsListener();
+        if (mShownTime < 0)
+        {
+            // Only prepared ahead of being shown so keep the prepare timings for when it is
+            return;
+        }
+        final PromptMetrics metrics = getMetrics();
+        mMetrics = null;
+        mShownTime = -1;
+        final PromptMetrics.Listener listener = mPrompt.mView.mPromptOptions.getPromptMetricsListener();
+        if (listener != null)
+        {
+            listener.onPromptMetrics(mPrompt, metrics);
+        }
+    }
+
+    /**
+     * Record an animation frame.
+     *
+     * @param durationNanos The frame duration.
+     * @param droppedFrames The number of frames missed.
+     * @param frameSource Where the frame duration was measured.
+     */
+    void recordFrame(final long durationNanos, final int droppedFrames, final int frameSource)
+    {
+        if (mPhase != PromptMetrics.PHASE_NONE && mMetrics != null)
+        {
+            mMetrics.recordFrame(mPhase, durationNanos, droppedFrames, frameSource);
+        }
+    }
+
+    /**
+     * Listen to the window frame metrics if they are available.
+     *
+     * @return True if the frame metrics are being listened to.
+     */
+    private boolean addFrameMetricsListener()
+    {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N)
+        {
+            return false;
+        }
+        if (mFrameMetricsListener != null)
+        {
+            return true;
+        }
+        final Window window = MaterialTapTargetPrompt.findWindow(
+                mPrompt.mView.mPromptOptions.getResourceFinder());
+        if (window == null)
+        {
+            return false;
+        }
+        final FrameMetricsListener listener = new FrameMetricsListener();
+        try
+        {
+            window.addOnFrameMetricsAvailableListener(listener, new Handler(Looper.getMainLooper()));
+        }
+        catch (final IllegalStateException e)
+        {
+            // The window isn't hardware accelerated
+            return false;
+        }
+        mFrameMetricsListener = listener;
+        mFrameMetricsWindow = window;
+        return true;
+    }
+
+    /**
+     * Stop listening to the window frame metrics.
+     */
+    private void removeFrameMetricsListener()
+    {
+        if (mFrameMetricsListener != null && mFrameMetricsWindow != null
+                && Build.VERSION.SDK_INT >= Build.VERSION_CODES.N)
+        {
+            mFrameMetricsWindow.removeOnFrameMetricsAvailableListener(mFrameMetricsListener);
+        }
+        mFrameMetricsListener = null;
+        mFrameMetricsWindow = null;
+    }
+
+    /**
+     * Get the display frame interval.
+     *
+     * @return The frame interval in nanoseconds.
+     */
+    private long readFrameInterval()
+    {
+        final WindowManager windowManager = (WindowManager) mPrompt.mView.getContext()
+                .getSystemService(Context.WINDOW_SERVICE);
+        if (windowManager != null)
+        {
+            final float refreshRate = windowManager.getDefaultDisplay().getRefreshRate();
+            if (refreshRate > 0)
+            {
+                return (long) (TimeUnit.SECONDS.toNanos(1) / refreshRate);
+            }
+        }
+        return DEFAULT_FRAME_INTERVAL_NANOS;
+    }
+
+    /**
+     * Records the time between Choreographer frames.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.JELLY_BEAN)
+    class ChoreographerFrameCallback implements Choreographer.FrameCallback
+    {
+        @Override
+        public void doFrame(final long frameTimeNanos)
+        {
+            if (mPhase == PromptMetrics.PHASE_NONE)
+            {
+                return;
+            }
+            if (mLastFrameTimeNanos != 0)
+            {
+                final long duration = frameTimeNanos - mLastFrameTimeNanos;
+                // Frames are a whole number of intervals apart, one interval is no dropped frames
+                final long intervals = (duration + mFrameIntervalNanos / 2) / mFrameIntervalNanos;
+                recordFrame(duration, (int) Math.max(0, intervals - 1),
+                        PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+            }
+            mLastFrameTimeNanos = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    /**
+     * Records the total duration of the window frames.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    class FrameMetricsListener implements Window.OnFrameMetricsAvailableListener
+    {
+        @Override
+        public void onFrameMetricsAvailable(final Window window, final FrameMetrics frameMetrics,
+                                            final int dropCountSinceLastInvocation)
+        {
+            final long duration = frameMetrics.getMetric(FrameMetrics.TOTAL_DURATION);
+            // A frame that takes longer than the interval misses a frame for each interval over
+            recordFrame(duration, (int) (Math.max(0, duration - 1) / mFrameIntervalNanos),
+                    PromptMetrics.FRAME_SOURCE_FRAME_METRICS);
+        }
+    }
+}
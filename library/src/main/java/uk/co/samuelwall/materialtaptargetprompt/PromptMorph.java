@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Morphs from the previous prompt in a sequence to the next prompt in a single animation.
+ * <p>
+ * Both prompts are prepared in their fully revealed state. Each frame the focal and background
+ * bounds are interpolated, and the elements from both prompts are drawn transformed to the
+ * interpolated bounds with the previous prompt underneath, so the shapes move and resize while
+ * the colours cross fade. The text moves between the two positions while cross fading.
+ * All of the objects are reused so animating doesn't allocate.
+ */
+class PromptMorph
+{
+    /**
+     * The options for the prompt being morphed from, null when not morphing.
+     */
+    @Nullable PromptOptions mFrom;
+
+    final RectF mFromFocalBounds = new RectF();
+    final RectF mToFocalBounds = new RectF();
+    final RectF mFromBackgroundBounds = new RectF();
+    final RectF mToBackgroundBounds = new RectF();
+    final RectF mFromTextBounds = new RectF();
+    final RectF mToTextBounds = new RectF();
+
+    /**
+     * Transforms the previous prompt's focal to the interpolated focal bounds.
+     */
+    final Matrix mFromFocalMatrix = new Matrix();
+
+    /**
+     * Transforms the next prompt's focal to the interpolated focal bounds.
+     */
+    final Matrix mToFocalMatrix = new Matrix();
+
+    /**
+     * Transforms the previous prompt's background to the interpolated background bounds.
+     */
+    final Matrix mFromBackgroundMatrix = new Matrix();
+
+    /**
+     * Transforms the next prompt's background to the interpolated background bounds.
+     */
+    final Matrix mToBackgroundMatrix = new Matrix();
+
+    /**
+     * The interpolated text movement for the previous and next prompt text.
+     */
+    float mFromTextDx, mFromTextDy, mToTextDx, mToTextDy;
+
+    /**
+     * Reused for the interpolated bounds.
+     */
+    private final RectF mBounds = new RectF();
+
+    /**
+     * The next prompt's focal path transformed for clipping the backgrounds.
+     */
+    private final Path mFocalPath = new Path();
+
+    /**
+     * Read the geometry of both prompts, which must both have been prepared and updated to
+     * their fully revealed state.
+     *
+     * @param from The options for the prompt being morphed from.
+     * @param to The options for the prompt being morphed to.
+     * @return False if the prompts can't be morphed between, e.g. a background that doesn't
+     * report its bounds.
+     */
+    boolean prepare(@NonNull final PromptOptions from, @NonNull final PromptOptions to)
+    {
+        mFromFocalBounds.set(from.getPromptFocal().getBounds());
+        mToFocalBounds.set(to.getPromptFocal().getBounds());
+        if (mFromFocalBounds.isEmpty() || mToFocalBounds.isEmpty()
+                || !readBounds(from.getPromptBackground(), mFromBackgroundBounds)
+                || !readBounds(to.getPromptBackground(), mToBackgroundBounds))
+        {
+            mFrom = null;
+            return false;
+        }
+        if (!from.getPromptText().getDrawnBounds(mFromTextBounds))
+        {
+            mFromTextBounds.setEmpty();
+        }
+        if (!to.getPromptText().getDrawnBounds(mToTextBounds))
+        {
+            mToTextBounds.setEmpty();
+        }
+        mFrom = from;
+        return true;
+    }
+
+    /**
+     * Stop morphing. The previous prompt's text was faded out through its options, so it is
+     * restored to the fully revealed state in case the options are shown again.
+     */
+    void clear()
+    {
+        if (mFrom != null)
+        {
+            mFrom.getPromptText().update(mFrom, 1, 1);
+            mFrom = null;
+        }
+    }
+
+    /**
+     * Read a background's drawn bounds.
+     *
+     * @return False if the background doesn't report its bounds or it isn't drawn.
+     */
+    private static boolean readBounds(@NonNull final PromptBackground background, @NonNull final RectF bounds)
+    {
+        return background.getDrawnBounds(bounds) && !bounds.isEmpty();
+    }
+
+    /**
+     * Update the transforms for the animation progress.
+     *
+     * @param progress The morph progress between 0 and 1.
+     */
+    void update(final float progress)
+    {
+        interpolate(mFromBackgroundBounds, mToBackgroundBounds, progress);
+        mFromBackgroundMatrix.setRectToRect(mFromBackgroundBounds, mBounds, Matrix.ScaleToFit.FILL);
+        mToBackgroundMatrix.setRectToRect(mToBackgroundBounds, mBounds, Matrix.ScaleToFit.FILL);
+
+        interpolate(mFromFocalBounds, mToFocalBounds, progress);
+        mFromFocalMatrix.setRectToRect(mFromFocalBounds, mBounds, Matrix.ScaleToFit.FILL);
+        mToFocalMatrix.setRectToRect(mToFocalBounds, mBounds, Matrix.ScaleToFit.FILL);
+
+        // Text is moved but not scaled, and only if both prompts have text
+        if (!mFromTextBounds.isEmpty() && !mToTextBounds.isEmpty())
+        {
+            final float dx = mToTextBounds.left - mFromTextBounds.left;
+            final float dy = mToTextBounds.top - mFromTextBounds.top;
+            mFromTextDx = dx * progress;
+            mFromTextDy = dy * progress;
+            mToTextDx = -dx * (1 - progress);
+            mToTextDy = -dy * (1 - progress);
+        }
+        else
+        {
+            mFromTextDx = 0;
+            mFromTextDy = 0;
+            mToTextDx = 0;
+            mToTextDy = 0;
+        }
+    }
+
+    /**
+     * Set {@link #mBounds} to the bounds interpolated between two bounds.
+     */
+    private void interpolate(@NonNull final RectF from, @NonNull final RectF to, final float progress)
+    {
+        mBounds.set(from.left + (to.left - from.left) * progress,
+                from.top + (to.top - from.top) * progress,
+                from.right + (to.right - from.right) * progress,
+                from.bottom + (to.bottom - from.bottom) * progress);
+    }
+
+    /**
+     * Draw the backgrounds and focals of both prompts.
+     *
+     * @param canvas The canvas to draw to.
+     * @param to The options for the prompt being morphed to.
+     */
+    void drawShapes(@NonNull final Canvas canvas, @NonNull final PromptOptions to)
+    {
+        final PromptOptions from = mFrom;
+        if (from == null)
+        {
+            return;
+        }
+        //Draw the backgrounds, clipping the focal path so we don't draw over it.
+        canvas.save();
+        final Path focalPath = to.getPromptFocal().getPath();
+        if (focalPath != null)
+        {
+            focalPath.transform(mToFocalMatrix, mFocalPath);
+            canvas.clipPath(mFocalPath, Region.Op.DIFFERENCE);
+        }
+        draw(canvas, mFromBackgroundMatrix, from.getPromptBackground());
+        draw(canvas, mToBackgroundMatrix, to.getPromptBackground());
+        canvas.restore();
+
+        draw(canvas, mFromFocalMatrix, from.getPromptFocal());
+        draw(canvas, mToFocalMatrix, to.getPromptFocal());
+    }
+
+    /**
+     * Draw the text of both prompts.
+     *
+     * @param canvas The canvas to draw to.
+     * @param to The options for the prompt being morphed to.
+     */
+    void drawText(@NonNull final Canvas canvas, @NonNull final PromptOptions to)
+    {
+        final PromptOptions from = mFrom;
+        if (from == null)
+        {
+            return;
+        }
+        canvas.translate(mFromTextDx, mFromTextDy);
+        from.getPromptText().draw(canvas);
+        canvas.translate(mToTextDx - mFromTextDx, mToTextDy - mFromTextDy);
+        to.getPromptText().draw(canvas);
+        canvas.translate(-mToTextDx, -mToTextDy);
+    }
+
+    /**
+     * Draw a background with a transform.
+     */
+    private static void draw(@NonNull final Canvas canvas, @NonNull final Matrix matrix,
+                             @NonNull final PromptBackground background)
+    {
+        canvas.save();
+        canvas.concat(matrix);
+        background.draw(canvas);
+        canvas.restore();
+    }
+
+    /**
+     * Draw a focal with a transform.
+     */
+    private static void draw(@NonNull final Canvas canvas, @NonNull final Matrix matrix,
+                             @NonNull final PromptFocal focal)
+    {
+        canvas.save();
+        canvas.concat(matrix);
+        focal.draw(canvas);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.os.Build;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.Window;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * A prompt view added to the overlay of the prompt parent view rather than as a child view,
+ * avoiding the layout pass of the parent view hierarchy that adding a child view causes.
+ * <p>
+ * Views in an overlay are drawn but aren't laid out, sent input or told about window visibility
+ * changes, so the overlay does that for the prompt view.
+ */
+class PromptOverlay
+{
+    /**
+     * The view that the prompt view has been added to the overlay of.
+     */
+    @NonNull ViewGroup mHost;
+
+    /**
+     * Passes window input to the prompt view while it is in the overlay.
+     */
+    @NonNull final PromptWindowCallback mWindowCallback;
+
+    /**
+     * The prompt that currently owns the prompt view in the overlay.
+     */
+    @NonNull MaterialTapTargetPrompt mPrompt;
+
+    /**
+     * Is the current touch gesture being passed to the prompt view.
+     */
+    boolean mTouchCaptured;
+
+    /**
+     * Reused for reading the host position.
+     */
+    private final int[] mHostPosition = new int[2];
+
+    /**
+     * Constructor.
+     *
+     * @param prompt The prompt that owns the prompt view.
+     * @param host The view that the prompt view is added to the overlay of.
+     * @param window The window that the host is in.
+     */
+    private PromptOverlay(@NonNull final MaterialTapTargetPrompt prompt, @NonNull final ViewGroup host,
+                          @NonNull final Window window)
+    {
+        mPrompt = prompt;
+        mHost = host;
+        mWindowCallback = new PromptWindowCallback(window, window.getCallback(), prompt);
+    }
+
+    /**
+     * Create an overlay for the prompt view if enabled and supported.
+     *
+     * @param prompt The prompt to create the overlay for.
+     * @param parent The view to add the prompt view to the overlay of.
+     * @return The overlay or null if the prompt view should be added as a child view.
+     */
+    @Nullable
+    static PromptOverlay create(@NonNull final MaterialTapTargetPrompt prompt,
+                                @NonNull final ViewGroup parent)
+    {
+        final MaterialTapTargetPrompt.PromptView view = prompt.mView;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2
+                || !view.mPromptOptions.getOverlayAttachEnabled()
+                // The overlay isn't reported to accessibility services
+                || view.mAccessibilityManager.isEnabled())
+        {
+            return null;
+        }
+        final Window window = MaterialTapTargetPrompt.findWindow(view.mPromptOptions.getResourceFinder());
+        if (window == null || window.getCallback() == null || window.peekDecorView() != parent.getRootView())
+        {
+            return null;
+        }
+        return new PromptOverlay(prompt, parent, window);
+    }
+
+    /**
+     * Adds the prompt view to the host's overlay and starts passing the window input to it.
+     * The prompt must already reference this overlay so the prompt view is measured to fill
+     * the host.
+     */
+    void add()
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+        {
+            mHost.getOverlay().add(mPrompt.mView);
+        }
+        layout();
+        mWindowCallback.mWindow.setCallback(mWindowCallback);
+    }
+
+    /**
+     * Pass the overlay to the prompt that has taken over the prompt view.
+     *
+     * @param prompt The prompt that now owns the prompt view.
+     */
+    void setPrompt(@NonNull final MaterialTapTargetPrompt prompt)
+    {
+        mPrompt = prompt;
+        mWindowCallback.mPrompt = prompt;
+    }
+
+    /**
+     * Updates the window visibility pause reason for the prompt from the host's window
+     * visibility.
+     */
+    void updateWindowVisibility()
+    {
+        mPrompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_HIDDEN,
+                mHost.getWindowVisibility() != View.VISIBLE);
+    }
+
+    /**
+     * Measures and lays out the prompt view to fill the host if it has changed size.
+     */
+    void layout()
+    {
+        final View view = mPrompt.mView;
+        final int width = mHost.getWidth();
+        final int height = mHost.getHeight();
+        if (view.getWidth() != width || view.getHeight() != height || view.isLayoutRequested())
+        {
+            view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, width, height);
+        }
+    }
+
+    /**
+     * Removes the prompt view from the overlay and restores the window callback.
+     */
+    void remove()
+    {
+        mWindowCallback.release();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2)
+        {
+            mHost.getOverlay().remove(mPrompt.mView);
+        }
+        mTouchCaptured = false;
+    }
+
+    /**
+     * Passes a window touch event to the prompt view. Each gesture is only passed on if the
+     * prompt view captures the down event, matching normal view touch dispatch.
+     *
+     * @param event The touch event in window coordinates.
+     * @return True if the prompt view captured the event.
+     */
+    boolean dispatchTouchEvent(@NonNull final MotionEvent event)
+    {
+        final int action = event.getActionMasked();
+        if (action == MotionEvent.ACTION_DOWN)
+        {
+            mHost.getLocationInWindow(mHostPosition);
+            final float x = event.getX() - mHostPosition[0];
+            final float y = event.getY() - mHostPosition[1];
+            // Touches outside of the host view wouldn't reach a child view
+            mTouchCaptured = x >= 0 && y >= 0
+                    && x < mHost.getWidth() && y < mHost.getHeight()
+                    && dispatchOffsetTouchEvent(event);
+            return mTouchCaptured;
+        }
+        if (!mTouchCaptured)
+        {
+            return false;
+        }
+        if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL)
+        {
+            mTouchCaptured = false;
+        }
+        dispatchOffsetTouchEvent(event);
+        return true;
+    }
+
+    /**
+     * Passes a touch event to the prompt view, offset from window coordinates to the host.
+     */
+    private boolean dispatchOffsetTouchEvent(@NonNull final MotionEvent event)
+    {
+        event.offsetLocation(-mHostPosition[0], -mHostPosition[1]);
+        try
+        {
+            return mPrompt.mView.dispatchTouchEvent(event);
+        }
+        finally
+        {
+            event.offsetLocation(mHostPosition[0], mHostPosition[1]);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RequiresApi;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
+
+/**
+ * Holds the recorded display lists for the parts of the prompt that don't change every frame.
+ * <p>
+ * The background and text are recorded once and replayed by the RenderThread until they are
+ * invalidated, so frames where only the focal changes, e.g. the idle animation, don't re-issue
+ * the background and text draw calls.
+ */
+@RequiresApi(api = Build.VERSION_CODES.Q)
+class PromptRenderNodes
+{
+    /**
+     * The recorded prompt background.
+     */
+    @NonNull final RenderNode mBackgroundNode = new RenderNode("PromptBackground");
+
+    /**
+     * The recorded prompt text.
+     */
+    @NonNull final RenderNode mTextNode = new RenderNode("PromptText");
+
+    /**
+     * Does the background need to be recorded again before it is next drawn.
+     */
+    boolean mBackgroundDirty = true;
+
+    /**
+     * Does the text need to be recorded again before it is next drawn.
+     */
+    boolean mTextDirty = true;
+
+    /**
+     * Constructor.
+     */
+    PromptRenderNodes()
+    {
+        // The elements position themselves in view coordinates so don't clip to node bounds
+        mBackgroundNode.setClipToBounds(false);
+        mTextNode.setClipToBounds(false);
+    }
+
+    /**
+     * Update the node bounds to match the prompt view size.
+     *
+     * @param width The prompt view width.
+     * @param height The prompt view height.
+     */
+    void setSize(final int width, final int height)
+    {
+        mBackgroundNode.setPosition(0, 0, width, height);
+        mTextNode.setPosition(0, 0, width, height);
+        invalidate();
+    }
+
+    /**
+     * Mark the background and text as needing to be recorded again.
+     */
+    void invalidate()
+    {
+        mBackgroundDirty = true;
+        mTextDirty = true;
+    }
+
+    /**
+     * Draws the background to the canvas, recording it first if it has changed.
+     *
+     * @param canvas The hardware accelerated canvas to draw to.
+     * @param background The prompt background to record.
+     */
+    void drawBackground(@NonNull final Canvas canvas, @NonNull final PromptBackground background)
+    {
+        if (mBackgroundDirty || !mBackgroundNode.hasDisplayList())
+        {
+            final RecordingCanvas recordingCanvas = mBackgroundNode.beginRecording();
+            try
+            {
+                background.draw(recordingCanvas);
+            }
+            finally
+            {
+                mBackgroundNode.endRecording();
+            }
+            mBackgroundDirty = false;
+        }
+        canvas.drawRenderNode(mBackgroundNode);
+    }
+
+    /**
+     * Draws the text to the canvas, recording it first if it has changed.
+     *
+     * @param canvas The hardware accelerated canvas to draw to.
+     * @param text The prompt text to record.
+     */
+    void drawText(@NonNull final Canvas canvas, @NonNull final PromptText text)
+    {
+        if (mTextDirty || !mTextNode.hasDisplayList())
+        {
+            final RecordingCanvas recordingCanvas = mTextNode.beginRecording();
+            try
+            {
+                text.draw(recordingCanvas);
+            }
+            finally
+            {
+                mTextNode.endRecording();
+            }
+            mTextDirty = false;
+        }
+        canvas.drawRenderNode(mTextNode);
+    }
+
+    /**
+     * Release the recorded display lists.
+     */
+    void discard()
+    {
+        mBackgroundNode.discardDisplayList();
+        mTextNode.discardDisplayList();
+        invalidate();
+    }
+}
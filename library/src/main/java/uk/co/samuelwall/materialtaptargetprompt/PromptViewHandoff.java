@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.view.ViewGroup;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+
+/**
+ * Hands the attached view of a completed prompt in a sequence to the next prompt, so the view
+ * doesn't need to be removed and added again between prompts. The previous prompt is given the
+ * next prompt's unattached view in exchange.
+ */
+final class PromptViewHandoff
+{
+    private PromptViewHandoff() {}
+
+    /**
+     * Take over the attached view of a completed prompt.
+     *
+     * @param prompt The prompt about to be shown.
+     * @param previous The prompt that has just completed.
+     * @return True if the view was adopted, false if the previous prompt's view can't be reused.
+     */
+    static boolean adopt(@NonNull final MaterialTapTargetPrompt prompt,
+                         @NonNull final MaterialTapTargetPrompt previous)
+    {
+        final ViewGroup parent = prompt.mView.mPromptOptions.getResourceFinder().getPromptParentView();
+        if (previous == prompt || !previous.isDismissed() || prompt.isStarting()
+                || (previous.mOverlay != null ? previous.mOverlay.mHost : previous.mView.getParent()) != parent)
+        {
+            return false;
+        }
+        final MaterialTapTargetPrompt.PromptView view = previous.mView;
+        final PromptOptions previousOptions = view.mPromptOptions;
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener previousTouchedListener =
+                view.mPromptTouchedListener;
+        previous.mView = prompt.mView;
+        prompt.mView = view;
+        bind(prompt, previous.mView.mPromptOptions, previous.mView.mPromptTouchedListener);
+        bind(previous, previousOptions, previousTouchedListener);
+
+        prompt.mOverlay = previous.mOverlay;
+        previous.mOverlay = null;
+        if (prompt.mOverlay != null)
+        {
+            prompt.mOverlay.setPrompt(prompt);
+        }
+        // The window state still applies, the clipped state is updated when prepared
+        prompt.mIdleAnimationPauseReasons = previous.mIdleAnimationPauseReasons
+                & ~MaterialTapTargetPrompt.IDLE_PAUSED_CLIPPED;
+        previous.mIdleAnimationPauseReasons = 0;
+
+        // Clear everything left from the previous prompt
+        if (view.mTargetRenderCache != null)
+        {
+            view.mTargetRenderCache.discard();
+            view.mTargetRenderCache = null;
+        }
+        view.mIconDrawable = null;
+        view.mTargetRenderView = null;
+        view.invalidateRecordings();
+        prompt.mDirtyRegion.mDirtyAll = true;
+        return true;
+    }
+
+    /**
+     * Set the prompt specific values on a view being exchanged between prompts.
+     *
+     * @param prompt The prompt that now owns the view.
+     * @param options The prompt's options.
+     * @param touchedListener The prompt's touch listener.
+     */
+    private static void bind(
+            @NonNull final MaterialTapTargetPrompt prompt, @NonNull final PromptOptions options,
+            @Nullable final MaterialTapTargetPrompt.PromptView.PromptTouchedListener touchedListener)
+    {
+        final MaterialTapTargetPrompt.PromptView view = prompt.mView;
+        view.mPrompt = prompt;
+        view.mPromptOptions = options;
+        view.mPromptTouchedListener = touchedListener;
+        view.setContentDescription(options.getContentDescription());
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.os.Build;
+import android.view.ActionMode;
+import android.view.KeyEvent;
+import android.view.KeyboardShortcutGroup;
+import android.view.Menu;
+import android.view.MenuItem;
+import android.view.MotionEvent;
+import android.view.SearchEvent;
+import android.view.View;
+import android.view.Window;
+import android.view.WindowManager;
+import android.view.accessibility.AccessibilityEvent;
+
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Window callback that passes touch and key events and window focus changes to a prompt added
+ * to a view overlay before the window's original callback.
+ * <p>
+ * Views in an overlay are drawn but don't receive input, so the prompt view would otherwise
+ * not be able to capture touches or handle the back button.
+ */
+class PromptWindowCallback implements Window.Callback
+{
+    /**
+     * The window that the callback has been set on.
+     */
+    @NonNull final Window mWindow;
+
+    /**
+     * The window's callback before this one was set.
+     */
+    @NonNull final Window.Callback mCallback;
+
+    /**
+     * The prompt to pass events to, null once the prompt has been removed.
+     */
+    @Nullable MaterialTapTargetPrompt mPrompt;
+
+    /**
+     * Constructor.
+     *
+     * @param window The window to set the callback on.
+     * @param callback The window's current callback.
+     * @param prompt The prompt to pass events to.
+     */
+    PromptWindowCallback(@NonNull final Window window, @NonNull final Window.Callback callback,
+                         @NonNull final MaterialTapTargetPrompt prompt)
+    {
+        mWindow = window;
+        mCallback = callback;
+        mPrompt = prompt;
+    }
+
+    /**
+     * Stop passing events to the prompt and restore the original callback if nothing else has
+     * replaced this one since it was set.
+     */
+    void release()
+    {
+        mPrompt = null;
+        if (mWindow.getCallback() == this)
+        {
+            mWindow.setCallback(mCallback);
+        }
+    }
+
+    @Override
+    public boolean dispatchKeyEvent(KeyEvent event)
+    {
+        return (mPrompt != null && mPrompt.mView.dispatchKeyEventPreIme(event))
+                || mCallback.dispatchKeyEvent(event);
+    }
+
+    @Override
+    public boolean dispatchKeyShortcutEvent(KeyEvent event)
+    {
+        return mCallback.dispatchKeyShortcutEvent(event);
+    }
+
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent event)
+    {
+        return (mPrompt != null && mPrompt.mOverlay != null
+                && mPrompt.mOverlay.dispatchTouchEvent(event))
+                || mCallback.dispatchTouchEvent(event);
+    }
+
+    @Override
+    public boolean dispatchTrackballEvent(MotionEvent event)
+    {
+        return mCallback.dispatchTrackballEvent(event);
+    }
+
+    @Override
+    public boolean dispatchGenericMotionEvent(MotionEvent event)
+    {
+        return mCallback.dispatchGenericMotionEvent(event);
+    }
+
+    @Override
+    public boolean dispatchPopulateAccessibilityEvent(AccessibilityEvent event)
+    {
+        return mCallback.dispatchPopulateAccessibilityEvent(event);
+    }
+
+    @Nullable
+    @Override
+    public View onCreatePanelView(int featureId)
+    {
+        return mCallback.onCreatePanelView(featureId);
+    }
+
+    @Override
+    public boolean onCreatePanelMenu(int featureId, @NonNull Menu menu)
+    {
+        return mCallback.onCreatePanelMenu(featureId, menu);
+    }
+
+    @Override
+    public boolean onPreparePanel(int featureId, @Nullable View view, @NonNull Menu menu)
+    {
+        return mCallback.onPreparePanel(featureId, view, menu);
+    }
+
+    @Override
+    public boolean onMenuOpened(int featureId, @NonNull Menu menu)
+    {
+        return mCallback.onMenuOpened(featureId, menu);
+    }
+
+    @Override
+    public boolean onMenuItemSelected(int featureId, @NonNull MenuItem item)
+    {
+        return mCallback.onMenuItemSelected(featureId, item);
+    }
+
+    @Override
+    public void onWindowAttributesChanged(WindowManager.LayoutParams attrs)
+    {
+        mCallback.onWindowAttributesChanged(attrs);
+    }
+
+    @Override
+    public void onContentChanged()
+    {
+        mCallback.onContentChanged();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasFocus)
+    {
+        if (mPrompt != null)
+        {
+            mPrompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_WINDOW_FOCUS, !hasFocus);
+        }
+        mCallback.onWindowFocusChanged(hasFocus);
+    }
+
+    @Override
+    public void onAttachedToWindow()
+    {
+        mCallback.onAttachedToWindow();
+    }
+
+    @Override
+    public void onDetachedFromWindow()
+    {
+        mCallback.onDetachedFromWindow();
+    }
+
+    @Override
+    public void onPanelClosed(int featureId, @NonNull Menu menu)
+    {
+        mCallback.onPanelClosed(featureId, menu);
+    }
+
+    @Override
+    public boolean onSearchRequested()
+    {
+        return mCallback.onSearchRequested();
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.M)
+    @Override
+    public boolean onSearchRequested(SearchEvent searchEvent)
+    {
+        return mCallback.onSearchRequested(searchEvent);
+    }
+
+    @Nullable
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback callback)
+    {
+        return mCallback.onWindowStartingActionMode(callback);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.M)
+    @Nullable
+    @Override
+    public ActionMode onWindowStartingActionMode(ActionMode.Callback callback, int type)
+    {
+        return mCallback.onWindowStartingActionMode(callback, type);
+    }
+
+    @Override
+    public void onActionModeStarted(ActionMode mode)
+    {
+        mCallback.onActionModeStarted(mode);
+    }
+
+    @Override
+    public void onActionModeFinished(ActionMode mode)
+    {
+        mCallback.onActionModeFinished(mode);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    @Override
+    public void onProvideKeyboardShortcuts(List<KeyboardShortcutGroup> data, @Nullable Menu menu,
+                                           int deviceId)
+    {
+        mCallback.onProvideKeyboardShortcuts(data, menu, deviceId);
+    }
+
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    @Override
+    public void onPointerCaptureChanged(boolean hasCapture)
+    {
+        mCallback.onPointerCaptureChanged(hasCapture);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Build;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.RequiresApi;
+
+/**
+ * Caches the target view rendering so that prompt animation frames don't run the target's
+ * draw pass again unless it has been invalidated.
+ * <p>
+ * The target is recorded into a RenderNode on API 29+ when hardware accelerated, otherwise it is
+ * drawn into a bitmap. If the target can't be drawn into a bitmap, e.g. it contains hardware
+ * bitmaps, the cache is disabled and the target is drawn directly.
+ */
+class TargetRenderCache
+{
+    /**
+     * The recorded target RenderNode, only used on API 29+.
+     * Held as an Object so the class can be loaded on older APIs.
+     */
+    @Nullable Object mRenderNode;
+
+    /**
+     * The target drawn into a bitmap.
+     */
+    @Nullable Bitmap mBitmap;
+
+    /**
+     * Canvas used to draw into {@link #mBitmap}.
+     */
+    @Nullable Canvas mBitmapCanvas;
+
+    /**
+     * Does the target need to be drawn again before the cache is next used.
+     */
+    boolean mDirty = true;
+
+    /**
+     * Has drawing the target into the cache failed.
+     */
+    boolean mDisabled;
+
+    /**
+     * Mark the cache as needing to be drawn again.
+     */
+    void invalidate()
+    {
+        mDirty = true;
+    }
+
+    /**
+     * Draws the target to the canvas, updating the cache first if the target has changed.
+     *
+     * @param canvas The canvas to draw to.
+     * @param target The view to draw.
+     */
+    void draw(@NonNull final Canvas canvas, @NonNull final View target)
+    {
+        final int width = target.getWidth();
+        final int height = target.getHeight();
+        if (mDisabled || width <= 0 || height <= 0)
+        {
+            target.draw(canvas);
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && canvas.isHardwareAccelerated())
+        {
+            drawRenderNode(canvas, target, width, height);
+        }
+        else
+        {
+            drawBitmap(canvas, target, width, height);
+        }
+    }
+
+    /**
+     * Draws the target using a RenderNode recording.
+     */
+    @RequiresApi(api = Build.VERSION_CODES.Q)
+    private void drawRenderNode(@NonNull final Canvas canvas, @NonNull final View target,
+                                final int width, final int height)
+    {
+        if (mRenderNode == null)
+        {
+            mRenderNode = new RenderNode("PromptTarget");
+            // The bitmap cache isn't used once recording
+            recycleBitmap();
+        }
+        final RenderNode renderNode = (RenderNode) mRenderNode;
+        if (mDirty || !renderNode.hasDisplayList()
+                || renderNode.getWidth() != width || renderNode.getHeight() != height)
+        {
+            renderNode.setPosition(0, 0, width, height);
+            final RecordingCanvas recordingCanvas = renderNode.beginRecording(width, height);
+            try
+            {
+                target.draw(recordingCanvas);
+            }
+            finally
+            {
+                renderNode.endRecording();
+            }
+            mDirty = false;
+        }
+        canvas.drawRenderNode(renderNode);
+    }
+
+    /**
+     * Draws the target using a bitmap.
+     */
+    private void drawBitmap(@NonNull final Canvas canvas, @NonNull final View target,
+                            final int width, final int height)
+    {
+        if (mBitmap == null || mBitmap.getWidth() != width || mBitmap.getHeight() != height)
+        {
+            recycleBitmap();
+            try
+            {
+                mBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            }
+            catch (OutOfMemoryError e)
+            {
+                mDisabled = true;
+                target.draw(canvas);
+                return;
+            }
+            mBitmapCanvas = new Canvas(mBitmap);
+            mDirty = true;
+        }
+        if (mDirty)
+        {
+            mBitmap.eraseColor(Color.TRANSPARENT);
+            try
+            {
+                target.draw(mBitmapCanvas);
+            }
+            catch (IllegalArgumentException | IllegalStateException e)
+            {
+                // Software rendering doesn't support hardware bitmaps
+                mDisabled = true;
+                recycleBitmap();
+                target.draw(canvas);
+                return;
+            }
+            mDirty = false;
+        }
+        canvas.drawBitmap(mBitmap, 0, 0, null);
+    }
+
+    /**
+     * Release the cached rendering.
+     */
+    void discard()
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q && mRenderNode != null)
+        {
+            ((RenderNode) mRenderNode).discardDisplayList();
+        }
+        recycleBitmap();
+        mDirty = true;
+    }
+
+    /**
+     * Recycle the bitmap cache if there is one.
+     */
+    private void recycleBitmap()
+    {
+        if (mBitmap != null)
+        {
+            mBitmapCanvas = null;
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+    }
+}
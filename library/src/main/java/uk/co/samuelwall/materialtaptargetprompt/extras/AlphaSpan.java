@@ -29,7 +29,7 @@ class AlphaSpan extends CharacterStyle
     /**
      * The alpha modification value between 1 and 0.
      */
-    private final float mValue;
+    private float mValue;
 
     /**
      * Constructor.
@@ -41,6 +41,27 @@ class AlphaSpan extends CharacterStyle
         mValue = value;
     }
 
+    /**
+     * Change the alpha modification value.
+     * The text does not need to be laid out again, the new value is used on the next draw.
+     *
+     * @param value The alpha modification value between 1 and 0.
+     */
+    void setAlpha(final float value)
+    {
+        mValue = value;
+    }
+
+    /**
+     * Get the alpha modification value.
+     *
+     * @return The alpha modification value between 1 and 0.
+     */
+    float getAlpha()
+    {
+        return mValue;
+    }
+
     @Override
     public void updateDrawState(@NonNull TextPaint paint)
     {
@@ -17,6 +17,7 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.graphics.Rect;
+import android.graphics.RectF;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
 
@@ -41,4 +42,26 @@ public abstract class PromptBackground implements PromptUIElement
      */
     public abstract void prepare(@NonNull final PromptOptions options,
                                  boolean clipToBounds, @NonNull Rect clipBounds);
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default implementation doesn't support moving so the background is prepared again.
+     */
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default implementation doesn't know the drawn area so the whole prompt is redrawn.
+     */
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        return false;
+    }
 }
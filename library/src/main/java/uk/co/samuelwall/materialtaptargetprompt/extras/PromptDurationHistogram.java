@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Counts durations into fixed buckets so that they can be combined and forwarded to telemetry
+ * without keeping every duration.
+ * <p>
+ * Bucket i counts the durations greater than the upper bound of bucket i - 1 and up to and
+ * including its own upper bound, the last bucket counts everything over the largest bound.
+ */
+public class PromptDurationHistogram
+{
+    /**
+     * The bucket upper bounds in milliseconds. 16 and 33 are one and two frames at 60Hz.
+     */
+    private static final long[] BUCKET_UPPER_BOUNDS_MILLIS = {4, 8, 12, 16, 24, 33, 50, 100, 250, 500};
+
+    @NonNull final int[] mBuckets = new int[BUCKET_UPPER_BOUNDS_MILLIS.length + 1];
+    int mCount;
+    long mTotalNanos;
+    long mMaxNanos;
+
+    /**
+     * Add a duration.
+     *
+     * @param durationNanos The duration in nanoseconds.
+     */
+    public void record(final long durationNanos)
+    {
+        final long duration = Math.max(0, durationNanos);
+        int bucket = 0;
+        final int count = BUCKET_UPPER_BOUNDS_MILLIS.length;
+        while (bucket < count
+                && duration > TimeUnit.MILLISECONDS.toNanos(BUCKET_UPPER_BOUNDS_MILLIS[bucket]))
+        {
+            bucket++;
+        }
+        mBuckets[bucket]++;
+        mCount++;
+        mTotalNanos += duration;
+        mMaxNanos = Math.max(mMaxNanos, duration);
+    }
+
+    /**
+     * Add all of the durations from another histogram.
+     *
+     * @param histogram The histogram to add.
+     */
+    public void add(@NonNull final PromptDurationHistogram histogram)
+    {
+        for (int i = 0; i < mBuckets.length; i++)
+        {
+            mBuckets[i] += histogram.mBuckets[i];
+        }
+        mCount += histogram.mCount;
+        mTotalNanos += histogram.mTotalNanos;
+        mMaxNanos = Math.max(mMaxNanos, histogram.mMaxNanos);
+    }
+
+    /**
+     * Remove all of the durations.
+     */
+    public void reset()
+    {
+        Arrays.fill(mBuckets, 0);
+        mCount = 0;
+        mTotalNanos = 0;
+        mMaxNanos = 0;
+    }
+
+    /**
+     * Get the number of durations added.
+     *
+     * @return The duration count.
+     */
+    public int getCount()
+    {
+        return mCount;
+    }
+
+    /**
+     * Get the sum of the durations added.
+     *
+     * @return The total duration in nanoseconds.
+     */
+    public long getTotalNanos()
+    {
+        return mTotalNanos;
+    }
+
+    /**
+     * Get the longest duration added.
+     *
+     * @return The longest duration in nanoseconds, 0 if none have been added.
+     */
+    public long getMaxNanos()
+    {
+        return mMaxNanos;
+    }
+
+    /**
+     * Get the number of buckets.
+     *
+     * @return The bucket count.
+     */
+    public int getBucketCount()
+    {
+        return mBuckets.length;
+    }
+
+    /**
+     * Get the largest duration counted by a bucket.
+     *
+     * @param index The bucket index.
+     * @return The bucket upper bound in milliseconds, {@link Long#MAX_VALUE} for the last bucket.
+     */
+    public long getBucketUpperBoundMillis(final int index)
+    {
+        return index < BUCKET_UPPER_BOUNDS_MILLIS.length ? BUCKET_UPPER_BOUNDS_MILLIS[index] : Long.MAX_VALUE;
+    }
+
+    /**
+     * Get the number of durations counted by a bucket.
+     *
+     * @param index The bucket index.
+     * @return The bucket duration count.
+     */
+    public int getBucketValue(final int index)
+    {
+        return mBuckets[index];
+    }
+}
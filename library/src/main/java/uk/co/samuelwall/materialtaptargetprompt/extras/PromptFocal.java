@@ -19,12 +19,16 @@ package uk.co.samuelwall.materialtaptargetprompt.extras;
 import android.graphics.Path;
 import android.graphics.PointF;
 import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
 import androidx.annotation.ColorInt;
 import androidx.annotation.FloatRange;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.view.View;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptGeometry;
+
 /**
  * Used to render the prompt focal.
  */
@@ -40,6 +44,19 @@ public abstract class PromptFocal implements PromptUIElement
      */
     protected int mBaseRippleAlpha;
 
+    /**
+     * The point returned from {@link #calculateAngleEdgePoint(float, float)}.
+     * Reused to avoid allocating a new point for every calculation.
+     */
+    @NonNull
+    protected final PointF mAngleEdgePoint = new PointF();
+
+    /**
+     * The cached region for {@link #isPointInPath(float, float)}.
+     */
+    @NonNull
+    private final PromptPathRegion mPathRegion = new PromptPathRegion();
+
     /**
      * Sets whether the ripple is drawn around the focal.
      *
@@ -68,12 +85,38 @@ public abstract class PromptFocal implements PromptUIElement
         return null;
     }
 
+    /**
+     * Determines if a point is inside the focal {@link #getPath()}, for focals with a custom shape
+     * to use in {@link #contains(float, float)}. The path is converted to a region the first time
+     * it is tested and the region is reused until {@link #invalidatePath()} is called.
+     *
+     * @param x The point x position.
+     * @param y The point y position.
+     * @return True if the point (x, y) is in the focal path, false if there is no path.
+     */
+    protected boolean isPointInPath(final float x, final float y)
+    {
+        return mPathRegion.contains(getPath(), x, y);
+    }
+
+    /**
+     * Must be called after the {@link #getPath()} shape has changed when
+     * {@link #isPointInPath(float, float)} is used.
+     */
+    protected void invalidatePath()
+    {
+        mPathRegion.invalidate();
+    }
+
     /**
      * Calculate the point on the focal edge based on the angle.
      * This is called after {@link #prepare(PromptOptions, float, float)} or
      * {@link #prepare(PromptOptions, View, int[])}.
      *
      * Base implementation assumes that focal is a rectangle.
+     * <p>
+     * The returned point is reused by subsequent calls so the values should be read before
+     * this is called again.
      *
      * @param angle The angle with 0 based on the right.
      * @param padding The padding added to the focal bounds.
@@ -84,19 +127,54 @@ public abstract class PromptFocal implements PromptUIElement
     {
         // Calculate the x and y on the focal from the angle calculated
         final RectF bounds = this.getBounds();
-        final float angleRadians = (float) Math.toRadians(angle);
-        final float sin = (float) Math.sin(angleRadians);
-        final float cos = (float) Math.cos(angleRadians);
-        final float dx1 = (bounds.width() + padding) / (cos > 0 ? 2 : -2);
-        final float dy1 = (bounds.height() + padding) / (sin > 0 ? 2 : -2);
-
-        // Could go to part way along the target bounds but risk cutting off corners
-        /*final float dxs = dx1 * sin;
-        final float dyc = dy1 * cos;
-        final float dx = Math.abs(dxs) < Math.abs(dyc) ? dx1 : dyc / sin;
-        final float dy = Math.abs(dxs) < Math.abs(dyc) ? dxs / cos : dy1;*/
-
-        return new PointF(bounds.centerX() + dx1, bounds.centerY() + dy1);
+        // Uses the bounds corner on the angle side, could go to part way along the target bounds
+        // but risk cutting off corners
+        mAngleEdgePoint.set(
+                PromptGeometry.rectangleEdgeX(angle, bounds.width(), padding, bounds.centerX()),
+                PromptGeometry.rectangleEdgeY(angle, bounds.height(), padding, bounds.centerY()));
+        return mAngleEdgePoint;
+    }
+
+    /**
+     * Get a drawable that renders the focal idle breathing and ripple animations itself, such as
+     * an {@link android.graphics.drawable.AnimatedVectorDrawable} which is animated by the
+     * RenderThread on API 25+. The drawable must implement
+     * {@link android.graphics.drawable.Animatable} and be positioned over the focal.
+     * This is called after {@link #prepare(PromptOptions, float, float)} or
+     * {@link #prepare(PromptOptions, View, int[])}.
+     * <p>
+     * The default returns null so the idle animation calls {@link #update(PromptOptions, float, float)}
+     * and {@link #updateRipple(float, float)} on the main thread every frame.
+     *
+     * @param options The options that the prompt was built from.
+     * @return The idle animation drawable or null if it isn't supported.
+     */
+    @Nullable
+    public Drawable getIdleAnimationDrawable(@NonNull final PromptOptions options)
+    {
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default implementation doesn't support moving so the focal is prepared again.
+     */
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The default implementation doesn't know the drawn area so the whole prompt is redrawn.
+     */
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        return false;
     }
 
     /**
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import androidx.annotation.NonNull;
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+
+/**
+ * The timings recorded for one prompt from being shown until it has been dismissed or finished.
+ * Recorded when a {@link Listener} is set with
+ * {@link PromptOptions#setPromptMetricsListener(Listener)}.
+ */
+public class PromptMetrics
+{
+    /**
+     * Not recording frames.
+     */
+    public static final int PHASE_NONE = 0;
+
+    /**
+     * The reveal or morph animation.
+     */
+    public static final int PHASE_REVEAL = 1;
+
+    /**
+     * The dismiss or finish animation.
+     */
+    public static final int PHASE_DISMISS = 2;
+
+    /**
+     * The frame durations are the time between Choreographer frames, used when the frame metrics
+     * aren't available.
+     */
+    public static final int FRAME_SOURCE_CHOREOGRAPHER = 0;
+
+    /**
+     * The frame durations are the total frame durations from
+     * {@link android.view.Window.OnFrameMetricsAvailableListener}, available on API 24+ when the
+     * window is hardware accelerated.
+     */
+    public static final int FRAME_SOURCE_FRAME_METRICS = 1;
+
+    @NonNull final PromptDurationHistogram mPrepareTimes = new PromptDurationHistogram();
+    @NonNull final PromptDurationHistogram mRevealFrames = new PromptDurationHistogram();
+    @NonNull final PromptDurationHistogram mDismissFrames = new PromptDurationHistogram();
+    long mTimeToFirstFrameNanos = -1;
+    int mDroppedFrames;
+    int mFrameSource = FRAME_SOURCE_CHOREOGRAPHER;
+
+    /**
+     * Record the time taken to prepare the prompt.
+     * Used by the prompt while recording, not intended to be called otherwise.
+     *
+     * @param durationNanos The prepare duration in nanoseconds.
+     */
+    public void recordPrepare(final long durationNanos)
+    {
+        mPrepareTimes.record(durationNanos);
+    }
+
+    /**
+     * Record the time from the prompt being shown until it was first drawn.
+     * Used by the prompt while recording, not intended to be called otherwise.
+     *
+     * @param durationNanos The duration in nanoseconds.
+     */
+    public void recordTimeToFirstFrame(final long durationNanos)
+    {
+        mTimeToFirstFrameNanos = durationNanos;
+    }
+
+    /**
+     * Record a frame drawn during an animation.
+     * Used by the prompt while recording, not intended to be called otherwise.
+     *
+     * @param phase {@link #PHASE_REVEAL} or {@link #PHASE_DISMISS}.
+     * @param durationNanos The frame duration in nanoseconds.
+     * @param droppedFrames The number of frames missed before this frame.
+     * @param frameSource {@link #FRAME_SOURCE_CHOREOGRAPHER} or {@link #FRAME_SOURCE_FRAME_METRICS}.
+     */
+    public void recordFrame(final int phase, final long durationNanos, final int droppedFrames,
+                            final int frameSource)
+    {
+        if (phase == PHASE_REVEAL)
+        {
+            mRevealFrames.record(durationNanos);
+        }
+        else if (phase == PHASE_DISMISS)
+        {
+            mDismissFrames.record(durationNanos);
+        }
+        else
+        {
+            return;
+        }
+        mDroppedFrames += droppedFrames;
+        mFrameSource = frameSource;
+    }
+
+    /**
+     * Get the times taken by each prepare, including the prepares before the prompt is shown
+     * in a sequence and the prepares after the layout changes.
+     *
+     * @return The prepare durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getPrepareTimes()
+    {
+        return mPrepareTimes;
+    }
+
+    /**
+     * Get the time from {@link MaterialTapTargetPrompt#show()} being called until the prompt was
+     * first drawn, including measuring the text on a
+     * {@link PromptOptions#setTextMeasureExecutor(java.util.concurrent.Executor)}.
+     *
+     * @return The duration in nanoseconds or -1 if the prompt wasn't drawn.
+     */
+    public long getTimeToFirstFrameNanos()
+    {
+        return mTimeToFirstFrameNanos;
+    }
+
+    /**
+     * Get the frame durations during the reveal animation.
+     *
+     * @return The reveal frame durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getRevealFrames()
+    {
+        return mRevealFrames;
+    }
+
+    /**
+     * Get the frame durations during the dismiss or finish animation.
+     *
+     * @return The dismiss frame durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getDismissFrames()
+    {
+        return mDismissFrames;
+    }
+
+    /**
+     * Get the number of frames that were missed during the reveal and dismiss animations.
+     *
+     * @return The dropped frame count.
+     */
+    public int getDroppedFrames()
+    {
+        return mDroppedFrames;
+    }
+
+    /**
+     * Get where the frame durations were measured.
+     *
+     * @return {@link #FRAME_SOURCE_CHOREOGRAPHER} or {@link #FRAME_SOURCE_FRAME_METRICS}.
+     */
+    public int getFrameSource()
+    {
+        return mFrameSource;
+    }
+
+    /**
+     * Interface definition for a callback to be invoked when the metrics for a prompt have been
+     * recorded.
+     */
+    public interface Listener
+    {
+        /**
+         * Called on the main thread once the prompt has been dismissed or finished.
+         *
+         * @param prompt The prompt that the metrics were recorded for.
+         * @param metrics The recorded metrics, not changed after this call.
+         */
+        void onPromptMetrics(@NonNull MaterialTapTargetPrompt prompt, @NonNull PromptMetrics metrics);
+    }
+}
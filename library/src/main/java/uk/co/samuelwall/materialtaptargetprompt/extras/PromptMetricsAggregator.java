@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import androidx.annotation.NonNull;
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+
+/**
+ * {@link PromptMetrics.Listener} that combines the metrics from every prompt that it is set on,
+ * so that the histograms can be forwarded to telemetry, e.g. when the app is backgrounded,
+ * and then {@link #reset()}. Must only be used on the main thread.
+ */
+public class PromptMetricsAggregator implements PromptMetrics.Listener
+{
+    @NonNull final PromptDurationHistogram mPrepareTimes = new PromptDurationHistogram();
+    @NonNull final PromptDurationHistogram mTimesToFirstFrame = new PromptDurationHistogram();
+    @NonNull final PromptDurationHistogram mRevealFrames = new PromptDurationHistogram();
+    @NonNull final PromptDurationHistogram mDismissFrames = new PromptDurationHistogram();
+    int mPromptCount;
+    long mDroppedFrames;
+
+    @Override
+    public void onPromptMetrics(@NonNull final MaterialTapTargetPrompt prompt,
+                                @NonNull final PromptMetrics metrics)
+    {
+        mPromptCount++;
+        mPrepareTimes.add(metrics.getPrepareTimes());
+        if (metrics.getTimeToFirstFrameNanos() >= 0)
+        {
+            mTimesToFirstFrame.record(metrics.getTimeToFirstFrameNanos());
+        }
+        mRevealFrames.add(metrics.getRevealFrames());
+        mDismissFrames.add(metrics.getDismissFrames());
+        mDroppedFrames += metrics.getDroppedFrames();
+    }
+
+    /**
+     * Remove all of the recorded metrics.
+     */
+    public void reset()
+    {
+        mPrepareTimes.reset();
+        mTimesToFirstFrame.reset();
+        mRevealFrames.reset();
+        mDismissFrames.reset();
+        mPromptCount = 0;
+        mDroppedFrames = 0;
+    }
+
+    /**
+     * Get the number of prompts that metrics have been recorded for.
+     *
+     * @return The prompt count.
+     */
+    public int getPromptCount()
+    {
+        return mPromptCount;
+    }
+
+    /**
+     * Get the prepare durations for all of the prompts.
+     *
+     * @return The prepare durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getPrepareTimes()
+    {
+        return mPrepareTimes;
+    }
+
+    /**
+     * Get the time to the first frame for each prompt that was drawn.
+     *
+     * @return The times to the first frame.
+     */
+    @NonNull
+    public PromptDurationHistogram getTimesToFirstFrame()
+    {
+        return mTimesToFirstFrame;
+    }
+
+    /**
+     * Get the reveal frame durations for all of the prompts.
+     *
+     * @return The reveal frame durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getRevealFrames()
+    {
+        return mRevealFrames;
+    }
+
+    /**
+     * Get the dismiss frame durations for all of the prompts.
+     *
+     * @return The dismiss frame durations.
+     */
+    @NonNull
+    public PromptDurationHistogram getDismissFrames()
+    {
+        return mDismissFrames;
+    }
+
+    /**
+     * Get the number of frames missed by all of the prompts.
+     *
+     * @return The dropped frame count.
+     */
+    public long getDroppedFrames()
+    {
+        return mDroppedFrames;
+    }
+}
@@ -17,7 +17,6 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.content.res.ColorStateList;
-import android.content.res.TypedArray;
 import android.graphics.Color;
 import android.graphics.PointF;
 import android.graphics.PorterDuff;
@@ -33,12 +32,13 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.StringRes;
 import androidx.annotation.StyleRes;
-import android.util.TypedValue;
 import android.view.Gravity;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.Interpolator;
 
+import java.util.concurrent.Executor;
+
 import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
 import uk.co.samuelwall.materialtaptargetprompt.R;
 import uk.co.samuelwall.materialtaptargetprompt.ResourceFinder;
@@ -164,6 +164,11 @@ public class PromptOptions<T extends PromptOptions>
      */
     @Nullable private MaterialTapTargetPrompt.PromptStateChangeListener mSequencePromptStateChangeListener;
 
+    /**
+     * Listener for the prompt timings.
+     */
+    @Nullable private PromptMetrics.Listener mPromptMetricsListener;
+
 
     private boolean mCaptureTouchEventOnFocal;
     private float mTextSeparation;
@@ -178,7 +183,13 @@ public class PromptOptions<T extends PromptOptions>
     private boolean mHasIconDrawableTint;
     private int mIconDrawableColourFilter;
     @Nullable private View mTargetRenderView;
+    private boolean mTargetRenderCacheEnabled = true;
+    private boolean mTextLayoutCacheEnabled = true;
+    private boolean mOverlayAttachEnabled;
+    @Nullable private Executor mTextMeasureExecutor;
     private boolean mIdleAnimationEnabled = true;
+    private boolean mPressOnRelease;
+    private boolean mLongPressEnabled;
     private int mPrimaryTextGravity = Gravity.START, mSecondaryTextGravity = Gravity.START;
     @Nullable private View mClipToView;
 
@@ -215,6 +226,27 @@ public class PromptOptions<T extends PromptOptions>
         mTextSeparation =    density * 16;
     }
 
+    /**
+     * Constructor for the values held by a {@link PromptOptionsTemplate}.
+     * The template must not keep a reference to an activity so there is no resource finder.
+     */
+    PromptOptions()
+    {
+    }
+
+    /**
+     * Remove the prompt attributes that are cached for each theme, so that they are obtained from
+     * the themes again the next time options are loaded.
+     * Only needed before API 23 after changing a theme that a prompt has been loaded from with
+     * {@link android.content.res.Resources.Theme#applyStyle(int, boolean)} or
+     * {@link android.content.res.Resources.Theme#setTo(android.content.res.Resources.Theme)},
+     * from API 23 the changed theme is detected.
+     */
+    public static void clearThemeAttributesCache()
+    {
+        PromptThemeAttributes.clear();
+    }
+
     /**
      * Loads the supplied theme into the prompt overwriting any previously set values if they are set in the theme.
      *
@@ -222,45 +254,38 @@ public class PromptOptions<T extends PromptOptions>
      */
     public void load(@StyleRes int themeResId)
     {
-        //Attempt to load the theme from the activity theme
-        if (themeResId == 0)
-        {
-            final TypedValue outValue = new TypedValue();
-            mResourceFinder.getTheme().resolveAttribute(R.attr.MaterialTapTargetPromptTheme, outValue, true);
-            themeResId = outValue.resourceId;
-        }
-
-        final TypedArray a = mResourceFinder.obtainStyledAttributes(themeResId, R.styleable.PromptView);
-        mPrimaryTextColour = a.getColor(R.styleable.PromptView_mttp_primaryTextColour, mPrimaryTextColour);
-        mSecondaryTextColour = a.getColor(R.styleable.PromptView_mttp_secondaryTextColour, mSecondaryTextColour);
-        mPrimaryText = a.getString(R.styleable.PromptView_mttp_primaryText);
-        mSecondaryText = a.getString(R.styleable.PromptView_mttp_secondaryText);
-        mBackgroundColour = a.getColor(R.styleable.PromptView_mttp_backgroundColour, mBackgroundColour);
-        mFocalColour = a.getColor(R.styleable.PromptView_mttp_focalColour, mFocalColour);
-        mFocalRadius = a.getDimension(R.styleable.PromptView_mttp_focalRadius, mFocalRadius);
-        mPrimaryTextSize = a.getDimension(R.styleable.PromptView_mttp_primaryTextSize, mPrimaryTextSize);
-        mSecondaryTextSize = a.getDimension(R.styleable.PromptView_mttp_secondaryTextSize, mSecondaryTextSize);
-        mMaxTextWidth = a.getDimension(R.styleable.PromptView_mttp_maxTextWidth, mMaxTextWidth);
-        mTextPadding = a.getDimension(R.styleable.PromptView_mttp_textPadding, mTextPadding);
-        mFocalPadding = a.getDimension(R.styleable.PromptView_mttp_focalToTextPadding, mFocalPadding);
-        mTextSeparation = a.getDimension(R.styleable.PromptView_mttp_textSeparation, mTextSeparation);
-        mAutoDismiss = a.getBoolean(R.styleable.PromptView_mttp_autoDismiss, mAutoDismiss);
-        mAutoFinish = a.getBoolean(R.styleable.PromptView_mttp_autoFinish, mAutoFinish);
-        mCaptureTouchEventOutsidePrompt = a.getBoolean(R.styleable.PromptView_mttp_captureTouchEventOutsidePrompt, mCaptureTouchEventOutsidePrompt);
-        mCaptureTouchEventOnFocal = a.getBoolean(R.styleable.PromptView_mttp_captureTouchEventOnFocal, mCaptureTouchEventOnFocal);
-        mPrimaryTextTypefaceStyle = a.getInt(R.styleable.PromptView_mttp_primaryTextStyle, mPrimaryTextTypefaceStyle);
-        mSecondaryTextTypefaceStyle = a.getInt(R.styleable.PromptView_mttp_secondaryTextStyle, mSecondaryTextTypefaceStyle);
-        mPrimaryTextTypeface = PromptUtils.setTypefaceFromAttrs(a.getString(R.styleable.PromptView_mttp_primaryTextFontFamily), a.getInt(R.styleable.PromptView_mttp_primaryTextTypeface, 0), mPrimaryTextTypefaceStyle);
-        mSecondaryTextTypeface = PromptUtils.setTypefaceFromAttrs(a.getString(R.styleable.PromptView_mttp_secondaryTextFontFamily), a.getInt(R.styleable.PromptView_mttp_secondaryTextTypeface, 0), mSecondaryTextTypefaceStyle);
-        mContentDescription = a.getString(R.styleable.PromptView_mttp_contentDescription);
-
-        mIconDrawableColourFilter = a.getColor(R.styleable.PromptView_mttp_iconColourFilter, mBackgroundColour);
-        mIconDrawableTintList = a.getColorStateList(R.styleable.PromptView_mttp_iconTint);
-        mIconDrawableTintMode = PromptUtils.parseTintMode(a.getInt(R.styleable.PromptView_mttp_iconTintMode, -1), mIconDrawableTintMode);
+        final PromptThemeAttributes a = PromptThemeAttributes.obtain(mResourceFinder, themeResId);
+        mPrimaryTextColour = PromptThemeAttributes.valueOr(a.mPrimaryTextColour, mPrimaryTextColour);
+        mSecondaryTextColour = PromptThemeAttributes.valueOr(a.mSecondaryTextColour, mSecondaryTextColour);
+        mPrimaryText = a.mPrimaryText;
+        mSecondaryText = a.mSecondaryText;
+        mBackgroundColour = PromptThemeAttributes.valueOr(a.mBackgroundColour, mBackgroundColour);
+        mFocalColour = PromptThemeAttributes.valueOr(a.mFocalColour, mFocalColour);
+        mFocalRadius = PromptThemeAttributes.valueOr(a.mFocalRadius, mFocalRadius);
+        mPrimaryTextSize = PromptThemeAttributes.valueOr(a.mPrimaryTextSize, mPrimaryTextSize);
+        mSecondaryTextSize = PromptThemeAttributes.valueOr(a.mSecondaryTextSize, mSecondaryTextSize);
+        mMaxTextWidth = PromptThemeAttributes.valueOr(a.mMaxTextWidth, mMaxTextWidth);
+        mTextPadding = PromptThemeAttributes.valueOr(a.mTextPadding, mTextPadding);
+        mFocalPadding = PromptThemeAttributes.valueOr(a.mFocalPadding, mFocalPadding);
+        mTextSeparation = PromptThemeAttributes.valueOr(a.mTextSeparation, mTextSeparation);
+        mAutoDismiss = PromptThemeAttributes.valueOr(a.mAutoDismiss, mAutoDismiss);
+        mAutoFinish = PromptThemeAttributes.valueOr(a.mAutoFinish, mAutoFinish);
+        mCaptureTouchEventOutsidePrompt = PromptThemeAttributes.valueOr(a.mCaptureTouchEventOutsidePrompt, mCaptureTouchEventOutsidePrompt);
+        mCaptureTouchEventOnFocal = PromptThemeAttributes.valueOr(a.mCaptureTouchEventOnFocal, mCaptureTouchEventOnFocal);
+        mPrimaryTextTypefaceStyle = PromptThemeAttributes.valueOr(a.mPrimaryTextTypefaceStyle, mPrimaryTextTypefaceStyle);
+        mSecondaryTextTypefaceStyle = PromptThemeAttributes.valueOr(a.mSecondaryTextTypefaceStyle, mSecondaryTextTypefaceStyle);
+        mPrimaryTextTypeface = a.mPrimaryTextTypeface != null ? a.mPrimaryTextTypeface
+                : PromptUtils.setTypefaceFromAttrs(a.mPrimaryTextFontFamily, a.mPrimaryTextTypefaceIndex, mPrimaryTextTypefaceStyle);
+        mSecondaryTextTypeface = a.mSecondaryTextTypeface != null ? a.mSecondaryTextTypeface
+                : PromptUtils.setTypefaceFromAttrs(a.mSecondaryTextFontFamily, a.mSecondaryTextTypefaceIndex, mSecondaryTextTypefaceStyle);
+        mContentDescription = a.mContentDescription;
+
+        mIconDrawableColourFilter = PromptThemeAttributes.valueOr(a.mIconDrawableColourFilter, mBackgroundColour);
+        mIconDrawableTintList = a.mIconDrawableTintList;
+        mIconDrawableTintMode = a.mIconDrawableTintMode != null ? a.mIconDrawableTintMode : mIconDrawableTintMode;
         mHasIconDrawableTint = true;
 
-        final int targetId = a.getResourceId(R.styleable.PromptView_mttp_target, 0);
-        a.recycle();
+        final int targetId = a.mTargetId;
 
         if (targetId != 0)
         {
@@ -277,6 +302,95 @@ public class PromptOptions<T extends PromptOptions>
         }
     }
 
+    /**
+     * Creates an immutable template from the current values, which can then be applied to new
+     * options without loading the theme again.
+     * <p>
+     * The template contains the text, colours, dimensions, typefaces, gravity, interpolator, icon
+     * tint and behaviour settings. The target, icon drawable, listeners including the metrics
+     * listener, text measure executor, clip view and the prompt background, focal and text
+     * renderers are specific to each prompt so are not part of the template, which keeps a
+     * template from holding on to an activity through them. The dimensions are in pixels, so a template should be created again after a
+     * configuration change.
+     *
+     * @return The template.
+     * @see #applyTemplate(PromptOptionsTemplate)
+     */
+    @NonNull
+    public PromptOptionsTemplate createTemplate()
+    {
+        final PromptOptions<?> values = new PromptOptions<>();
+        values.copyTemplateValues(this);
+        return new PromptOptionsTemplate(values);
+    }
+
+    /**
+     * Sets the values from a template, overwriting any previously set values. Used instead of
+     * {@link #load(int)} to create options without touching the theme or resources.
+     *
+     * @param template The template to apply.
+     * @return This Builder object to allow for chaining of calls to set methods
+     * @see #createTemplate()
+     */
+    @NonNull
+    public T applyTemplate(@NonNull final PromptOptionsTemplate template)
+    {
+        copyTemplateValues(template.mValues);
+        // As set by load
+        final View contentView = mResourceFinder.findViewById(android.R.id.content);
+        if (contentView != null)
+        {
+            mClipToView = (View) contentView.getParent();
+        }
+        return (T) this;
+    }
+
+    /**
+     * Copy the values that are part of a {@link PromptOptionsTemplate}.
+     *
+     * @param from The options to copy the values from.
+     */
+    private void copyTemplateValues(@NonNull final PromptOptions<?> from)
+    {
+        mPrimaryText = from.mPrimaryText;
+        mSecondaryText = from.mSecondaryText;
+        mContentDescription = from.mContentDescription;
+        mPrimaryTextColour = from.mPrimaryTextColour;
+        mSecondaryTextColour = from.mSecondaryTextColour;
+        mBackgroundColour = from.mBackgroundColour;
+        mFocalColour = from.mFocalColour;
+        mFocalRadius = from.mFocalRadius;
+        mPrimaryTextSize = from.mPrimaryTextSize;
+        mSecondaryTextSize = from.mSecondaryTextSize;
+        mMaxTextWidth = from.mMaxTextWidth;
+        mTextPadding = from.mTextPadding;
+        mFocalPadding = from.mFocalPadding;
+        mTextSeparation = from.mTextSeparation;
+        mAnimationInterpolator = from.mAnimationInterpolator;
+        mBackButtonDismissEnabled = from.mBackButtonDismissEnabled;
+        mIgnoreStatusBar = from.mIgnoreStatusBar;
+        mCaptureTouchEventOnFocal = from.mCaptureTouchEventOnFocal;
+        mCaptureTouchEventOutsidePrompt = from.mCaptureTouchEventOutsidePrompt;
+        mAutoDismiss = from.mAutoDismiss;
+        mAutoFinish = from.mAutoFinish;
+        mPrimaryTextTypeface = from.mPrimaryTextTypeface;
+        mSecondaryTextTypeface = from.mSecondaryTextTypeface;
+        mPrimaryTextTypefaceStyle = from.mPrimaryTextTypefaceStyle;
+        mSecondaryTextTypefaceStyle = from.mSecondaryTextTypefaceStyle;
+        mPrimaryTextGravity = from.mPrimaryTextGravity;
+        mSecondaryTextGravity = from.mSecondaryTextGravity;
+        mIconDrawableTintList = from.mIconDrawableTintList;
+        mIconDrawableTintMode = from.mIconDrawableTintMode;
+        mHasIconDrawableTint = from.mHasIconDrawableTint;
+        mIconDrawableColourFilter = from.mIconDrawableColourFilter;
+        mTargetRenderCacheEnabled = from.mTargetRenderCacheEnabled;
+        mTextLayoutCacheEnabled = from.mTextLayoutCacheEnabled;
+        mOverlayAttachEnabled = from.mOverlayAttachEnabled;
+        mIdleAnimationEnabled = from.mIdleAnimationEnabled;
+        mPressOnRelease = from.mPressOnRelease;
+        mLongPressEnabled = from.mLongPressEnabled;
+    }
+
     /**
      * Get the resource finder being used.
      *
@@ -381,6 +495,117 @@ public class PromptOptions<T extends PromptOptions>
         return mTargetRenderView;
     }
 
+    /**
+     * Enable/disable caching the target rendering between frames.
+     * When enabled the target view is only drawn again after it has been invalidated, disable
+     * this for targets that animate without invalidating, e.g. animated vector drawables.
+     * true by default
+     *
+     * @param enabled Target render cache enabled
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setTargetRenderCacheEnabled(final boolean enabled)
+    {
+        mTargetRenderCacheEnabled = enabled;
+        return (T) this;
+    }
+
+    /**
+     * Is the target rendering cached between frames.
+     *
+     * @return True if the target render cache is enabled.
+     */
+    public boolean getTargetRenderCacheEnabled()
+    {
+        return mTargetRenderCacheEnabled;
+    }
+
+    /**
+     * Enable/disable sharing the text layouts through the {@link PromptTextLayoutCache}.
+     * When enabled showing text that has been shown before with the same text attributes and
+     * width doesn't lay the text out again. Text with spans isn't cached, as the cache is shared
+     * by the whole process and the spans could keep an activity from being garbage collected.
+     * true by default
+     *
+     * @param enabled Text layout cache enabled
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setTextLayoutCacheEnabled(final boolean enabled)
+    {
+        mTextLayoutCacheEnabled = enabled;
+        return (T) this;
+    }
+
+    /**
+     * Are the text layouts shared through the {@link PromptTextLayoutCache}.
+     *
+     * @return True if the text layout cache is enabled.
+     */
+    public boolean getTextLayoutCacheEnabled()
+    {
+        return mTextLayoutCacheEnabled;
+    }
+
+    /**
+     * Enable/disable adding the prompt to the parent view's overlay instead of as a child view.
+     * Adding a child view causes a layout pass of the whole parent view hierarchy when the
+     * prompt is shown and removed, the overlay is drawn without one. Touch and back button events
+     * are passed to the prompt through the window callback.
+     * Only used on API 18+ when the resource finder's window can be found and accessibility
+     * services are disabled, otherwise the prompt is added as a child view.
+     * false by default
+     *
+     * @param enabled Overlay attach enabled
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setOverlayAttachEnabled(final boolean enabled)
+    {
+        mOverlayAttachEnabled = enabled;
+        return (T) this;
+    }
+
+    /**
+     * Is the prompt added to the parent view's overlay when possible.
+     *
+     * @return True if overlay attach is enabled.
+     */
+    public boolean getOverlayAttachEnabled()
+    {
+        return mOverlayAttachEnabled;
+    }
+
+    /**
+     * Set the executor used to measure the prompt text before the prompt is shown.
+     * When set {@link MaterialTapTargetPrompt#show()} measures the text on the executor, with
+     * {@link android.text.PrecomputedText} on API 28+, and the prompt is added and the reveal
+     * animation started on the main thread once the text has been measured. Useful for long or
+     * complex text, where laying out the text is the most expensive part of showing the prompt.
+     * null by default, the text is measured on the main thread when shown.
+     *
+     * @param executor The executor to measure the text on or null to measure on the main thread.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setTextMeasureExecutor(@Nullable final Executor executor)
+    {
+        mTextMeasureExecutor = executor;
+        return (T) this;
+    }
+
+    /**
+     * Get the executor used to measure the prompt text before the prompt is shown.
+     *
+     * @return The executor or null if the text is measured on the main thread.
+     */
+    @Nullable
+    public Executor getTextMeasureExecutor()
+    {
+        return mTextMeasureExecutor;
+    }
+
     /**
      * Has the target been set successfully?
      *
@@ -912,6 +1137,60 @@ public class PromptOptions<T extends PromptOptions>
         return mIdleAnimationEnabled;
     }
 
+    /**
+     * Set whether the focal and non focal presses are resolved when the touch is released instead
+     * of when it starts. A touch that moves further than the touch slop isn't a press, so
+     * dragging over the prompt doesn't finish or dismiss it. Touches that aren't captured by the
+     * prompt are still resolved when they start, as the prompt doesn't see them released.
+     * false by default
+     *
+     * @param pressOnRelease True to resolve the press when the touch is released.
+     * @return This Builder object to allow for chaining of calls to set methods
+     * @see #setLongPressEnabled(boolean)
+     */
+    @NonNull
+    public T setPressOnRelease(final boolean pressOnRelease)
+    {
+        mPressOnRelease = pressOnRelease;
+        return (T) this;
+    }
+
+    /**
+     * Are the focal and non focal presses resolved when the touch is released.
+     *
+     * @return True if the press is resolved when the touch is released.
+     */
+    public boolean getPressOnRelease()
+    {
+        return mPressOnRelease;
+    }
+
+    /**
+     * Set whether holding a touch for the long press timeout resolves the press before the touch
+     * is released. Only used when the press is resolved on release.
+     * false by default
+     *
+     * @param enabled True to resolve the press on a long press.
+     * @return This Builder object to allow for chaining of calls to set methods
+     * @see #setPressOnRelease(boolean)
+     */
+    @NonNull
+    public T setLongPressEnabled(final boolean enabled)
+    {
+        mLongPressEnabled = enabled;
+        return (T) this;
+    }
+
+    /**
+     * Does holding a touch for the long press timeout resolve the press.
+     *
+     * @return True if the press is resolved on a long press.
+     */
+    public boolean getLongPressEnabled()
+    {
+        return mLongPressEnabled;
+    }
+
     /**
      * Set the icon to draw in the focal point using the given resource id.
      *
@@ -1014,6 +1293,34 @@ public class PromptOptions<T extends PromptOptions>
         return (T) this;
     }
 
+    /**
+     * Set the listener to receive the prompt timings once it has been dismissed or finished.
+     * Recording the timings adds a small amount of work to each frame so the listener should
+     * only be set when the metrics are used, e.g. for a sample of users.
+     * null by default.
+     *
+     * @param listener The listener to use, e.g. a {@link PromptMetricsAggregator} shared by all
+     *                 of the prompts.
+     * @return This Builder object to allow for chaining of calls to set methods
+     */
+    @NonNull
+    public T setPromptMetricsListener(@Nullable final PromptMetrics.Listener listener)
+    {
+        mPromptMetricsListener = listener;
+        return (T) this;
+    }
+
+    /**
+     * Get the listener for the prompt timings.
+     *
+     * @return The listener or null if the timings aren't recorded.
+     */
+    @Nullable
+    public PromptMetrics.Listener getPromptMetricsListener()
+    {
+        return mPromptMetricsListener;
+    }
+
     /**
      * Set the internal listener to listen for when the prompt state changes.
      * This does not return a builder is it's not intended to be user during the
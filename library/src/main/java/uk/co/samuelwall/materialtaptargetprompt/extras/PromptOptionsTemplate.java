@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Immutable copy of the resolved {@link PromptOptions} values, e.g. the colours, dimensions,
+ * typefaces and interpolator loaded from a theme, so that options for many prompts can be
+ * created without loading the theme or resources for each one.
+ * <p>
+ * Created with {@link PromptOptions#createTemplate()} and applied with
+ * {@link PromptOptions#applyTemplate(PromptOptionsTemplate)} or the
+ * {@link uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt.Builder} template
+ * constructors. The template doesn't reference the activity it was created from so it can be
+ * kept between activities that share the same configuration.
+ */
+public final class PromptOptionsTemplate
+{
+    /**
+     * The template values, never changed after the template is created.
+     */
+    @NonNull final PromptOptions<?> mValues;
+
+    /**
+     * Constructor.
+     *
+     * @param values The template values.
+     */
+    PromptOptionsTemplate(@NonNull final PromptOptions<?> values)
+    {
+        mValues = values;
+    }
+
+    /**
+     * Get the background colour in the template.
+     *
+     * @return The background colour.
+     */
+    public int getBackgroundColour()
+    {
+        return mValues.getBackgroundColour();
+    }
+
+    /**
+     * Get the focal colour in the template.
+     *
+     * @return The focal colour.
+     */
+    public int getFocalColour()
+    {
+        return mValues.getFocalColour();
+    }
+
+    /**
+     * Get the primary text size in pixels in the template.
+     *
+     * @return The primary text size.
+     */
+    public float getPrimaryTextSize()
+    {
+        return mValues.getPrimaryTextSize();
+    }
+
+    /**
+     * Get the secondary text size in pixels in the template.
+     *
+     * @return The secondary text size.
+     */
+    public float getSecondaryTextSize()
+    {
+        return mValues.getSecondaryTextSize();
+    }
+}
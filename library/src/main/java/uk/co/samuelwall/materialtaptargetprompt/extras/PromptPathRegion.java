@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.graphics.Region;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptHitTest;
+
+/**
+ * Hit tests points against an arbitrary path, such as a custom {@link PromptFocal#getPath()}.
+ * <p>
+ * The path is converted to a {@link Region} the first time it is tested and the region is reused
+ * until {@link #invalidate()} is called or a different path is tested, so the path only has to
+ * be converted again after it has changed. Points outside of the path bounds are rejected without
+ * testing the region.
+ */
+public class PromptPathRegion
+{
+    /**
+     * The path that the region was created from, compared by instance.
+     */
+    @Nullable Path mPath;
+
+    /**
+     * Is the region up to date with the path.
+     */
+    boolean mValid;
+
+    /**
+     * The path bounds.
+     */
+    @NonNull final RectF mPathBounds = new RectF();
+
+    /**
+     * The path region.
+     */
+    @NonNull final Region mRegion = new Region();
+
+    /**
+     * The region that the path is clipped to, the path bounds rounded out.
+     */
+    @NonNull private final Region mClipRegion = new Region();
+
+    /**
+     * Mark the region as out of date, must be called after the path has changed.
+     */
+    public void invalidate()
+    {
+        mValid = false;
+    }
+
+    /**
+     * Determines if a point is inside a path.
+     *
+     * @param path The path to test, null is treated as an empty path.
+     * @param x    The point x position.
+     * @param y    The point y position.
+     * @return True if the point (x, y) is in the path.
+     */
+    public boolean contains(@Nullable final Path path, final float x, final float y)
+    {
+        if (path == null)
+        {
+            return false;
+        }
+        if (!mValid || path != mPath)
+        {
+            path.computeBounds(mPathBounds, true);
+            mClipRegion.set((int) Math.floor(mPathBounds.left), (int) Math.floor(mPathBounds.top),
+                    (int) Math.ceil(mPathBounds.right), (int) Math.ceil(mPathBounds.bottom));
+            mRegion.setPath(path, mClipRegion);
+            mPath = path;
+            mValid = true;
+        }
+        return PromptHitTest.isPointInBounds(x, y, mPathBounds.left, mPathBounds.top,
+                mPathBounds.right, mPathBounds.bottom)
+                && mRegion.contains((int) x, (int) y);
+    }
+}
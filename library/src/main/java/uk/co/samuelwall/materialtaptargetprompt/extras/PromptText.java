@@ -17,13 +17,19 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.graphics.Canvas;
-import android.graphics.Color;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Typeface;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
 import android.text.TextPaint;
+import android.view.View;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptTextPlacement;
 
 public class PromptText implements PromptUIElement
 {
@@ -59,10 +65,60 @@ public class PromptText implements PromptUIElement
      */
     Layout.Alignment mSecondaryTextAlignment;
 
+    /**
+     * The resolved primary text alignment and direction.
+     */
+    final PromptTextDirection mPrimaryTextDirection = new PromptTextDirection();
+
+    /**
+     * The resolved secondary text alignment and direction.
+     */
+    final PromptTextDirection mSecondaryTextDirection = new PromptTextDirection();
+
+    /**
+     * The span used to modify the primary text alpha during animations.
+     * Kept by the primary text layout so the alpha can change without re-laying out the text.
+     * Shared with other prompts when the layout is cached.
+     */
+    AlphaSpan mPrimaryTextAlphaSpan = new AlphaSpan(1);
+
+    /**
+     * The span used to modify the secondary text alpha during animations.
+     * Kept by the secondary text layout so the alpha can change without re-laying out the text.
+     * Shared with other prompts when the layout is cached.
+     */
+    AlphaSpan mSecondaryTextAlphaSpan = new AlphaSpan(1);
+
     boolean mClipToBounds;
 
     Rect mClipBounds;
 
+    /**
+     * The maximum width that the text layouts were created with.
+     */
+    float mMaxWidth;
+
+    /**
+     * The width of the widest text layout line.
+     */
+    float mTextWidth;
+
+    /**
+     * The current alpha modification value between 0 and 1, applied to the alpha spans when
+     * drawing as they can be shared with other prompts through the layout cache.
+     */
+    float mAlphaModifier = 1;
+
+    /**
+     * The primary text measured by the last {@link #createMeasureTask(PromptOptions, boolean, Rect)}.
+     */
+    @Nullable PromptTextMeasurement mPrimaryTextMeasurement;
+
+    /**
+     * The secondary text measured by the last {@link #createMeasureTask(PromptOptions, boolean, Rect)}.
+     */
+    @Nullable PromptTextMeasurement mSecondaryTextMeasurement;
+
     public  PromptText() {}
 
     /**
@@ -84,101 +140,201 @@ public class PromptText implements PromptUIElement
     {
         mClipToBounds = clipToBounds;
         mClipBounds = clipBounds;
-        final CharSequence primaryText = options.getPrimaryText();
-        if (primaryText != null)
-        {
-            mPaintPrimaryText = new TextPaint();
-            @ColorInt final int primaryTextColour = options.getPrimaryTextColour();
-            mPaintPrimaryText.setColor(primaryTextColour);
-            mPaintPrimaryText.setAlpha(Color.alpha(primaryTextColour));
-            mPaintPrimaryText.setAntiAlias(true);
-            mPaintPrimaryText.setTextSize(options.getPrimaryTextSize());
-            PromptUtils.setTypeface(mPaintPrimaryText, options.getPrimaryTextTypeface(), options.getPrimaryTextTypefaceStyle());
-            mPrimaryTextAlignment = PromptUtils.getTextAlignment(options.getResourceFinder().getResources(),
-                    options.getPrimaryTextGravity(), primaryText);
-        }
-
-        final CharSequence secondaryText = options.getSecondaryText();
-        if (secondaryText != null)
-        {
-            mPaintSecondaryText = new TextPaint();
-            @ColorInt final int secondaryTextColour = options.getSecondaryTextColour();
-            mPaintSecondaryText.setColor(secondaryTextColour);
-            mPaintSecondaryText.setAlpha(Color.alpha(secondaryTextColour));
-            mPaintSecondaryText.setAntiAlias(true);
-            mPaintSecondaryText.setTextSize(options.getSecondaryTextSize());
-            PromptUtils.setTypeface(mPaintSecondaryText, options.getSecondaryTextTypeface(),
-                    options.getSecondaryTextTypefaceStyle());
-            mSecondaryTextAlignment = PromptUtils.getTextAlignment(options.getResourceFinder().getResources(),
-                    options.getSecondaryTextGravity(), secondaryText);
-        }
-        final RectF focalBounds = options.getPromptFocal().getBounds();
-        final float focalCentreX = focalBounds.centerX();
-        final float focalCentreY = focalBounds.centerY();
-
-        final boolean verticalTextPositionAbove = focalCentreY > clipBounds.centerY();
-        final boolean horizontalTextPositionLeft = focalCentreX > clipBounds.centerX();
+        preparePaints(options);
 
-        final float maxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
+        mMaxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
                 clipToBounds ? clipBounds : null,
                 options.getResourceFinder().getPromptParentView().getWidth(),
                 options.getTextPadding());
-        createTextLayout(options, maxWidth, 1);
+        // Keep the current alpha so re-preparing mid animation doesn't flash the text
+        createTextLayout(options, mMaxWidth, mAlphaModifier);
         final float primaryTextWidth = PromptUtils.calculateMaxTextWidth(mPrimaryTextLayout);
         final float secondaryTextWidth = PromptUtils.calculateMaxTextWidth(mSecondaryTextLayout);
-        final float textWidth = Math.max(primaryTextWidth, secondaryTextWidth);
-        final float focalPadding = options.getFocalPadding();
-        final float textPadding = options.getTextPadding();
+        mTextWidth = Math.max(primaryTextWidth, secondaryTextWidth);
+        updateTextPosition(options, clipToBounds, clipBounds);
+    }
 
-        if (PromptUtils.containsInset(clipBounds,
-                (int) (88 * options.getResourceFinder().getResources().getDisplayMetrics().density),
-                (int) focalCentreX, (int) focalCentreY))
+    /**
+     * Creates a task that measures the text ahead of {@link #prepare(PromptOptions, boolean, Rect)}
+     * so that the expensive part of laying out the text can be run on a background thread.
+     * Must be called on the main thread, the returned task can be run on any thread. Once the
+     * task has finished the next prepare uses the measured text.
+     *
+     * @param options The options used to create the prompt.
+     * @param clipToBounds Should the prompt be clipped to the supplied clipBounds.
+     * @param clipBounds The bounds the prompt is clipped to.
+     * @return The task to run or null if there is no text that needs measuring.
+     */
+    @Nullable
+    public Runnable createMeasureTask(@NonNull final PromptOptions options,
+                                      final boolean clipToBounds, @NonNull final Rect clipBounds)
+    {
+        preparePaints(options);
+        final int maxWidth = (int) PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
+                clipToBounds ? clipBounds : null,
+                options.getResourceFinder().getPromptParentView().getWidth(),
+                options.getTextPadding());
+        final PromptTextMeasurement primary = createMeasurement(options.getPrimaryText(),
+                mPaintPrimaryText, mPrimaryTextAlignment, maxWidth, mPrimaryTextAlphaSpan,
+                mPrimaryTextMeasurement);
+        final PromptTextMeasurement secondary = createMeasurement(options.getSecondaryText(),
+                mPaintSecondaryText, mSecondaryTextAlignment, maxWidth, mSecondaryTextAlphaSpan,
+                mSecondaryTextMeasurement);
+        if (primary == null && secondary == null)
         {
-            mPrimaryTextLeft = clipBounds.left;
-            final float width = Math.min(textWidth, maxWidth);
-            if (horizontalTextPositionLeft)
-            {
-                mPrimaryTextLeft = focalCentreX - width + focalPadding;
-            }
-            else
-            {
-                mPrimaryTextLeft = focalCentreX - width - focalPadding;
-            }
-            if (mPrimaryTextLeft < clipBounds.left + textPadding)
+            return null;
+        }
+        if (primary != null)
+        {
+            mPrimaryTextMeasurement = primary;
+        }
+        if (secondary != null)
+        {
+            mSecondaryTextMeasurement = secondary;
+        }
+        return () -> {
+            if (primary != null)
             {
-                mPrimaryTextLeft = clipBounds.left + textPadding;
+                primary.run();
             }
-            if (mPrimaryTextLeft + width > clipBounds.right - textPadding)
+            if (secondary != null)
             {
-                mPrimaryTextLeft = clipBounds.right - textPadding - width;
+                secondary.run();
             }
+        };
+    }
+
+    /**
+     * Creates a measurement for text if it isn't already measured.
+     *
+     * @return The measurement to run or null if there is no text or it is already measured.
+     */
+    @Nullable
+    private static PromptTextMeasurement createMeasurement(@Nullable final CharSequence text,
+                                                           @Nullable final TextPaint paint,
+                                                           @Nullable final Layout.Alignment alignment,
+                                                           final int maxWidth,
+                                                           @NonNull final AlphaSpan alphaSpan,
+                                                           @Nullable final PromptTextMeasurement current)
+    {
+        if (text == null || paint == null || alignment == null
+                || (current != null && current.isMeasured()
+                    && current.isMeasurementFor(text, paint, alignment, maxWidth)))
+        {
+            return null;
         }
-        else
+        return new PromptTextMeasurement(text, paint, alignment, maxWidth, alphaSpan);
+    }
+
+    /**
+     * Creates the paints and resolves the alignment for the primary and secondary text.
+     * The paints are kept between prepares and only the values that have changed are set.
+     *
+     * @param options The options used to create the prompt.
+     */
+    void preparePaints(@NonNull final PromptOptions options)
+    {
+        final CharSequence primaryText = options.getPrimaryText();
+        if (primaryText != null)
         {
-            if (horizontalTextPositionLeft)
-            {
-                mPrimaryTextLeft = (clipToBounds ? clipBounds.right :
-                        options.getResourceFinder().getPromptParentView().getRight()) - textPadding - textWidth;
-            }
-            else
+            if (mPaintPrimaryText == null)
             {
-                mPrimaryTextLeft = (clipToBounds ? clipBounds.left :
-                        options.getResourceFinder().getPromptParentView().getLeft()) + textPadding;
+                mPaintPrimaryText = new TextPaint();
+                mPaintPrimaryText.setAntiAlias(true);
             }
+            updatePaint(mPaintPrimaryText, options.getPrimaryTextColour(), options.getPrimaryTextSize(),
+                    options.getPrimaryTextTypeface(), options.getPrimaryTextTypefaceStyle());
+            mPrimaryTextAlignment = mPrimaryTextDirection.getTextAlignment(
+                    options.getResourceFinder().getResources(), options.getPrimaryTextGravity(), primaryText);
         }
 
-        if (verticalTextPositionAbove)
+        final CharSequence secondaryText = options.getSecondaryText();
+        if (secondaryText != null)
         {
-            mPrimaryTextTop = focalBounds.top - focalPadding;
-            if (mPrimaryTextLayout != null)
+            if (mPaintSecondaryText == null)
             {
-                mPrimaryTextTop -= mPrimaryTextLayout.getHeight();
+                mPaintSecondaryText = new TextPaint();
+                mPaintSecondaryText.setAntiAlias(true);
             }
+            updatePaint(mPaintSecondaryText, options.getSecondaryTextColour(), options.getSecondaryTextSize(),
+                    options.getSecondaryTextTypeface(), options.getSecondaryTextTypefaceStyle());
+            mSecondaryTextAlignment = mSecondaryTextDirection.getTextAlignment(
+                    options.getResourceFinder().getResources(), options.getSecondaryTextGravity(), secondaryText);
+        }
+    }
+
+    /**
+     * Set the text paint values that differ from the supplied values.
+     *
+     * @param paint The paint to update.
+     * @param colour The text colour including the alpha.
+     * @param textSize The text size in pixels.
+     * @param typeface The text typeface.
+     * @param typefaceStyle The text typeface style.
+     */
+    private static void updatePaint(@NonNull final TextPaint paint, @ColorInt final int colour,
+                                    final float textSize, @Nullable final Typeface typeface,
+                                    final int typefaceStyle)
+    {
+        if (paint.getColor() != colour)
+        {
+            paint.setColor(colour);
+        }
+        if (paint.getTextSize() != textSize)
+        {
+            paint.setTextSize(textSize);
+        }
+        PromptUtils.setTypeface(paint, typeface, typefaceStyle);
+    }
+
+    /**
+     * Positions the text layouts around the focal.
+     *
+     * @param options The options used to create the prompt.
+     * @param clipToBounds Should the prompt be clipped to the supplied clipBounds.
+     * @param clipBounds The bounds the prompt is clipped to.
+     */
+    void updateTextPosition(@NonNull final PromptOptions options, final boolean clipToBounds,
+                            @NonNull final Rect clipBounds)
+    {
+        final RectF focalBounds = options.getPromptFocal().getBounds();
+        final float focalCentreX = focalBounds.centerX();
+        final float focalCentreY = focalBounds.centerY();
+
+        final boolean verticalTextPositionAbove = focalCentreY > clipBounds.centerY();
+        final boolean horizontalTextPositionLeft = focalCentreX > clipBounds.centerX();
+
+        final float maxWidth = mMaxWidth;
+        final float textWidth = mTextWidth;
+        final float focalPadding = options.getFocalPadding();
+        final float textPadding = options.getTextPadding();
+
+        final boolean focalInset = PromptUtils.containsInset(clipBounds,
+                (int) (88 * options.getResourceFinder().getResources().getDisplayMetrics().density),
+                (int) focalCentreX, (int) focalCentreY);
+        final float areaLeft;
+        final float areaRight;
+        if (clipToBounds)
+        {
+            areaLeft = clipBounds.left;
+            areaRight = clipBounds.right;
         }
         else
         {
-            mPrimaryTextTop = focalBounds.bottom + focalPadding;
+            final View parent = options.getResourceFinder().getPromptParentView();
+            areaLeft = parent.getLeft();
+            areaRight = parent.getRight();
         }
+        mPrimaryTextLeft = PromptTextPlacement.calculateTextLeft(focalInset,
+                horizontalTextPositionLeft, focalCentreX, clipBounds.left, clipBounds.right,
+                areaLeft, areaRight, textWidth, maxWidth, focalPadding, textPadding);
+        mPrimaryTextTop = PromptTextPlacement.calculateTextTop(verticalTextPositionAbove,
+                focalBounds.top, focalBounds.bottom, focalPadding,
+                mPrimaryTextLayout != null,
+                mPrimaryTextLayout != null ? mPrimaryTextLayout.getHeight() : 0,
+                mSecondaryTextLayout != null,
+                mSecondaryTextLayout != null ? mSecondaryTextLayout.getHeight() : 0,
+                options.getTextSeparation());
 
         float primaryTextHeight = 0;
         if (mPrimaryTextLayout != null)
@@ -189,15 +345,6 @@ public class PromptText implements PromptUIElement
         if (mSecondaryTextLayout != null)
         {
             textHeight = mSecondaryTextLayout.getHeight();
-            if (verticalTextPositionAbove)
-            {
-                mPrimaryTextTop -= textHeight;
-                if (mPrimaryTextLayout != null)
-                {
-                    mPrimaryTextTop -= options.getTextSeparation();
-                }
-            }
-
             if (mPrimaryTextLayout != null)
             {
                 mSecondaryTextOffsetTop = primaryTextHeight + options.getTextSeparation();
@@ -213,11 +360,11 @@ public class PromptText implements PromptUIElement
         mPrimaryTextLeftChange = 0;
         mSecondaryTextLeftChange = 0;
         final float change = maxWidth - textWidth;
-        if (PromptUtils.isRtlText(mPrimaryTextLayout, options.getResourceFinder().getResources()))
+        if (mPrimaryTextDirection.isRtlText(mPrimaryTextLayout, options.getResourceFinder().getResources()))
         {
             mPrimaryTextLeftChange = change;
         }
-        if (PromptUtils.isRtlText(mSecondaryTextLayout, options.getResourceFinder().getResources()))
+        if (mSecondaryTextDirection.isRtlText(mSecondaryTextLayout, options.getResourceFinder().getResources()))
         {
             mSecondaryTextLeftChange = change;
         }
@@ -227,18 +374,58 @@ public class PromptText implements PromptUIElement
         mTextBounds.bottom = mTextBounds.top + textHeight;
     }
 
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        if (mClipBounds == null)
+        {
+            return false;
+        }
+        // The text layouts only depend on the clip bounds so only the position needs updating
+        updateTextPosition(options, mClipToBounds, mClipBounds);
+        return true;
+    }
+
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        bounds.setEmpty();
+        if (mPrimaryTextLayout != null)
+        {
+            final float left = mPrimaryTextLeft - mPrimaryTextLeftChange;
+            bounds.union(left, mPrimaryTextTop, left + mPrimaryTextLayout.getWidth(),
+                    mPrimaryTextTop + mPrimaryTextLayout.getHeight());
+        }
+        if (mSecondaryTextLayout != null)
+        {
+            final float left = mSecondaryTextLeft - mSecondaryTextLeftChange;
+            final float top = mPrimaryTextTop + mSecondaryTextOffsetTop;
+            bounds.union(left, top, left + mSecondaryTextLayout.getWidth(),
+                    top + mSecondaryTextLayout.getHeight());
+        }
+        return true;
+    }
+
     /**
      * Creates the text layouts for the primary and secondary text.
+     * This is only called from {@link #prepare(PromptOptions, boolean, Rect)}, animation frames
+     * only change the alpha span values.
      *
      * @param maxWidth The maximum width that the text can be.
+     * @param alphaModifier The initial alpha modification value between 0 and 1.
      */
     void createTextLayout(@NonNull final PromptOptions options, final float maxWidth,
                           final float alphaModifier)
     {
+        mAlphaModifier = alphaModifier;
+        final PromptTextLayoutCache cache = options.getTextLayoutCacheEnabled()
+                ? PromptTextLayoutCache.getInstance() : null;
         if (options.getPrimaryText() != null)
         {
-            mPrimaryTextLayout = PromptUtils.createStaticTextLayout(options.getPrimaryText(),
-                    mPaintPrimaryText, (int) maxWidth, mPrimaryTextAlignment, alphaModifier);
+            mPrimaryTextLayout = createTextLayout(cache, options.getPrimaryText(), mPaintPrimaryText,
+                    (int) maxWidth, mPrimaryTextAlignment, mPrimaryTextAlphaSpan,
+                    mPrimaryTextMeasurement);
+            mPrimaryTextAlphaSpan = getAlphaSpan(mPrimaryTextLayout, mPrimaryTextAlphaSpan);
         }
         else
         {
@@ -246,24 +433,91 @@ public class PromptText implements PromptUIElement
         }
         if (options.getSecondaryText() != null)
         {
-            mSecondaryTextLayout = PromptUtils.createStaticTextLayout(options.getSecondaryText(),
-                    mPaintSecondaryText, (int) maxWidth, mSecondaryTextAlignment, alphaModifier);
+            mSecondaryTextLayout = createTextLayout(cache, options.getSecondaryText(), mPaintSecondaryText,
+                    (int) maxWidth, mSecondaryTextAlignment, mSecondaryTextAlphaSpan,
+                    mSecondaryTextMeasurement);
+            mSecondaryTextAlphaSpan = getAlphaSpan(mSecondaryTextLayout, mSecondaryTextAlphaSpan);
         }
         else
         {
             mSecondaryTextLayout = null;
         }
+        mPrimaryTextAlphaSpan.setAlpha(alphaModifier);
+        mSecondaryTextAlphaSpan.setAlpha(alphaModifier);
+    }
+
+    /**
+     * Creates a text layout, using a cached layout or the text measured by
+     * {@link #createMeasureTask(PromptOptions, boolean, Rect)} if there is one for the same text.
+     *
+     * @param cache The cache to share the layout through or null if the cache is disabled.
+     */
+    @NonNull
+    private static StaticLayout createTextLayout(@Nullable final PromptTextLayoutCache cache,
+                                                 @NonNull final CharSequence text,
+                                                 @NonNull final TextPaint paint, final int maxWidth,
+                                                 @NonNull final Layout.Alignment alignment,
+                                                 @NonNull final AlphaSpan alphaSpan,
+                                                 @Nullable final PromptTextMeasurement measurement)
+    {
+        if (cache != null && !PromptTextLayoutCache.canCache(text))
+        {
+            // Laid out for this prompt only so it doesn't need its own paint
+            return createTextLayout(null, text, paint, maxWidth, alignment, alphaSpan, measurement);
+        }
+        StaticLayout layout = cache != null ? cache.get(text, paint, alignment, maxWidth) : null;
+        if (layout != null)
+        {
+            return layout;
+        }
+        // A shared layout needs its own paint so changes to this prompt's paint don't affect it
+        final TextPaint layoutPaint = cache != null ? new TextPaint(paint) : paint;
+        if (measurement != null && measurement.isMeasurementFor(text, paint, alignment, maxWidth))
+        {
+            layout = measurement.createLayout(layoutPaint, maxWidth);
+        }
+        if (layout == null)
+        {
+            layout = PromptUtils.createStaticTextLayout(text, layoutPaint, maxWidth, alignment, alphaSpan);
+        }
+        if (cache != null)
+        {
+            cache.put(text, paint, alignment, maxWidth, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Get the alpha span that a text layout was created with, which is shared with other prompts
+     * when the layout is cached.
+     *
+     * @param layout The text layout.
+     * @param alphaSpan The span to use if the layout doesn't have one.
+     * @return The layout's alpha span.
+     */
+    @NonNull
+    private static AlphaSpan getAlphaSpan(@NonNull final Layout layout, @NonNull final AlphaSpan alphaSpan)
+    {
+        final CharSequence text = layout.getText();
+        if (text instanceof Spanned)
+        {
+            final AlphaSpan[] spans = ((Spanned) text).getSpans(0, text.length(), AlphaSpan.class);
+            if (spans.length > 0)
+            {
+                return spans[0];
+            }
+        }
+        return alphaSpan;
     }
 
     @Override
     public void update(@NonNull final PromptOptions options, float revealModifier,
                        float alphaModifier)
     {
-        final float maxWidth = PromptUtils.calculateMaxWidth(options.getMaxTextWidth(),
-                mClipToBounds ? mClipBounds : null,
-                options.getResourceFinder().getPromptParentView().getWidth(),
-                options.getTextPadding());
-        createTextLayout(options, maxWidth, alphaModifier);
+        // The layouts are created in prepare, only the alpha changes while animating
+        mAlphaModifier = alphaModifier;
+        mPrimaryTextAlphaSpan.setAlpha(alphaModifier);
+        mSecondaryTextAlphaSpan.setAlpha(alphaModifier);
     }
 
     @Override
@@ -272,16 +526,33 @@ public class PromptText implements PromptUIElement
         canvas.translate(mPrimaryTextLeft - mPrimaryTextLeftChange, mPrimaryTextTop);
         if (mPrimaryTextLayout != null)
         {
+            applyDrawState(mPrimaryTextLayout, mPaintPrimaryText, mPrimaryTextAlphaSpan);
             mPrimaryTextLayout.draw(canvas);
         }
         if (mSecondaryTextLayout != null)
         {
             canvas.translate(-(mPrimaryTextLeft - mPrimaryTextLeftChange)
                     + mSecondaryTextLeft - mSecondaryTextLeftChange, mSecondaryTextOffsetTop);
+            applyDrawState(mSecondaryTextLayout, mPaintSecondaryText, mSecondaryTextAlphaSpan);
             mSecondaryTextLayout.draw(canvas);
         }
     }
 
+    /**
+     * Set this prompt's text colour and alpha on a layout before drawing it, as a cached layout
+     * may also be drawn by other prompts with different values.
+     */
+    private void applyDrawState(@NonNull final Layout layout, @NonNull final TextPaint paint,
+                                @NonNull final AlphaSpan alphaSpan)
+    {
+        final TextPaint layoutPaint = layout.getPaint();
+        if (layoutPaint != paint && layoutPaint.getColor() != paint.getColor())
+        {
+            layoutPaint.setColor(paint.getColor());
+        }
+        alphaSpan.setAlpha(mAlphaModifier);
+    }
+
     @Override
     public boolean contains(float x, float y)
     {
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.content.res.Resources;
+import android.os.Build;
+import android.text.Layout;
+import android.view.View;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Remembers the resolved alignment and direction for a prompt text, so that preparing the prompt
+ * again doesn't run the bidi analysis again unless the text, gravity or layout direction has
+ * changed.
+ */
+class PromptTextDirection
+{
+    /**
+     * The text that the alignment was resolved for, compared by instance.
+     */
+    @Nullable CharSequence mText;
+
+    /**
+     * The gravity that the alignment was resolved for.
+     */
+    int mGravity;
+
+    /**
+     * The layout direction that the alignment was resolved for, -1 if not resolved.
+     */
+    int mAlignmentLayoutDirection = -1;
+
+    /**
+     * The resolved alignment.
+     */
+    @Nullable Layout.Alignment mAlignment;
+
+    /**
+     * The text layout that the direction was resolved for, compared by instance.
+     */
+    @Nullable Layout mLayout;
+
+    /**
+     * The layout direction that the text direction was resolved for, -1 if not resolved.
+     */
+    int mRtlLayoutDirection = -1;
+
+    /**
+     * Is the text laid out right to left.
+     */
+    boolean mRtl;
+
+    /**
+     * Get the absolute text alignment, resolving it if the inputs have changed.
+     *
+     * @see PromptUtils#getTextAlignment(Resources, int, CharSequence)
+     */
+    @NonNull
+    Layout.Alignment getTextAlignment(@NonNull final Resources resources, final int gravity,
+                                      @NonNull final CharSequence text)
+    {
+        final int layoutDirection = getLayoutDirection(resources);
+        if (mAlignment == null || text != mText || gravity != mGravity
+                || layoutDirection != mAlignmentLayoutDirection)
+        {
+            mAlignment = PromptUtils.getTextAlignment(resources, gravity, text);
+            mText = text;
+            mGravity = gravity;
+            mAlignmentLayoutDirection = layoutDirection;
+        }
+        return mAlignment;
+    }
+
+    /**
+     * Is the text in a layout displayed right to left, resolving it if the layout or layout
+     * direction have changed.
+     *
+     * @see PromptUtils#isRtlText(Layout, Resources)
+     */
+    boolean isRtlText(@Nullable final Layout layout, @NonNull final Resources resources)
+    {
+        if (layout == null)
+        {
+            return false;
+        }
+        final int layoutDirection = getLayoutDirection(resources);
+        if (layout != mLayout || layoutDirection != mRtlLayoutDirection)
+        {
+            mRtl = PromptUtils.isRtlText(layout, resources);
+            mLayout = layout;
+            mRtlLayoutDirection = layoutDirection;
+        }
+        return mRtl;
+    }
+
+    /**
+     * Get the configuration layout direction.
+     */
+    private static int getLayoutDirection(@NonNull final Resources resources)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+        {
+            return resources.getConfiguration().getLayoutDirection();
+        }
+        return View.LAYOUT_DIRECTION_LTR;
+    }
+}
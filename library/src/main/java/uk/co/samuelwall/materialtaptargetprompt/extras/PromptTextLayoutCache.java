@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import java.util.Locale;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Process wide cache of prompt text layouts, so that showing the same text again, e.g. after
+ * rotating or replaying a sequence, doesn't lay the text out again.
+ * <p>
+ * Layouts are keyed by the text, the paint attributes that affect how the text is measured, the
+ * alignment and the width. The paint colour isn't part of the key, it is applied to the layout
+ * when drawn. The cache size is measured in text characters and the least recently used layouts
+ * are evicted once it is full.
+ * <p>
+ * Text with spans, other than the {@link AlphaSpan} added by the library, isn't cached. The cache
+ * lives for the whole process and a span such as a {@link android.text.style.ClickableSpan} or
+ * {@link android.text.style.ImageSpan} can hold on to an activity after it has been destroyed.
+ */
+public class PromptTextLayoutCache
+{
+    /**
+     * The default maximum number of text characters in the cached layouts.
+     */
+    public static final int DEFAULT_MAX_SIZE = 16 * 1024;
+
+    /**
+     * The cache shared by all prompts.
+     */
+    @NonNull private static final PromptTextLayoutCache sInstance = new PromptTextLayoutCache(DEFAULT_MAX_SIZE);
+
+    /**
+     * The cached layouts.
+     */
+    @NonNull final LruCache<Key, StaticLayout> mCache;
+
+    /**
+     * Reused to look up layouts so that getting a cached layout doesn't allocate.
+     * Only used while synchronised on it.
+     */
+    @NonNull final Key mLookupKey = new Key();
+
+    /**
+     * Constructor.
+     *
+     * @param maxSize The maximum number of text characters in the cached layouts.
+     */
+    PromptTextLayoutCache(final int maxSize)
+    {
+        mCache = new LruCache<Key, StaticLayout>(maxSize)
+        {
+            @Override
+            protected int sizeOf(@NonNull final Key key, @NonNull final StaticLayout value)
+            {
+                return Math.max(1, key.mText.length());
+            }
+        };
+    }
+
+    /**
+     * Get the cache shared by all prompts.
+     *
+     * @return The shared cache.
+     */
+    @NonNull
+    public static PromptTextLayoutCache getInstance()
+    {
+        return sInstance;
+    }
+
+    /**
+     * Get a cached layout.
+     *
+     * @param text The text to lay out.
+     * @param paint The paint to lay out the text with.
+     * @param alignment The alignment to lay out the text with.
+     * @param maxWidth The width in pixels to lay out the text at.
+     * @return The cached layout or null if there isn't one.
+     */
+    @Nullable
+    StaticLayout get(@NonNull final CharSequence text, @NonNull final TextPaint paint,
+                     @NonNull final Layout.Alignment alignment, final int maxWidth)
+    {
+        if (!canCache(text))
+        {
+            return null;
+        }
+        synchronized (mLookupKey)
+        {
+            mLookupKey.set(text, paint, alignment, maxWidth);
+            final StaticLayout layout = mCache.get(mLookupKey);
+            // Don't keep the caller's text
+            mLookupKey.mText = "";
+            return layout;
+        }
+    }
+
+    /**
+     * Add a layout to the cache, ignored if the text can't be cached.
+     * The layout must have been created with a paint that isn't changed afterwards other than
+     * its colour.
+     *
+     * @param text The text that was laid out.
+     * @param paint The paint the text was laid out with.
+     * @param alignment The alignment the text was laid out with.
+     * @param maxWidth The width in pixels the text was laid out at.
+     * @param layout The layout to cache.
+     */
+    void put(@NonNull final CharSequence text, @NonNull final TextPaint paint,
+             @NonNull final Layout.Alignment alignment, final int maxWidth,
+             @NonNull final StaticLayout layout)
+    {
+        if (!canCache(text))
+        {
+            return;
+        }
+        // Copy the text so changes to mutable text don't change the key, only done for a miss
+        final Key key = new Key();
+        key.set(text.toString(), paint, alignment, maxWidth);
+        mCache.put(key, layout);
+    }
+
+    /**
+     * Can a layout for the text be cached, the text mustn't have any spans other than
+     * {@link AlphaSpan}s so that the process wide cache doesn't keep the caller's spans.
+     *
+     * @param text The text to lay out.
+     * @return True if the text can be cached.
+     */
+    static boolean canCache(@NonNull final CharSequence text)
+    {
+        if (!(text instanceof Spanned))
+        {
+            return true;
+        }
+        final Spanned spanned = (Spanned) text;
+        final int length = spanned.length();
+        // Checks for spans without allocating, only text with spans gets them to check the types.
+        // The limit is past the end to find empty spans at the end of the text.
+        if (spanned.nextSpanTransition(-1, length + 1, Object.class) > length)
+        {
+            return true;
+        }
+        for (final Object span : spanned.getSpans(0, length, Object.class))
+        {
+            if (!(span instanceof AlphaSpan))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of times a cached layout was found.
+     *
+     * @return The hit count.
+     */
+    public int getHitCount()
+    {
+        return mCache.hitCount();
+    }
+
+    /**
+     * Get the number of times a cached layout wasn't found and the text had to be laid out.
+     *
+     * @return The miss count.
+     */
+    public int getMissCount()
+    {
+        return mCache.missCount();
+    }
+
+    /**
+     * Get the number of layouts that have been evicted to keep the cache within its maximum size.
+     *
+     * @return The eviction count.
+     */
+    public int getEvictionCount()
+    {
+        return mCache.evictionCount();
+    }
+
+    /**
+     * Get the number of text characters in the cached layouts.
+     *
+     * @return The cache size.
+     */
+    public int getSize()
+    {
+        return mCache.size();
+    }
+
+    /**
+     * Get the maximum number of text characters in the cached layouts.
+     *
+     * @return The maximum cache size.
+     */
+    public int getMaxSize()
+    {
+        return mCache.maxSize();
+    }
+
+    /**
+     * Evict the least recently used layouts until the cache is at or below a size, e.g. when
+     * the app is asked to trim its memory.
+     *
+     * @param maxSize The maximum number of text characters to keep.
+     */
+    public void trimToSize(final int maxSize)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1)
+        {
+            mCache.trimToSize(maxSize);
+        }
+        else
+        {
+            // Not public before API 17
+            mCache.evictAll();
+        }
+    }
+
+    /**
+     * Remove all of the cached layouts.
+     */
+    public void clear()
+    {
+        mCache.evictAll();
+    }
+
+    /**
+     * The values that a text layout is created from.
+     * Keys in the cache aren't changed once added, only the lookup key is set again.
+     */
+    static final class Key
+    {
+        @NonNull CharSequence mText = "";
+        float mTextSize;
+        float mTextScaleX;
+        float mTextSkewX;
+        float mLetterSpacing;
+        int mFlags;
+        @Nullable Typeface mTypeface;
+        @Nullable Locale mTextLocale;
+        @NonNull Layout.Alignment mAlignment = Layout.Alignment.ALIGN_NORMAL;
+        int mMaxWidth;
+        private int mHashCode;
+
+        /**
+         * Set the key values without copying the text.
+         *
+         * @param text The text to lay out.
+         * @param paint The paint to lay out the text with.
+         * @param alignment The alignment to lay out the text with.
+         * @param maxWidth The width in pixels to lay out the text at.
+         */
+        void set(@NonNull final CharSequence text, @NonNull final TextPaint paint,
+                 @NonNull final Layout.Alignment alignment, final int maxWidth)
+        {
+            mText = text;
+            mTextSize = paint.getTextSize();
+            mTextScaleX = paint.getTextScaleX();
+            mTextSkewX = paint.getTextSkewX();
+            mLetterSpacing = Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP
+                    ? paint.getLetterSpacing() : 0;
+            mFlags = paint.getFlags();
+            mTypeface = paint.getTypeface();
+            mTextLocale = Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+                    ? paint.getTextLocale() : null;
+            mAlignment = alignment;
+            mMaxWidth = maxWidth;
+            int hashCode = textHashCode(text);
+            hashCode = 31 * hashCode + Float.floatToIntBits(mTextSize);
+            hashCode = 31 * hashCode + mFlags;
+            hashCode = 31 * hashCode + (mTypeface != null ? mTypeface.hashCode() : 0);
+            hashCode = 31 * hashCode + alignment.hashCode();
+            hashCode = 31 * hashCode + maxWidth;
+            mHashCode = hashCode;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            final Key key = (Key) o;
+            return mHashCode == key.mHashCode
+                    && mMaxWidth == key.mMaxWidth
+                    && mAlignment == key.mAlignment
+                    && mFlags == key.mFlags
+                    && mTextSize == key.mTextSize
+                    && mTextScaleX == key.mTextScaleX
+                    && mTextSkewX == key.mTextSkewX
+                    && mLetterSpacing == key.mLetterSpacing
+                    && (mTypeface == null ? key.mTypeface == null : mTypeface.equals(key.mTypeface))
+                    && (mTextLocale == null ? key.mTextLocale == null : mTextLocale.equals(key.mTextLocale))
+                    && TextUtils.equals(mText, key.mText);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return mHashCode;
+        }
+
+        /**
+         * Calculate a text hash code without copying the text, the characters are hashed the same
+         * as {@link String#hashCode()}. Any {@link AlphaSpan}s don't change how the text is laid
+         * out so aren't part of the key.
+         */
+        static int textHashCode(@NonNull final CharSequence text)
+        {
+            if (text instanceof String)
+            {
+                // Cached by the string
+                return text.hashCode();
+            }
+            int hashCode = 0;
+            for (int i = 0, length = text.length(); i < length; i++)
+            {
+                hashCode = 31 * hashCode + text.charAt(i);
+            }
+            return hashCode;
+        }
+    }
+}
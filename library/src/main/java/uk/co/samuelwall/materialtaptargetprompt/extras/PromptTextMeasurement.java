@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.os.Build;
+import android.text.Layout;
+import android.text.PrecomputedText;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Text measured ahead of being laid out, so that the measuring can be run on a background thread.
+ * <p>
+ * On API 28+ the text is measured with {@link PrecomputedText}, which can then be laid out at
+ * any width. On older APIs the text is laid out at the width it is expected to be shown at.
+ */
+class PromptTextMeasurement implements Runnable
+{
+    /**
+     * The text that was measured, compared by instance.
+     */
+    @NonNull final CharSequence mText;
+
+    /**
+     * A copy of the paint that the text is measured with, so changes to the prompt's paint on
+     * the main thread don't affect the measuring.
+     */
+    @NonNull final TextPaint mPaint;
+
+    /**
+     * The alignment the text is laid out with.
+     */
+    @NonNull final Layout.Alignment mAlignment;
+
+    /**
+     * The width that the text is laid out at on APIs before 28.
+     */
+    final int mMaxWidth;
+
+    /**
+     * The span used to modify the text alpha, kept by the measured text.
+     */
+    @NonNull final AlphaSpan mAlphaSpan;
+
+    /**
+     * The measured text on API 28+, null until measured.
+     */
+    @Nullable volatile CharSequence mMeasuredText;
+
+    /**
+     * The laid out text on APIs before 28, null until measured.
+     */
+    @Nullable volatile StaticLayout mLayout;
+
+    /**
+     * Constructor, must be called on the main thread.
+     *
+     * @param text The text to measure.
+     * @param paint The paint to measure the text with, copied.
+     * @param alignment The alignment to lay out the text with.
+     * @param maxWidth The width in pixels to lay out the text at.
+     * @param alphaSpan The span used to modify the text alpha value.
+     */
+    PromptTextMeasurement(@NonNull final CharSequence text, @NonNull final TextPaint paint,
+                          @NonNull final Layout.Alignment alignment, final int maxWidth,
+                          @NonNull final AlphaSpan alphaSpan)
+    {
+        mText = text;
+        mPaint = new TextPaint(paint);
+        mAlignment = alignment;
+        mMaxWidth = maxWidth;
+        mAlphaSpan = alphaSpan;
+    }
+
+    /**
+     * Measures the text, can be run on any thread.
+     */
+    @Override
+    public void run()
+    {
+        final CharSequence wrappedText = PromptUtils.wrapText(mText, mAlphaSpan);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P)
+        {
+            // Match the StaticLayout.Builder defaults so the measurement is used when laid out
+            mMeasuredText = PrecomputedText.create(wrappedText,
+                    new PrecomputedText.Params.Builder(mPaint)
+                            .setBreakStrategy(Layout.BREAK_STRATEGY_SIMPLE)
+                            .setHyphenationFrequency(Layout.HYPHENATION_FREQUENCY_NONE)
+                            .build());
+        }
+        else
+        {
+            mLayout = PromptUtils.createStaticTextLayout(wrappedText, mPaint, mMaxWidth, mAlignment);
+        }
+    }
+
+    /**
+     * Has the measuring finished.
+     *
+     * @return True if the text has been measured.
+     */
+    boolean isMeasured()
+    {
+        return mMeasuredText != null || mLayout != null;
+    }
+
+    /**
+     * Is the measurement for the text laid out with the supplied values.
+     *
+     * @param text The text to lay out.
+     * @param paint The paint to lay out the text with.
+     * @param alignment The alignment to lay out the text with.
+     * @param maxWidth The width in pixels to lay out the text at.
+     * @return True if the measurement can be used to lay out the text.
+     */
+    boolean isMeasurementFor(@NonNull final CharSequence text, @NonNull final TextPaint paint,
+                             @NonNull final Layout.Alignment alignment, final int maxWidth)
+    {
+        return text == mText && alignment == mAlignment
+                && (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P || maxWidth == mMaxWidth)
+                && isSameTextMetrics(paint, mPaint);
+    }
+
+    /**
+     * Creates the text layout from the measurement.
+     *
+     * @param paint The paint to draw the text with.
+     * @param maxWidth The width in pixels to lay out the text at.
+     * @return The text layout or null if the text hasn't been measured yet.
+     */
+    @Nullable
+    StaticLayout createLayout(@NonNull final TextPaint paint, final int maxWidth)
+    {
+        final CharSequence measuredText = mMeasuredText;
+        if (measuredText != null)
+        {
+            return PromptUtils.createStaticTextLayout(measuredText, paint, maxWidth, mAlignment);
+        }
+        return mLayout;
+    }
+
+    /**
+     * Do two paints measure text the same, ignoring colour and alpha.
+     */
+    static boolean isSameTextMetrics(@NonNull final TextPaint a, @NonNull final TextPaint b)
+    {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)
+        {
+            return a.equalsForTextMeasurement(b);
+        }
+        return a.getTextSize() == b.getTextSize()
+                && a.getTextScaleX() == b.getTextScaleX()
+                && a.getTextSkewX() == b.getTextSkewX()
+                && a.getFlags() == b.getFlags()
+                && (a.getTypeface() == null ? b.getTypeface() == null : a.getTypeface().equals(b.getTypeface()))
+                && (Build.VERSION.SDK_INT < Build.VERSION_CODES.LOLLIPOP
+                    || a.getLetterSpacing() == b.getLetterSpacing());
+    }
+}
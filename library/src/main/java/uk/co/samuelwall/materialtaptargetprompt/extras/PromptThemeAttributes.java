@@ -0,0 +1,272 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.content.res.ColorStateList;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.PorterDuff;
+import android.graphics.Typeface;
+import android.util.SparseArray;
+import android.util.TypedValue;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.StyleRes;
+import uk.co.samuelwall.materialtaptargetprompt.R;
+import uk.co.samuelwall.materialtaptargetprompt.ResourceFinder;
+
+/**
+ * The prompt attributes parsed from a theme, so that loading the options for another prompt
+ * with the same theme copies the values instead of obtaining and parsing the styled attributes
+ * again.
+ * <p>
+ * Parsed attributes are kept in a process wide cache for each activity theme and prompt theme
+ * resource id. The theme is weakly referenced so the cache doesn't keep it or its activity alive.
+ * Values that aren't set in the theme are null so that the current option values are kept.
+ * The attributes are parsed again if the configuration has changed since they were cached, e.g.
+ * the night mode, font scale or density has changed.
+ * <p>
+ * From API 23 a theme's hash code and equality come from the styles applied to it, so a theme
+ * changed with {@link Resources.Theme#applyStyle(int, boolean)} or
+ * {@link Resources.Theme#setTo(Resources.Theme)} is looked up as a different theme and parsed
+ * again. Before API 23 a theme is only compared by instance, so a theme changed after a prompt
+ * has been loaded from it needs the cache clearing with {@link #clear()}, which is public
+ * through {@link PromptOptions#clearThemeAttributesCache()}.
+ */
+final class PromptThemeAttributes
+{
+    /**
+     * The parsed attributes for each theme, keyed by the prompt theme resource id.
+     */
+    private static final Map<Resources.Theme, SparseArray<PromptThemeAttributes>> sCache = new WeakHashMap<>();
+
+    /**
+     * The configuration the attributes were parsed in.
+     */
+    @Nullable final Configuration mConfiguration;
+
+    @Nullable final Integer mPrimaryTextColour;
+    @Nullable final Integer mSecondaryTextColour;
+    @Nullable final String mPrimaryText;
+    @Nullable final String mSecondaryText;
+    @Nullable final Integer mBackgroundColour;
+    @Nullable final Integer mFocalColour;
+    @Nullable final Float mFocalRadius;
+    @Nullable final Float mPrimaryTextSize;
+    @Nullable final Float mSecondaryTextSize;
+    @Nullable final Float mMaxTextWidth;
+    @Nullable final Float mTextPadding;
+    @Nullable final Float mFocalPadding;
+    @Nullable final Float mTextSeparation;
+    @Nullable final Boolean mAutoDismiss;
+    @Nullable final Boolean mAutoFinish;
+    @Nullable final Boolean mCaptureTouchEventOutsidePrompt;
+    @Nullable final Boolean mCaptureTouchEventOnFocal;
+    @Nullable final Integer mPrimaryTextTypefaceStyle;
+    @Nullable final Integer mSecondaryTextTypefaceStyle;
+    @Nullable final String mPrimaryTextFontFamily;
+    @Nullable final String mSecondaryTextFontFamily;
+    final int mPrimaryTextTypefaceIndex;
+    final int mSecondaryTextTypefaceIndex;
+
+    /**
+     * The primary text typeface, null if the style isn't set in the theme so the typeface has to
+     * be resolved with the current style.
+     */
+    @Nullable final Typeface mPrimaryTextTypeface;
+
+    /**
+     * The secondary text typeface, null if the style isn't set in the theme so the typeface has
+     * to be resolved with the current style.
+     */
+    @Nullable final Typeface mSecondaryTextTypeface;
+
+    @Nullable final String mContentDescription;
+    @Nullable final Integer mIconDrawableColourFilter;
+    @Nullable final ColorStateList mIconDrawableTintList;
+    @Nullable final PorterDuff.Mode mIconDrawableTintMode;
+    final int mTargetId;
+
+    /**
+     * Parse the prompt attributes.
+     *
+     * @param a The styled attributes to parse, not recycled.
+     * @param configuration The configuration the attributes are obtained in.
+     */
+    PromptThemeAttributes(@NonNull final TypedArray a, @Nullable final Configuration configuration)
+    {
+        mConfiguration = configuration != null ? new Configuration(configuration) : null;
+        mPrimaryTextColour = getColor(a, R.styleable.PromptView_mttp_primaryTextColour);
+        mSecondaryTextColour = getColor(a, R.styleable.PromptView_mttp_secondaryTextColour);
+        mPrimaryText = a.getString(R.styleable.PromptView_mttp_primaryText);
+        mSecondaryText = a.getString(R.styleable.PromptView_mttp_secondaryText);
+        mBackgroundColour = getColor(a, R.styleable.PromptView_mttp_backgroundColour);
+        mFocalColour = getColor(a, R.styleable.PromptView_mttp_focalColour);
+        mFocalRadius = getDimension(a, R.styleable.PromptView_mttp_focalRadius);
+        mPrimaryTextSize = getDimension(a, R.styleable.PromptView_mttp_primaryTextSize);
+        mSecondaryTextSize = getDimension(a, R.styleable.PromptView_mttp_secondaryTextSize);
+        mMaxTextWidth = getDimension(a, R.styleable.PromptView_mttp_maxTextWidth);
+        mTextPadding = getDimension(a, R.styleable.PromptView_mttp_textPadding);
+        mFocalPadding = getDimension(a, R.styleable.PromptView_mttp_focalToTextPadding);
+        mTextSeparation = getDimension(a, R.styleable.PromptView_mttp_textSeparation);
+        mAutoDismiss = getBoolean(a, R.styleable.PromptView_mttp_autoDismiss);
+        mAutoFinish = getBoolean(a, R.styleable.PromptView_mttp_autoFinish);
+        mCaptureTouchEventOutsidePrompt = getBoolean(a, R.styleable.PromptView_mttp_captureTouchEventOutsidePrompt);
+        mCaptureTouchEventOnFocal = getBoolean(a, R.styleable.PromptView_mttp_captureTouchEventOnFocal);
+        mPrimaryTextTypefaceStyle = getInt(a, R.styleable.PromptView_mttp_primaryTextStyle);
+        mSecondaryTextTypefaceStyle = getInt(a, R.styleable.PromptView_mttp_secondaryTextStyle);
+        mPrimaryTextFontFamily = a.getString(R.styleable.PromptView_mttp_primaryTextFontFamily);
+        mSecondaryTextFontFamily = a.getString(R.styleable.PromptView_mttp_secondaryTextFontFamily);
+        mPrimaryTextTypefaceIndex = a.getInt(R.styleable.PromptView_mttp_primaryTextTypeface, 0);
+        mSecondaryTextTypefaceIndex = a.getInt(R.styleable.PromptView_mttp_secondaryTextTypeface, 0);
+        mPrimaryTextTypeface = mPrimaryTextTypefaceStyle != null
+                ? PromptUtils.setTypefaceFromAttrs(mPrimaryTextFontFamily, mPrimaryTextTypefaceIndex, mPrimaryTextTypefaceStyle)
+                : null;
+        mSecondaryTextTypeface = mSecondaryTextTypefaceStyle != null
+                ? PromptUtils.setTypefaceFromAttrs(mSecondaryTextFontFamily, mSecondaryTextTypefaceIndex, mSecondaryTextTypefaceStyle)
+                : null;
+        mContentDescription = a.getString(R.styleable.PromptView_mttp_contentDescription);
+        mIconDrawableColourFilter = getColor(a, R.styleable.PromptView_mttp_iconColourFilter);
+        mIconDrawableTintList = a.getColorStateList(R.styleable.PromptView_mttp_iconTint);
+        mIconDrawableTintMode = PromptUtils.parseTintMode(a.getInt(R.styleable.PromptView_mttp_iconTintMode, -1), null);
+        mTargetId = a.getResourceId(R.styleable.PromptView_mttp_target, 0);
+    }
+
+    /**
+     * Get the parsed prompt attributes for a theme, parsing them if they aren't cached or the
+     * configuration has changed since they were cached.
+     *
+     * @param resourceFinder The resource finder to obtain the theme and attributes from.
+     * @param themeResId The prompt theme resource id or 0 to use the theme's
+     *                   {@link R.attr#MaterialTapTargetPromptTheme}.
+     * @return The parsed attributes.
+     */
+    @NonNull
+    static PromptThemeAttributes obtain(@NonNull final ResourceFinder resourceFinder, @StyleRes final int themeResId)
+    {
+        final Resources.Theme theme = resourceFinder.getTheme();
+        final Configuration configuration = resourceFinder.getResources().getConfiguration();
+        if (theme == null || configuration == null)
+        {
+            return parse(resourceFinder, theme, themeResId, configuration);
+        }
+        synchronized (sCache)
+        {
+            // Keyed by the theme's applied styles from API 23
+            SparseArray<PromptThemeAttributes> themeAttributes = sCache.get(theme);
+            if (themeAttributes == null)
+            {
+                themeAttributes = new SparseArray<>();
+                sCache.put(theme, themeAttributes);
+            }
+            PromptThemeAttributes attributes = themeAttributes.get(themeResId);
+            if (attributes == null || attributes.mConfiguration == null
+                    || attributes.mConfiguration.diff(configuration) != 0)
+            {
+                attributes = parse(resourceFinder, theme, themeResId, configuration);
+                themeAttributes.put(themeResId, attributes);
+            }
+            return attributes;
+        }
+    }
+
+    /**
+     * Remove all of the cached attributes.
+     */
+    static void clear()
+    {
+        synchronized (sCache)
+        {
+            sCache.clear();
+        }
+    }
+
+    /**
+     * Obtain and parse the prompt attributes.
+     */
+    @NonNull
+    private static PromptThemeAttributes parse(@NonNull final ResourceFinder resourceFinder,
+                                               @Nullable final Resources.Theme theme,
+                                               @StyleRes int themeResId,
+                                               @Nullable final Configuration configuration)
+    {
+        //Attempt to load the theme from the activity theme
+        if (themeResId == 0 && theme != null)
+        {
+            final TypedValue outValue = new TypedValue();
+            theme.resolveAttribute(R.attr.MaterialTapTargetPromptTheme, outValue, true);
+            themeResId = outValue.resourceId;
+        }
+        final TypedArray a = resourceFinder.obtainStyledAttributes(themeResId, R.styleable.PromptView);
+        final PromptThemeAttributes attributes = new PromptThemeAttributes(a, configuration);
+        a.recycle();
+        return attributes;
+    }
+
+    @Nullable
+    private static Integer getColor(@NonNull final TypedArray a, final int index)
+    {
+        return a.hasValue(index) ? a.getColor(index, 0) : null;
+    }
+
+    @Nullable
+    private static Float getDimension(@NonNull final TypedArray a, final int index)
+    {
+        return a.hasValue(index) ? a.getDimension(index, 0) : null;
+    }
+
+    @Nullable
+    private static Boolean getBoolean(@NonNull final TypedArray a, final int index)
+    {
+        return a.hasValue(index) ? a.getBoolean(index, false) : null;
+    }
+
+    @Nullable
+    private static Integer getInt(@NonNull final TypedArray a, final int index)
+    {
+        return a.hasValue(index) ? a.getInt(index, 0) : null;
+    }
+
+    /**
+     * Get a parsed value or the fallback if it isn't set in the theme.
+     */
+    static int valueOr(@Nullable final Integer value, final int fallback)
+    {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Get a parsed value or the fallback if it isn't set in the theme.
+     */
+    static float valueOr(@Nullable final Float value, final float fallback)
+    {
+        return value != null ? value : fallback;
+    }
+
+    /**
+     * Get a parsed value or the fallback if it isn't set in the theme.
+     */
+    static boolean valueOr(@Nullable final Boolean value, final boolean fallback)
+    {
+        return value != null ? value : fallback;
+    }
+}
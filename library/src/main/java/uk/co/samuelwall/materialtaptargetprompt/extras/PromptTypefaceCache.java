@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Typeface;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Process wide cache of the typefaces created for prompts, so that preparing or loading a prompt
+ * doesn't look up the font family or create the styled typeface again.
+ * The number of typefaces an app uses is small so the cache isn't bounded.
+ */
+final class PromptTypefaceCache
+{
+    /**
+     * The created typefaces.
+     */
+    private static final Map<Key, Typeface> sTypefaces = new HashMap<>();
+
+    private PromptTypefaceCache() {}
+
+    /**
+     * Get a typeface from a font family name and style, creating it if it isn't cached.
+     *
+     * @param familyName The font family name.
+     * @param style The typeface style.
+     * @return The typeface or null if it couldn't be created.
+     * @see Typeface#create(String, int)
+     */
+    @Nullable
+    static Typeface create(@NonNull final String familyName, final int style)
+    {
+        final Key key = new Key(familyName, null, style);
+        synchronized (sTypefaces)
+        {
+            Typeface typeface = sTypefaces.get(key);
+            if (typeface == null)
+            {
+                typeface = Typeface.create(familyName, style);
+                if (typeface != null)
+                {
+                    sTypefaces.put(key, typeface);
+                }
+            }
+            return typeface;
+        }
+    }
+
+    /**
+     * Get a typeface from a base typeface and style, creating it if it isn't cached.
+     *
+     * @param base The base typeface or null for the default typeface.
+     * @param style The typeface style.
+     * @return The typeface or null if it couldn't be created.
+     * @see Typeface#create(Typeface, int)
+     */
+    @Nullable
+    static Typeface create(@Nullable final Typeface base, final int style)
+    {
+        final Key key = new Key(null, base, style);
+        synchronized (sTypefaces)
+        {
+            Typeface typeface = sTypefaces.get(key);
+            if (typeface == null)
+            {
+                typeface = Typeface.create(base, style);
+                if (typeface != null)
+                {
+                    sTypefaces.put(key, typeface);
+                }
+            }
+            return typeface;
+        }
+    }
+
+    /**
+     * Remove all of the cached typefaces.
+     */
+    static void clear()
+    {
+        synchronized (sTypefaces)
+        {
+            sTypefaces.clear();
+        }
+    }
+
+    /**
+     * Get the number of cached typefaces.
+     *
+     * @return The cache size.
+     */
+    static int size()
+    {
+        synchronized (sTypefaces)
+        {
+            return sTypefaces.size();
+        }
+    }
+
+    /**
+     * The values that a typeface is created from.
+     */
+    static final class Key
+    {
+        @Nullable final String mFamilyName;
+        @Nullable final Typeface mBase;
+        final int mStyle;
+
+        Key(@Nullable final String familyName, @Nullable final Typeface base, final int style)
+        {
+            mFamilyName = familyName;
+            mBase = base;
+            mStyle = style;
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Key))
+            {
+                return false;
+            }
+            final Key key = (Key) o;
+            return mStyle == key.mStyle
+                    && (mFamilyName == null ? key.mFamilyName == null : mFamilyName.equals(key.mFamilyName))
+                    && (mBase == null ? key.mBase == null : mBase.equals(key.mBase));
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = mFamilyName != null ? mFamilyName.hashCode() : 0;
+            result = 31 * result + (mBase != null ? mBase.hashCode() : 0);
+            return 31 * result + mStyle;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.graphics.Canvas;
+import android.graphics.RectF;
 import androidx.annotation.FloatRange;
 import androidx.annotation.NonNull;
 
@@ -51,4 +52,25 @@ interface PromptUIElement
      * @return True if the element contains the point, false otherwise.
      */
     boolean contains(float x, float y);
+
+    /**
+     * Move the element after the prompt target has moved by an offset and nothing else that the
+     * element depends on has changed, instead of preparing it again.
+     *
+     * @param options The options used to create the prompt.
+     * @param dx The horizontal distance that the target has moved.
+     * @param dy The vertical distance that the target has moved.
+     * @return True if the element has been moved, false if it needs to be prepared again.
+     */
+    boolean offset(@NonNull final PromptOptions options, float dx, float dy);
+
+    /**
+     * Get the area that the element is drawn in for its current state, used to only redraw the
+     * parts of the prompt that change between frames.
+     *
+     * @param bounds Set to the drawn area.
+     * @return True if the bounds have been set, false if the element can't report its drawn area
+     * so the whole prompt needs to be redrawn.
+     */
+    boolean getDrawnBounds(@NonNull RectF bounds);
 }
@@ -36,6 +36,9 @@ import android.view.View;
 
 import java.text.Bidi;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptHitTest;
+
 /**
  * Useful methods for prompts that don't fit else where.
  */
@@ -57,7 +60,7 @@ public class PromptUtils
                                           @NonNull final PointF circleCentre,
                                           final float radius)
     {
-        return Math.pow(x - circleCentre.x, 2) + Math.pow(y - circleCentre.y, 2) < Math.pow(radius, 2);
+        return PromptHitTest.isPointInCircle(x, y, circleCentre.x, circleCentre.y, radius);
     }
 
     /**
@@ -66,6 +69,10 @@ public class PromptUtils
      */
     public static void setTypeface(@NonNull TextPaint textPaint, @Nullable Typeface typeface, int style)
     {
+        // The paint is only changed where it differs, so preparing again with the same values
+        // doesn't reconfigure it
+        boolean fakeBold = false;
+        float textSkewX = 0;
         if (style > 0)
         {
             if (typeface == null)
@@ -74,23 +81,31 @@ public class PromptUtils
             }
             else
             {
-                typeface = Typeface.create(typeface, style);
+                typeface = PromptTypefaceCache.create(typeface, style);
             }
 
-            textPaint.setTypeface(typeface);
-
             int typefaceStyle = typeface != null ? typeface.getStyle() : 0;
             int need = style & ~typefaceStyle;
-            textPaint.setFakeBoldText((need & Typeface.BOLD) != 0);
-            textPaint.setTextSkewX((need & Typeface.ITALIC) != 0 ? -0.25f : 0);
+            fakeBold = (need & Typeface.BOLD) != 0;
+            textSkewX = (need & Typeface.ITALIC) != 0 ? -0.25f : 0;
         }
-        else if (typeface != null)
+        else if (typeface == null)
+        {
+            typeface = Typeface.defaultFromStyle(style);
+        }
+
+        if (textPaint.getTypeface() != typeface)
         {
             textPaint.setTypeface(typeface);
         }
-        else
+        // Reset when there isn't a style, as the paint may have been used with a style before
+        if (textPaint.isFakeBoldText() != fakeBold)
         {
-            textPaint.setTypeface(Typeface.defaultFromStyle(style));
+            textPaint.setFakeBoldText(fakeBold);
+        }
+        if (textPaint.getTextSkewX() != textSkewX)
+        {
+            textPaint.setTextSkewX(textSkewX);
         }
     }
 
@@ -104,7 +119,7 @@ public class PromptUtils
         Typeface tf = null;
         if (familyName != null)
         {
-            tf = Typeface.create(familyName, styleIndex);
+            tf = PromptTypefaceCache.create(familyName, styleIndex);
             if (tf != null)
             {
                 return tf;
@@ -129,7 +144,7 @@ public class PromptUtils
                 tf = Typeface.DEFAULT;
                 break;
         }
-        return Typeface.create(tf, styleIndex);
+        return PromptTypefaceCache.create(tf, styleIndex);
     }
 
     /**
@@ -232,12 +247,55 @@ public class PromptUtils
                                                       @NonNull final Layout.Alignment textAlignment,
                                                       final float alphaModifier)
     {
-        final SpannableStringBuilder wrappedText = new SpannableStringBuilder(text);
-        wrappedText.setSpan(new AlphaSpan(alphaModifier), 0, wrappedText.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        return createStaticTextLayout(text, paint, maxTextWidth, textAlignment,
+                new AlphaSpan(alphaModifier));
+    }
+
+    /**
+     * Creates a static text layout. Uses the {@link android.text.StaticLayout.Builder} if
+     * available.
+     * <p>
+     * The supplied {@link AlphaSpan} is kept by the layout so changing its value changes the
+     * drawn text alpha without the text having to be laid out again.
+     *
+     * @param text          The text to be laid out, optionally with spans
+     * @param paint         The base paint used for layout
+     * @param maxTextWidth  The width in pixels
+     * @param textAlignment Alignment for the resulting {@link StaticLayout}
+     * @param alphaSpan     The span used to modify the text alpha value.
+     * @return the newly constructed {@link StaticLayout} object
+     */
+    @NonNull
+    static StaticLayout createStaticTextLayout(@NonNull final CharSequence text,
+                                               @NonNull final TextPaint paint,
+                                               final int maxTextWidth,
+                                               @NonNull final Layout.Alignment textAlignment,
+                                               @NonNull final AlphaSpan alphaSpan)
+    {
+        return createStaticTextLayout(wrapText(text, alphaSpan), paint, maxTextWidth, textAlignment);
+    }
+
+    /**
+     * Creates a static text layout for text that has already been wrapped with
+     * {@link #wrapText(CharSequence, AlphaSpan)}. Uses the {@link android.text.StaticLayout.Builder}
+     * if available.
+     *
+     * @param wrappedText   The wrapped text to be laid out
+     * @param paint         The base paint used for layout
+     * @param maxTextWidth  The width in pixels
+     * @param textAlignment Alignment for the resulting {@link StaticLayout}
+     * @return the newly constructed {@link StaticLayout} object
+     */
+    @NonNull
+    static StaticLayout createStaticTextLayout(@NonNull final CharSequence wrappedText,
+                                               @NonNull final TextPaint paint,
+                                               final int maxTextWidth,
+                                               @NonNull final Layout.Alignment textAlignment)
+    {
         final StaticLayout layout;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M)
         {
-            final StaticLayout.Builder builder = StaticLayout.Builder.obtain(wrappedText, 0, text.length(), paint, maxTextWidth);
+            final StaticLayout.Builder builder = StaticLayout.Builder.obtain(wrappedText, 0, wrappedText.length(), paint, maxTextWidth);
             builder.setAlignment(textAlignment);
             layout = builder.build();
         }
@@ -248,6 +306,21 @@ public class PromptUtils
         return layout;
     }
 
+    /**
+     * Wraps text with the span used to modify the text alpha value.
+     *
+     * @param text      The text to wrap, optionally with spans
+     * @param alphaSpan The span used to modify the text alpha value.
+     * @return The wrapped text.
+     */
+    @NonNull
+    static CharSequence wrapText(@NonNull final CharSequence text, @NonNull final AlphaSpan alphaSpan)
+    {
+        final SpannableStringBuilder wrappedText = new SpannableStringBuilder(text);
+        wrappedText.setSpan(alphaSpan, 0, wrappedText.length(), Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        return wrappedText;
+    }
+
     /**
      * Scales a rectangle.
      *
@@ -272,8 +345,8 @@ public class PromptUtils
 
         if (even && scale > 1)
         {
-            final float minChange = Math.min(horizontalFromCentre * scale - horizontalFromCentre,
-                    verticalFromCentre * scale - verticalFromCentre);
+            final float minChange = PromptGeometry.scaleEvenChange(horizontalFromCentre,
+                    verticalFromCentre, scale);
             out.left = base.left - minChange;
             out.top = base.top - minChange;
             out.right = base.right + minChange;
@@ -281,10 +354,10 @@ public class PromptUtils
         }
         else
         {
-            out.left = origin.x - horizontalFromCentre * scale * ((origin.x - base.left) / horizontalFromCentre);
-            out.top = origin.y - verticalFromCentre * scale * ((origin.y - base.top) / verticalFromCentre);
-            out.right = origin.x + horizontalFromCentre * scale * ((base.right - origin.x) / horizontalFromCentre);
-            out.bottom = origin.y + verticalFromCentre * scale * ((base.bottom - origin.y) / verticalFromCentre);
+            out.left = PromptGeometry.scaleStart(origin.x, base.left, horizontalFromCentre, scale);
+            out.top = PromptGeometry.scaleStart(origin.y, base.top, verticalFromCentre, scale);
+            out.right = PromptGeometry.scaleEnd(origin.x, base.right, horizontalFromCentre, scale);
+            out.bottom = PromptGeometry.scaleEnd(origin.y, base.bottom, verticalFromCentre, scale);
         }
     }
 
@@ -328,7 +401,8 @@ public class PromptUtils
      */
     public static float calculateMaxWidth(final float maxTextWidth, @Nullable final Rect clipBounds, final int parentWidth, final float textPadding)
     {
-        return Math.max(80, Math.min(maxTextWidth, (clipBounds != null ? clipBounds.right - clipBounds.left : parentWidth) - (textPadding * 2)));
+        return PromptGeometry.calculateMaxWidth(maxTextWidth,
+                clipBounds != null ? clipBounds.right - clipBounds.left : parentWidth, textPadding);
     }
 
     /**
@@ -367,4 +441,22 @@ public class PromptUtils
                 && y > bounds.top + inset
                 && y < bounds.bottom - inset;
     }
+
+    /**
+     * Determines if a rectangle is another rectangle moved by an offset.
+     *
+     * @param from The original rectangle.
+     * @param to The moved rectangle.
+     * @param dx The horizontal offset.
+     * @param dy The vertical offset.
+     * @return True if to is from offset by dx and dy, allowing for float rounding.
+     */
+    public static boolean isOffset(@NonNull final RectF from, @NonNull final RectF to,
+                                   final float dx, final float dy)
+    {
+        return Math.abs(from.left + dx - to.left) < 0.01f
+                && Math.abs(from.top + dy - to.top) < 0.01f
+                && Math.abs(from.right + dx - to.right) < 0.01f
+                && Math.abs(from.bottom + dy - to.bottom) < 0.01f;
+    }
 }
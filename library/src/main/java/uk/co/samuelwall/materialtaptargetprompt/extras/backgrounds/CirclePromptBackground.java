@@ -25,11 +25,14 @@ import android.graphics.RectF;
 import androidx.annotation.ColorInt;
 import androidx.annotation.IntRange;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptBackground;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptHitTest;
 
 /**
  * {@link PromptBackground} implementation that renders the prompt background as a circle.
@@ -66,6 +69,22 @@ public class CirclePromptBackground extends PromptBackground
      */
     @IntRange(from=0, to=255)
     int mBaseColourAlpha;
+
+    /**
+     * The text bounds that the circle was last prepared around.
+     */
+    final RectF mPreparedTextBounds = new RectF();
+
+    /**
+     * The clip bounds that the circle was last prepared with.
+     */
+    @Nullable Rect mClipBounds;
+
+    /**
+     * The circle calculated from the three points around the prompt, reused between prepares.
+     */
+    @NonNull private final float[] mCircle = new float[3];
+
     /*PointF point1 = new PointF();
     PointF point2 = new PointF();
     PointF point3 = new PointF();
@@ -104,16 +123,10 @@ public class CirclePromptBackground extends PromptBackground
         final float focalPadding = options.getFocalPadding();
         final RectF textBounds = promptText.getBounds();
         final float textPadding = options.getTextPadding();
-        final RectF clipBoundsInset88dp = new RectF(clipBounds);
-        // Default material design offset prompt when more than 88dp inset
-        final float inset88dp = 88f * options.getResourceFinder().getResources().getDisplayMetrics().density;
-        clipBoundsInset88dp.inset(inset88dp, inset88dp);
+        mClipBounds = clipBounds;
+        mPreparedTextBounds.set(textBounds);
 
-        // Is the focal centre more than 88dp from the clip bounds edge
-        if ((focalCentreX > clipBoundsInset88dp.left
-                && focalCentreX < clipBoundsInset88dp.right)
-                || (focalCentreY > clipBoundsInset88dp.top
-                && focalCentreY < clipBoundsInset88dp.bottom))
+        if (isFocalInset(options, clipBounds, focalCentreX, focalCentreY))
         {
             // The circle position and radius is calculated based on three points placed around the
             // prompt: XY1, XY2 and XY3.
@@ -170,15 +183,9 @@ public class CirclePromptBackground extends PromptBackground
             }
 
             // Calculate the position and radius
-            final double offset = Math.pow(x2, 2) + Math.pow(y2, 2);
-            final double bc = (Math.pow(x1, 2) + Math.pow(y1, 2) - offset) / 2.0;
-            final double cd = (offset - Math.pow(x3, 2) - Math.pow(y3, 2)) / 2.0;
-            final double det = (x1 - x2) * (y2 - y3) - (x2 - x3) * (y1 - y2);
-            final double idet = 1 / det;
-            mBasePosition.set((float) ((bc * (y2 - y3) - cd * (y1 - y2)) * idet),
-                    (float) ((cd * (x1 - x2) - bc * (x2 - x3)) * idet));
-            mBaseRadius = (float) Math.sqrt(Math.pow(x2 - mBasePosition.x, 2)
-                    + Math.pow(y2 - mBasePosition.y, 2));
+            PromptGeometry.calculateCircumcircle(x1, y1, x2, y2, x3, y3, mCircle);
+            mBasePosition.set(mCircle[PromptGeometry.CIRCLE_X], mCircle[PromptGeometry.CIRCLE_Y]);
+            mBaseRadius = mCircle[PromptGeometry.CIRCLE_RADIUS];
             /*point1.set(x1, y1);
             point2.set(x2, y2);
             point3.set(x3, y3);*/
@@ -186,21 +193,55 @@ public class CirclePromptBackground extends PromptBackground
         else
         {
             mBasePosition.set(focalCentreX, focalCentreY);
-           // Calculate the furthest distance from the center based on the text size.
-            final float length = Math.max(
-                    Math.abs(textBounds.right - focalCentreX),
-                    Math.abs(textBounds.left - focalCentreX)
-                ) + textPadding;
-            // Calculate the height based on the distance from the focal centre to the furthest text y position.
-            float height = (focalBounds.height() / 2) + focalPadding + textBounds.height();
-            // Calculate the radius based on the calculated width and height
-            mBaseRadius = (float) Math.sqrt(Math.pow(length, 2) + Math.pow(height, 2));
+            mBaseRadius = PromptGeometry.calculateFocalCentredRadius(focalCentreX,
+                    focalBounds.height(), focalPadding, textBounds.left, textBounds.right,
+                    textBounds.height(), textPadding);
             /*point1.set(focalCentreX + (prompt.mHorizontalTextPositionLeft ? -length : length),
                             focalCentreY + (prompt.mVerticalTextPositionAbove ? - height : height));*/
         }
         mPosition.set(mBasePosition);
     }
 
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        final RectF textBounds = options.getPromptText().getBounds();
+        final RectF focalBounds = options.getPromptFocal().getBounds();
+        // The circle only moves with the focal if the text has moved with it and the focal
+        // hasn't crossed the inset used to choose how the circle is positioned
+        if (mClipBounds == null
+                || !PromptUtils.isOffset(mPreparedTextBounds, textBounds, dx, dy)
+                || isFocalInset(options, mClipBounds, focalBounds.centerX() - dx, focalBounds.centerY() - dy)
+                    != isFocalInset(options, mClipBounds, focalBounds.centerX(), focalBounds.centerY()))
+        {
+            return false;
+        }
+        mPreparedTextBounds.set(textBounds);
+        mBasePosition.offset(dx, dy);
+        mPosition.offset(dx, dy);
+        return true;
+    }
+
+    /**
+     * Is the focal centre more than 88dp from the clip bounds edge horizontally or vertically.
+     * Default material design offset prompt when more than 88dp inset.
+     *
+     * @param options The options used to create the prompt.
+     * @param clipBounds The bounds the prompt is clipped to.
+     * @param focalCentreX The focal centre x position.
+     * @param focalCentreY The focal centre y position.
+     * @return True if the focal centre is inset.
+     */
+    private boolean isFocalInset(@NonNull final PromptOptions options, @NonNull final Rect clipBounds,
+                                 final float focalCentreX, final float focalCentreY)
+    {
+        final float inset88dp = 88f * options.getResourceFinder().getResources().getDisplayMetrics().density;
+        return (focalCentreX > clipBounds.left + inset88dp
+                && focalCentreX < clipBounds.right - inset88dp)
+                || (focalCentreY > clipBounds.top + inset88dp
+                && focalCentreY < clipBounds.bottom - inset88dp);
+    }
+
     @Override
     public void update(@NonNull final PromptOptions options, float revealModifier, float alphaModifier)
     {
@@ -214,6 +255,14 @@ public class CirclePromptBackground extends PromptBackground
                 focalCentreY + ((mBasePosition.y - focalCentreY) * revealModifier));
     }
 
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        bounds.set(mPosition.x - mRadius, mPosition.y - mRadius,
+                mPosition.x + mRadius, mPosition.y + mRadius);
+        return true;
+    }
+
     @Override
     public void draw(@NonNull Canvas canvas)
     {
@@ -233,6 +282,6 @@ public class CirclePromptBackground extends PromptBackground
     @Override
     public boolean contains(float x, float y)
     {
-        return PromptUtils.isPointInCircle(x, y, mPosition, mRadius);
+        return PromptHitTest.isPointInCircle(x, y, mPosition.x, mPosition.y, mRadius);
     }
 }
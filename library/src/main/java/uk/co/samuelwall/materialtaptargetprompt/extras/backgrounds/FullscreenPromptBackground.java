@@ -89,6 +89,14 @@ public class FullscreenPromptBackground extends PromptBackground
         mFocalCentre.y = focalBounds.centerY();
     }
 
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        // The bounds are the clip bounds so only the reveal centre moves
+        mFocalCentre.offset(dx, dy);
+        return true;
+    }
+
     @NonNull
     protected DisplayMetrics getDisplayMetrics() {
         return Resources.getSystem().getDisplayMetrics();
@@ -102,6 +110,13 @@ public class FullscreenPromptBackground extends PromptBackground
         PromptUtils.scale(mFocalCentre, mBaseBounds, mBounds, revealModifier, false);
     }
 
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        bounds.set(mBounds);
+        return true;
+    }
+
     @Override
     public void draw(@NonNull Canvas canvas)
     {
@@ -41,6 +41,11 @@ public class RectanglePromptBackground extends PromptBackground
     float mRx, mRy;
     PointF mFocalCentre;
 
+    /**
+     * The text bounds that the rectangle was last prepared around.
+     */
+    final RectF mPreparedTextBounds = new RectF();
+
     /**
      * Constructor.
      */
@@ -102,6 +107,22 @@ public class RectanglePromptBackground extends PromptBackground
         mBaseBounds.set(x1, y1, x2, y2);
         mFocalCentre.x = focalBounds.centerX();
         mFocalCentre.y = focalBounds.centerY();
+        mPreparedTextBounds.set(textBounds);
+    }
+
+    @Override
+    public boolean offset(@NonNull final PromptOptions options, final float dx, final float dy)
+    {
+        // The rectangle surrounds the focal and text so only moves if the text has moved with the focal
+        final RectF textBounds = options.getPromptText().getBounds();
+        if (!PromptUtils.isOffset(mPreparedTextBounds, textBounds, dx, dy))
+        {
+            return false;
+        }
+        mPreparedTextBounds.set(textBounds);
+        mBaseBounds.offset(dx, dy);
+        mFocalCentre.offset(dx, dy);
+        return true;
     }
 
     @Override
@@ -112,6 +133,13 @@ public class RectanglePromptBackground extends PromptBackground
         PromptUtils.scale(mFocalCentre, mBaseBounds, mBounds, revealModifier, false);
     }
 
+    @Override
+    public boolean getDrawnBounds(@NonNull final RectF bounds)
+    {
+        bounds.set(mBounds);
+        return true;
+    }
+
     @Override
     public void draw(@NonNull Canvas canvas)
     {
@@ -22,13 +22,19 @@ import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
 import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
 import androidx.annotation.ColorInt;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import android.view.View;
+import android.view.animation.AccelerateDecelerateInterpolator;
 
+import uk.co.samuelwall.materialtaptargetprompt.R;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
-import uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptGeometry;
+import uk.co.samuelwall.materialtaptargetprompt.extras.geometry.PromptHitTest;
 
 /**
  * Prompt focal implementation to draw the focal as a circle.
@@ -45,6 +51,11 @@ public class CirclePromptFocal extends PromptFocal
     RectF mBounds;
     Path mPath;
 
+    /**
+     * The RenderThread idle animation drawable, loaded when first requested.
+     */
+    @Nullable Drawable mIdleAnimationDrawable;
+
     /**
      * Constructor.
      */
@@ -90,35 +101,10 @@ public class CirclePromptFocal extends PromptFocal
     {
         // Calculate the x and y on the focal from the angle calculated
         final float focalRadius = mBounds.width() + padding;
-        final float x = calculateX(angle, focalRadius, mBounds.centerX());
-        final float y = calculateY(angle, focalRadius, mBounds.centerY());
-        return new PointF(x, y);
-    }
-    
-    /**
-     * Calculates the x position on a circle for an angle and centre point x.
-     *
-     * @param angle The angle on the circle to get the x position for.
-     * @param radius The circle radius.
-     * @param centreX The centre x position for the circle.
-     * @return The calculated x position for the angle.
-     */
-    private float calculateX(final float angle, final float radius, final float centreX)
-    {
-        return centreX + radius * (float) Math.cos(Math.toRadians(angle));
-    }
-
-    /**
-     * Calculates the y position on a circle for an angle and centre point y.
-     *
-     * @param angle The angle on the circle to get the y position for.
-     * @param radius The circle radius.
-     * @param centreY The centre y position for the circle.
-     * @return The calculated y position for the angle.
-     */
-    private float calculateY(final float angle, final float radius, final float centreY)
-    {
-        return centreY + radius * (float) Math.sin(Math.toRadians(angle));
+        final float x = PromptGeometry.circleEdgeX(angle, focalRadius, mBounds.centerX());
+        final float y = PromptGeometry.circleEdgeY(angle, focalRadius, mBounds.centerY());
+        mAngleEdgePoint.set(x, y);
+        return mAngleEdgePoint;
     }
 
     @Override
@@ -129,6 +115,35 @@ public class CirclePromptFocal extends PromptFocal
         mPaint.setAlpha(mBaseAlpha);
     }
 
+    @Nullable
+    @Override
+    public Drawable getIdleAnimationDrawable(@NonNull final PromptOptions options)
+    {
+        // AnimatedVectorDrawable is only animated on the RenderThread from API 25 and the drawable
+        // only reproduces an opaque focal with the default ripple alpha and interpolator
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.N_MR1
+                || !mDrawRipple || mBaseRippleAlpha != 150 || mBaseAlpha != 255
+                || !(options.getAnimationInterpolator() instanceof AccelerateDecelerateInterpolator))
+        {
+            return null;
+        }
+        if (mIdleAnimationDrawable == null)
+        {
+            final Drawable drawable = options.getResourceFinder().getDrawable(R.drawable.mttp_circle_focal_idle);
+            if (drawable == null)
+            {
+                return null;
+            }
+            mIdleAnimationDrawable = drawable.mutate();
+        }
+        mIdleAnimationDrawable.setTint(mPaint.getColor() | 0xFF000000);
+        // The drawable viewport is the largest ripple size
+        final float size = mBaseRadius * 1.6f;
+        mIdleAnimationDrawable.setBounds(Math.round(mPosition.x - size), Math.round(mPosition.y - size),
+                Math.round(mPosition.x + size), Math.round(mPosition.y + size));
+        return mIdleAnimationDrawable;
+    }
+
     @Override
     public void prepare(@NonNull PromptOptions options, @NonNull View target, final int[] promptViewPosition)
     {
@@ -150,6 +165,23 @@ public class CirclePromptFocal extends PromptFocal
         mBounds.bottom = targetY + mBaseRadius;
     }
 
+    @Override
+    public boolean offset(@NonNull PromptOptions options, float dx, float dy)
+    {
+        mPosition.offset(dx, dy);
+        mBounds.offset(dx, dy);
+        return true;
+    }
+
+    @Override
+    public boolean getDrawnBounds(@NonNull RectF bounds)
+    {
+        final float radius = mDrawRipple ? Math.max(mRadius, mRippleRadius) : mRadius;
+        bounds.set(mPosition.x - radius, mPosition.y - radius,
+                mPosition.x + radius, mPosition.y + radius);
+        return true;
+    }
+
     @Override
     public void update(@NonNull PromptOptions options, float revealModifier,
                        float alphaModifier)
@@ -157,7 +189,8 @@ public class CirclePromptFocal extends PromptFocal
         mPaint.setAlpha((int) (mBaseAlpha * alphaModifier));
         mRadius = mBaseRadius * revealModifier;
 
-        mPath = new Path();
+        // Reuse the path, this is called for every reveal and idle animation frame
+        mPath.reset();
         mPath.addCircle(mPosition.x, mPosition.y, mRadius, Path.Direction.CW);
     }
 
@@ -194,6 +227,6 @@ public class CirclePromptFocal extends PromptFocal
     @Override
     public boolean contains(float x, float y)
     {
-        return PromptUtils.isPointInCircle(x, y, mPosition, mRadius);
+        return PromptHitTest.isPointInCircle(x, y, mPosition.x, mPosition.y, mRadius);
     }
 }
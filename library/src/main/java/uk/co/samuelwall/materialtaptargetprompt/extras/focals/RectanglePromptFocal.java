@@ -65,6 +65,7 @@ public class RectanglePromptFocal extends PromptFocal
         mBaseBounds = new RectF();
         mBaseBoundsCentre = new PointF();
         mRippleBounds = new RectF();
+        mPath = new Path();
         final float density = Resources.getSystem().getDisplayMetrics().density;
         mRx = mRy = 2 * density;
         mPadding = 8 * density;
@@ -186,13 +187,33 @@ public class RectanglePromptFocal extends PromptFocal
         }
     }
 
+    @Override
+    public boolean offset(@NonNull PromptOptions options, float dx, float dy)
+    {
+        mBaseBounds.offset(dx, dy);
+        mBaseBoundsCentre.offset(dx, dy);
+        return true;
+    }
+
+    @Override
+    public boolean getDrawnBounds(@NonNull RectF bounds)
+    {
+        bounds.set(mBounds);
+        if (mDrawRipple)
+        {
+            bounds.union(mRippleBounds);
+        }
+        return true;
+    }
+
     @Override
     public void update(@NonNull PromptOptions options, float revealModifier,
                        float alphaModifier)
     {
         PromptUtils.scale(mBaseBoundsCentre, mBaseBounds, mBounds, revealModifier, true);
 
-        mPath = new Path();
+        // Reuse the path, this is called for every reveal and idle animation frame
+        mPath.reset();
         mPath.addRoundRect(mBounds, mRx, mRy, Path.Direction.CW);
     }
 
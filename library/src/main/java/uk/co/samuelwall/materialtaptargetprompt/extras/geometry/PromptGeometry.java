@@ -0,0 +1,229 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Size;
+
+/**
+ * The maths used to size and position the prompt elements.
+ * <p>
+ * Only uses plain Java so it can be benchmarked without Android, the Android types are converted
+ * by the callers such as {@link uk.co.samuelwall.materialtaptargetprompt.extras.PromptUtils}.
+ */
+public final class PromptGeometry
+{
+    /**
+     * The index of the circle centre x position in the array filled by
+     * {@link #calculateCircumcircle(float, float, float, float, float, float, float[])}.
+     */
+    public static final int CIRCLE_X = 0;
+
+    /**
+     * The index of the circle centre y position in the array filled by
+     * {@link #calculateCircumcircle(float, float, float, float, float, float, float[])}.
+     */
+    public static final int CIRCLE_Y = 1;
+
+    /**
+     * The index of the circle radius in the array filled by
+     * {@link #calculateCircumcircle(float, float, float, float, float, float, float[])}.
+     */
+    public static final int CIRCLE_RADIUS = 2;
+
+    private PromptGeometry() {}
+
+    /**
+     * Calculates the new position of the start edge of a range scaled from an origin.
+     *
+     * @param origin The position to scale from.
+     * @param start The range start position, e.g. the left or top.
+     * @param fromCentre The distance from the range centre to the start.
+     * @param scale The amount to scale by.
+     * @return The scaled start position.
+     */
+    public static float scaleStart(final float origin, final float start, final float fromCentre,
+                                   final float scale)
+    {
+        return origin - fromCentre * scale * ((origin - start) / fromCentre);
+    }
+
+    /**
+     * Calculates the new position of the end edge of a range scaled from an origin.
+     *
+     * @param origin The position to scale from.
+     * @param end The range end position, e.g. the right or bottom.
+     * @param fromCentre The distance from the range centre to the start.
+     * @param scale The amount to scale by.
+     * @return The scaled end position.
+     */
+    public static float scaleEnd(final float origin, final float end, final float fromCentre,
+                                 final float scale)
+    {
+        return origin + fromCentre * scale * ((end - origin) / fromCentre);
+    }
+
+    /**
+     * Calculates the amount to grow each edge of a rectangle by so that it grows by the same
+     * amount on every side.
+     *
+     * @param horizontalFromCentre The distance from the rectangle centre to the left.
+     * @param verticalFromCentre The distance from the rectangle centre to the top.
+     * @param scale The amount to scale by, greater than 1.
+     * @return The amount to move each edge by.
+     */
+    public static float scaleEvenChange(final float horizontalFromCentre,
+                                        final float verticalFromCentre, final float scale)
+    {
+        return Math.min(horizontalFromCentre * scale - horizontalFromCentre,
+                verticalFromCentre * scale - verticalFromCentre);
+    }
+
+    /**
+     * Calculates the maximum width that the text can be.
+     *
+     * @param maxTextWidth The maximum width set in the prompt options.
+     * @param availableWidth The width of the clip bounds or the parent view.
+     * @param textPadding The padding around the text.
+     * @return The maximum text width.
+     */
+    public static float calculateMaxWidth(final float maxTextWidth, final int availableWidth,
+                                          final float textPadding)
+    {
+        return Math.max(80, Math.min(maxTextWidth, availableWidth - (textPadding * 2)));
+    }
+
+    /**
+     * Calculates the x position on a circle for an angle.
+     *
+     * @param angle The angle in degrees with 0 on the right.
+     * @param radius The circle radius.
+     * @param centreX The circle centre x position.
+     * @return The x position for the angle.
+     */
+    public static float circleEdgeX(final float angle, final float radius, final float centreX)
+    {
+        return centreX + radius * (float) Math.cos(Math.toRadians(angle));
+    }
+
+    /**
+     * Calculates the y position on a circle for an angle.
+     *
+     * @param angle The angle in degrees with 0 on the right.
+     * @param radius The circle radius.
+     * @param centreY The circle centre y position.
+     * @return The y position for the angle.
+     */
+    public static float circleEdgeY(final float angle, final float radius, final float centreY)
+    {
+        return centreY + radius * (float) Math.sin(Math.toRadians(angle));
+    }
+
+    /**
+     * Calculates the x position on the edge of a rectangle for an angle, using the corner on the
+     * side of the angle.
+     *
+     * @param angle The angle in degrees with 0 on the right.
+     * @param width The rectangle width.
+     * @param padding The padding added to the rectangle size.
+     * @param centreX The rectangle centre x position.
+     * @return The x position for the angle.
+     */
+    public static float rectangleEdgeX(final float angle, final float width, final float padding,
+                                       final float centreX)
+    {
+        final float cos = (float) Math.cos((float) Math.toRadians(angle));
+        return centreX + (width + padding) / (cos > 0 ? 2 : -2);
+    }
+
+    /**
+     * Calculates the y position on the edge of a rectangle for an angle, using the corner on the
+     * side of the angle.
+     *
+     * @param angle The angle in degrees with 0 on the right.
+     * @param height The rectangle height.
+     * @param padding The padding added to the rectangle size.
+     * @param centreY The rectangle centre y position.
+     * @return The y position for the angle.
+     */
+    public static float rectangleEdgeY(final float angle, final float height, final float padding,
+                                       final float centreY)
+    {
+        final float sin = (float) Math.sin((float) Math.toRadians(angle));
+        return centreY + (height + padding) / (sin > 0 ? 2 : -2);
+    }
+
+    /**
+     * Calculates the circle that passes through three points.
+     *
+     * @param x1 The first point x position.
+     * @param y1 The first point y position.
+     * @param x2 The second point x position.
+     * @param y2 The second point y position.
+     * @param x3 The third point x position.
+     * @param y3 The third point y position.
+     * @param out The array to set the circle in, indexed by {@link #CIRCLE_X},
+     *            {@link #CIRCLE_Y} and {@link #CIRCLE_RADIUS}.
+     */
+    public static void calculateCircumcircle(final float x1, final float y1,
+                                             final float x2, final float y2,
+                                             final float x3, final float y3,
+                                             @NonNull @Size(3) final float[] out)
+    {
+        final double offset = (double) x2 * x2 + (double) y2 * y2;
+        final double bc = ((double) x1 * x1 + (double) y1 * y1 - offset) / 2.0;
+        final double cd = (offset - (double) x3 * x3 - (double) y3 * y3) / 2.0;
+        final double det = (x1 - x2) * (y2 - y3) - (x2 - x3) * (y1 - y2);
+        final double idet = 1 / det;
+        final float centreX = (float) ((bc * (y2 - y3) - cd * (y1 - y2)) * idet);
+        final float centreY = (float) ((cd * (x1 - x2) - bc * (x2 - x3)) * idet);
+        final double dx = x2 - centreX;
+        final double dy = y2 - centreY;
+        out[CIRCLE_X] = centreX;
+        out[CIRCLE_Y] = centreY;
+        out[CIRCLE_RADIUS] = (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    /**
+     * Calculates the radius of a circle centred on the focal that contains the text, used when the
+     * focal is close to the clip bounds edge.
+     *
+     * @param focalCentreX The focal centre x position.
+     * @param focalHeight The focal height.
+     * @param focalPadding The padding between the focal and the text.
+     * @param textLeft The text left position.
+     * @param textRight The text right position.
+     * @param textHeight The text height.
+     * @param textPadding The padding around the text.
+     * @return The circle radius.
+     */
+    public static float calculateFocalCentredRadius(final float focalCentreX, final float focalHeight,
+                                                    final float focalPadding,
+                                                    final float textLeft, final float textRight,
+                                                    final float textHeight, final float textPadding)
+    {
+        // Calculate the furthest distance from the center based on the text size.
+        final float length = Math.max(
+                Math.abs(textRight - focalCentreX),
+                Math.abs(textLeft - focalCentreX)
+            ) + textPadding;
+        // Calculate the height based on the distance from the focal centre to the furthest text y position.
+        final float height = (focalHeight / 2) + focalPadding + textHeight;
+        // Calculate the radius based on the calculated width and height
+        return (float) Math.sqrt((double) length * length + (double) height * height);
+    }
+}
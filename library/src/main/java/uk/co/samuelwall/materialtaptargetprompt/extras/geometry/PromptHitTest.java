@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+/**
+ * Hit tests for the prompt shapes, called for every touch and hover event so they reject points
+ * outside of the shape bounds before doing any other maths.
+ * <p>
+ * Only uses plain Java so it can be benchmarked without Android.
+ */
+public final class PromptHitTest
+{
+    private PromptHitTest() {}
+
+    /**
+     * Determines if a point is inside a circle.
+     *
+     * @param x       The point x position.
+     * @param y       The point y position.
+     * @param centreX The circle centre x position.
+     * @param centreY The circle centre y position.
+     * @param radius  The circle radius.
+     * @return True if the point (x, y) is in the circle.
+     */
+    public static boolean isPointInCircle(final float x, final float y,
+                                          final float centreX, final float centreY,
+                                          final float radius)
+    {
+        final float dx = x - centreX;
+        final float dy = y - centreY;
+        // Outside of the circle bounds
+        if (dx >= radius || dx <= -radius || dy >= radius || dy <= -radius)
+        {
+            return false;
+        }
+        return dx * dx + dy * dy < radius * radius;
+    }
+
+    /**
+     * Determines if a point is inside a rectangle, using the same edge rules as
+     * {@link android.graphics.RectF#contains(float, float)}.
+     *
+     * @param x      The point x position.
+     * @param y      The point y position.
+     * @param left   The rectangle left edge.
+     * @param top    The rectangle top edge.
+     * @param right  The rectangle right edge.
+     * @param bottom The rectangle bottom edge.
+     * @return True if the point (x, y) is in the rectangle.
+     */
+    public static boolean isPointInBounds(final float x, final float y,
+                                          final float left, final float top,
+                                          final float right, final float bottom)
+    {
+        return left < right && top < bottom
+                && x >= left && x < right && y >= top && y < bottom;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+/**
+ * Calculates where the prompt text is placed around the focal.
+ * <p>
+ * Only uses plain Java so it can be benchmarked without Android, the text layouts are measured
+ * by {@link uk.co.samuelwall.materialtaptargetprompt.extras.PromptText}.
+ */
+public final class PromptTextPlacement
+{
+    private PromptTextPlacement() {}
+
+    /**
+     * Calculates the text left position.
+     *
+     * @param focalInset Is the focal centre inset from the clip bounds edges, the text is placed
+     *                   next to the focal if it is and against the bounds edge if it isn't.
+     * @param textPositionLeft Is the text placed to the left of the focal.
+     * @param focalCentreX The focal centre x position.
+     * @param clipLeft The clip bounds left.
+     * @param clipRight The clip bounds right.
+     * @param areaLeft The left of the area the text is placed in when the focal isn't inset.
+     * @param areaRight The right of the area the text is placed in when the focal isn't inset.
+     * @param textWidth The widest text line width.
+     * @param maxWidth The maximum text width.
+     * @param focalPadding The padding between the focal and the text.
+     * @param textPadding The padding around the text.
+     * @return The text left position.
+     */
+    public static float calculateTextLeft(final boolean focalInset, final boolean textPositionLeft,
+                                          final float focalCentreX,
+                                          final float clipLeft, final float clipRight,
+                                          final float areaLeft, final float areaRight,
+                                          final float textWidth, final float maxWidth,
+                                          final float focalPadding, final float textPadding)
+    {
+        float textLeft;
+        if (focalInset)
+        {
+            final float width = Math.min(textWidth, maxWidth);
+            if (textPositionLeft)
+            {
+                textLeft = focalCentreX - width + focalPadding;
+            }
+            else
+            {
+                textLeft = focalCentreX - width - focalPadding;
+            }
+            if (textLeft < clipLeft + textPadding)
+            {
+                textLeft = clipLeft + textPadding;
+            }
+            if (textLeft + width > clipRight - textPadding)
+            {
+                textLeft = clipRight - textPadding - width;
+            }
+        }
+        else if (textPositionLeft)
+        {
+            textLeft = areaRight - textPadding - textWidth;
+        }
+        else
+        {
+            textLeft = areaLeft + textPadding;
+        }
+        return textLeft;
+    }
+
+    /**
+     * Calculates the primary text top position.
+     *
+     * @param textPositionAbove Is the text placed above the focal.
+     * @param focalTop The focal top.
+     * @param focalBottom The focal bottom.
+     * @param focalPadding The padding between the focal and the text.
+     * @param hasPrimaryText Is there primary text.
+     * @param primaryTextHeight The primary text height.
+     * @param hasSecondaryText Is there secondary text.
+     * @param secondaryTextHeight The secondary text height.
+     * @param textSeparation The space between the primary and secondary text.
+     * @return The primary text top position.
+     */
+    public static float calculateTextTop(final boolean textPositionAbove,
+                                         final float focalTop, final float focalBottom,
+                                         final float focalPadding,
+                                         final boolean hasPrimaryText, final float primaryTextHeight,
+                                         final boolean hasSecondaryText, final float secondaryTextHeight,
+                                         final float textSeparation)
+    {
+        if (!textPositionAbove)
+        {
+            return focalBottom + focalPadding;
+        }
+        float textTop = focalTop - focalPadding;
+        if (hasPrimaryText)
+        {
+            textTop -= primaryTextHeight;
+        }
+        if (hasSecondaryText)
+        {
+            textTop -= secondaryTextHeight;
+            if (hasPrimaryText)
+            {
+                textTop -= textSeparation;
+            }
+        }
+        return textTop;
+    }
+}
@@ -21,14 +21,22 @@ import android.animation.ValueAnimator;
 import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.graphics.Canvas;
+import android.graphics.Path;
+import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.drawable.Animatable;
+import android.graphics.drawable.AnimatedVectorDrawable;
+import android.graphics.drawable.AnimationDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.IBinder;
 import android.os.Looper;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.ViewParent;
+import android.view.Window;
 import android.widget.Button;
 import android.widget.FrameLayout;
 
@@ -42,22 +50,34 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.robolectric.util.ReflectionHelpers;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import androidx.annotation.NonNull;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptFocal;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptMetrics;
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.CirclePromptFocal;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyFloat;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.robolectric.Shadows.shadowOf;
 
@@ -928,6 +948,352 @@ public class MaterialTapTargetPromptUnitTest extends BaseTestStateProgress
         al.onAnimationCancel(animator);
     }
 
+    @Test
+    public void testAnimationFramesReuseFocalPath()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        final PromptFocal promptFocal = prompt.mView.mPromptOptions.getPromptFocal();
+        final Path path = promptFocal.getPath();
+        for (int i = 0; i <= 100; i++)
+        {
+            prompt.updateAnimation(i / 100f, i / 100f);
+            assertSame(path, promptFocal.getPath());
+        }
+        prompt.startIdleAnimations();
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertNotNull(prompt.mAnimationFocalRipple);
+        // Step the idle animation through several breathing cycles
+        for (long time = 0; time < 5000; time += 16)
+        {
+            prompt.mAnimationFocalBreathing.setCurrentPlayTime(time);
+            prompt.mAnimationFocalRipple.setCurrentPlayTime(time % 500);
+            assertSame(path, promptFocal.getPath());
+        }
+    }
+
+    @Test
+    public void testPromptMetrics()
+    {
+        final MaterialTapTargetPrompt unrecorded = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .show();
+        assertNotNull(unrecorded);
+        assertNull(unrecorded.mMetricsRecorder);
+
+        final List<PromptMetrics> reported = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptMetricsListener((p, metrics) -> reported.add(metrics))
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        assertNotNull(prompt.mMetricsRecorder);
+        prompt.mView.onDraw(mock(Canvas.class));
+        shadowOf(Looper.getMainLooper()).idleFor(100, TimeUnit.MILLISECONDS);
+        assertTrue(reported.isEmpty());
+        prompt.dismiss();
+        UnitTestUtils.endCurrentAnimation(prompt);
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(1, reported.size());
+        final PromptMetrics metrics = reported.get(0);
+        assertTrue(metrics.getPrepareTimes().getCount() > 0);
+        assertTrue(metrics.getTimeToFirstFrameNanos() >= 0);
+        assertNull(prompt.mMetricsRecorder.mMetrics);
+        assertEquals(PromptMetrics.PHASE_NONE, prompt.mMetricsRecorder.mPhase);
+    }
+
+    @Test
+    public void testIdleAnimationDrawable()
+    {
+        final Drawable idleDrawable = mock(AnimationDrawable.class);
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptFocal(new CirclePromptFocal()
+                {
+                    @Override
+                    public Drawable getIdleAnimationDrawable(@NonNull PromptOptions options)
+                    {
+                        return idleDrawable;
+                    }
+                })
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        prompt.startIdleAnimations();
+        assertNull(prompt.mAnimationFocalBreathing);
+        assertNull(prompt.mAnimationFocalRipple);
+        assertSame(idleDrawable, prompt.mView.mFocalIdleDrawable);
+        verify((Animatable) idleDrawable).start();
+        final Canvas canvas = mock(Canvas.class);
+        prompt.mView.onDraw(canvas);
+        verify(idleDrawable).draw(canvas);
+        prompt.cleanUpAnimation();
+        verify((Animatable) idleDrawable).stop();
+        assertNull(prompt.mView.mFocalIdleDrawable);
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.N_MR1)
+    public void testIdleAnimationDrawable_CircleFocal()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        prompt.startIdleAnimations();
+        assertNull(prompt.mAnimationFocalBreathing);
+        final Drawable idleDrawable = prompt.mView.mFocalIdleDrawable;
+        assertTrue(idleDrawable instanceof AnimatedVectorDrawable);
+        final Animatable animatable = (Animatable) idleDrawable;
+        assertTrue(animatable.isRunning());
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_WINDOW_FOCUS, true);
+        assertFalse(animatable.isRunning());
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_STOPPED, true);
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_WINDOW_FOCUS, false);
+        // Still stopped
+        assertFalse(animatable.isRunning());
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_STOPPED, false);
+        assertTrue(animatable.isRunning());
+        prompt.cleanUpAnimation();
+        assertFalse(animatable.isRunning());
+        assertNull(prompt.mView.mFocalIdleDrawable);
+    }
+
+    @Test
+    public void testIdleAnimationPausedAndResumed()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        prompt.startIdleAnimations();
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        prompt.mAnimationFocalBreathing.setCurrentPlayTime(400);
+        prompt.mView.onWindowFocusChanged(false);
+        assertTrue(prompt.mAnimationFocalBreathing.isPaused());
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_STOPPED, true);
+        prompt.mView.onWindowFocusChanged(true);
+        // Still stopped
+        assertTrue(prompt.mAnimationFocalBreathing.isPaused());
+        prompt.setIdleAnimationPaused(MaterialTapTargetPrompt.IDLE_PAUSED_STOPPED, false);
+        assertFalse(prompt.mAnimationFocalBreathing.isPaused());
+        assertEquals(0, prompt.mIdleAnimationPauseReasons);
+    }
+
+    @Test
+    public void testIdleAnimationStartsPaused()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        prompt.mView.onWindowVisibilityChanged(View.GONE);
+        prompt.startIdleAnimations();
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertTrue(prompt.mAnimationFocalBreathing.isPaused());
+        prompt.mView.onWindowVisibilityChanged(View.VISIBLE);
+        assertFalse(prompt.mAnimationFocalBreathing.isPaused());
+    }
+
+    @Test
+    public void testGlobalLayoutOnlyPreparesChanges()
+    {
+        final PromptFocal promptFocal = spy(new CirclePromptFocal());
+        final PromptText promptText = spy(new PromptText());
+        final MaterialTapTargetPrompt.Builder builder = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setPromptFocal(promptFocal)
+                .setPromptText(promptText);
+        final MaterialTapTargetPrompt prompt = builder.create();
+        assertNotNull(prompt);
+        prompt.show();
+        assertNotNull(prompt.mGlobalLayoutListener);
+
+        // Nothing the prompt depends on has changed since the last layout
+        prompt.mGlobalLayoutListener.onGlobalLayout();
+        clearInvocations(promptFocal, promptText);
+        prompt.mGlobalLayoutListener.onGlobalLayout();
+        verify(promptFocal, never()).prepare(any(PromptOptions.class), anyFloat(), anyFloat());
+        verify(promptText, never()).prepare(any(PromptOptions.class), anyBoolean(), any(Rect.class));
+
+        // The parent size changing only affects the text and background
+        final View parent = builder.getResourceFinder().getPromptParentView();
+        parent.setBottom(SCREEN_HEIGHT / 2);
+        prompt.mGlobalLayoutListener.onGlobalLayout();
+        verify(promptFocal, never()).prepare(any(PromptOptions.class), anyFloat(), anyFloat());
+        verify(promptText).prepare(any(PromptOptions.class), anyBoolean(), any(Rect.class));
+        assertEquals(0, prompt.updateLayoutSnapshot());
+    }
+
+    @Test
+    public void testDirtyRegion()
+    {
+        final PromptDirtyRegion dirtyRegion = new PromptDirtyRegion();
+        final View view = mock(View.class);
+        dirtyRegion.mElementBounds.set(10, 10, 20, 20);
+        dirtyRegion.add(true, dirtyRegion.mLastFocalBounds);
+        dirtyRegion.invalidate(view);
+        verify(view).invalidate(new Rect(9, 9, 21, 21));
+        // The previous bounds are included so the old drawing is cleared
+        dirtyRegion.mElementBounds.set(15, 15, 30.5f, 30);
+        dirtyRegion.add(true, dirtyRegion.mLastFocalBounds);
+        dirtyRegion.invalidate(view);
+        verify(view).invalidate(new Rect(9, 9, 32, 31));
+        // Elements that don't report their bounds redraw everything
+        dirtyRegion.add(false, dirtyRegion.mLastBackgroundBounds);
+        dirtyRegion.invalidate(view);
+        verify(view).invalidate();
+    }
+
+    @Test
+    public void testIdleAnimationInvalidatesFocalArea()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        prompt.updateAnimation(1, 1);
+        prompt.mView.mPromptOptions.getPromptFocal().update(prompt.mView.mPromptOptions, 1.1f, 1);
+        prompt.invalidateFocal();
+        final RectF focalBounds = prompt.mView.mPromptOptions.getPromptFocal().getBounds();
+        assertTrue(prompt.mDirtyRegion.mLastFocalBounds.contains(focalBounds));
+        assertTrue(prompt.mDirtyRegion.mDirtyBounds.isEmpty());
+    }
+
+    @Test
+    public void testOverlayAttach()
+    {
+        final List<Integer> states = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setAutoFinish(false)
+                .setOverlayAttachEnabled(true)
+                .setPromptStateChangeListener((prompt1, state) -> states.add(state))
+                .create();
+        assertNotNull(prompt);
+        final ViewGroup parent = prompt.mView.mPromptOptions.getResourceFinder().getPromptParentView();
+        setViewBounds(parent, SCREEN_WIDTH, SCREEN_HEIGHT);
+        final Window window = MaterialTapTargetPrompt.findWindow(prompt.mView.mPromptOptions.getResourceFinder());
+        assertNotNull(window);
+        final Window.Callback callback = window.getCallback();
+        prompt.show();
+        // Added to the overlay without being a child view
+        assertNotNull(prompt.mOverlay);
+        assertSame(parent, prompt.mOverlay.mHost);
+        assertNull(parent.findViewById(R.id.material_target_prompt_view));
+        assertEquals(SCREEN_WIDTH, prompt.mView.getWidth());
+        assertEquals(SCREEN_HEIGHT, prompt.mView.getHeight());
+        assertTrue(window.getCallback() instanceof PromptWindowCallback);
+        // Touches are passed to the prompt through the window callback
+        window.getCallback().dispatchTouchEvent(MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 10, 10, 0));
+        assertTrue(states.contains(MaterialTapTargetPrompt.STATE_FOCAL_PRESSED));
+        prompt.cleanUpPrompt(MaterialTapTargetPrompt.STATE_DISMISSED);
+        assertNull(prompt.mOverlay);
+        assertNull(prompt.mView.getParent());
+        assertSame(callback, window.getCallback());
+    }
+
+    @Test
+    public void testOverlayIdleAnimationPaused()
+    {
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setOverlayAttachEnabled(true)
+                .create();
+        assertNotNull(prompt);
+        final ViewGroup parent = prompt.mView.mPromptOptions.getResourceFinder().getPromptParentView();
+        setViewBounds(parent, SCREEN_WIDTH, SCREEN_HEIGHT);
+        final Window window = MaterialTapTargetPrompt.findWindow(prompt.mView.mPromptOptions.getResourceFinder());
+        assertNotNull(window);
+        prompt.show();
+        assertNotNull(prompt.mOverlay);
+        assertSame(parent, prompt.mOverlay.mHost);
+        prompt.startIdleAnimations();
+        assertNotNull(prompt.mAnimationFocalBreathing);
+        assertFalse(prompt.mAnimationFocalBreathing.isPaused());
+        // The focus changes are passed on by the window callback
+        window.getCallback().onWindowFocusChanged(false);
+        assertTrue(prompt.mAnimationFocalBreathing.isPaused());
+        window.getCallback().onWindowFocusChanged(true);
+        assertFalse(prompt.mAnimationFocalBreathing.isPaused());
+        // The visibility is read from the host before drawing
+        final ViewGroup host = spy(parent);
+        doReturn(View.GONE).when(host).getWindowVisibility();
+        prompt.mOverlay.mHost = host;
+        prompt.mView.mTargetPreDrawListener.onPreDraw();
+        assertTrue(prompt.mAnimationFocalBreathing.isPaused());
+        doReturn(View.VISIBLE).when(host).getWindowVisibility();
+        prompt.mView.mTargetPreDrawListener.onPreDraw();
+        assertFalse(prompt.mAnimationFocalBreathing.isPaused());
+        prompt.mOverlay.mHost = parent;
+        assertEquals(0, prompt.mIdleAnimationPauseReasons);
+    }
+
+    @Test
+    public void testTextMeasureExecutor()
+    {
+        final List<Runnable> tasks = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setSecondaryText("Secondary text")
+                .setTextMeasureExecutor(tasks::add)
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        // Not shown until the text has been measured
+        assertEquals(1, tasks.size());
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        assertNull(prompt.mView.getParent());
+        prompt.show();
+        assertEquals(1, tasks.size());
+        tasks.get(0).run();
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        shadowOf(Looper.getMainLooper()).idle();
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt.getState());
+        assertNotNull(prompt.mView.getParent());
+    }
+
+    @Test
+    public void testTextMeasureExecutor_Dismissed()
+    {
+        final List<Runnable> tasks = new ArrayList<>();
+        final MaterialTapTargetPrompt prompt = createMockBuilder(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setTarget(10, 10)
+                .setPrimaryText("Primary text")
+                .setTextMeasureExecutor(tasks::add)
+                .create();
+        assertNotNull(prompt);
+        prompt.show();
+        assertNotNull(prompt.mTextMeasuredRunnable);
+        prompt.dismiss();
+        assertNull(prompt.mTextMeasuredRunnable);
+        tasks.get(0).run();
+        shadowOf(Looper.getMainLooper()).idle();
+        // Dismissing before the text was measured stops the prompt being shown
+        assertEquals(MaterialTapTargetPrompt.STATE_NOT_SHOWN, prompt.getState());
+        assertNull(prompt.mView.getParent());
+    }
+
     private MaterialTapTargetPrompt.Builder createMockBuilder(final int screenWidth,
                                                               final int screenHeight)
     {
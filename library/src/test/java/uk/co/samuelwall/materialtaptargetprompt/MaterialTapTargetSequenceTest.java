@@ -16,7 +16,11 @@
 
 package uk.co.samuelwall.materialtaptargetprompt;
 
+import android.graphics.Canvas;
+import android.graphics.RectF;
 import android.os.Build;
+import android.os.MessageQueue;
+import android.view.ViewParent;
 
 import androidx.annotation.NonNull;
 
@@ -25,12 +29,17 @@ import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
+import uk.co.samuelwall.materialtaptargetprompt.extras.PromptText;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItem;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceItemShowFor;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceState;
 import uk.co.samuelwall.materialtaptargetprompt.extras.sequence.SequenceStatePromptOptions;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
@@ -698,4 +707,178 @@ public class MaterialTapTargetSequenceTest extends BaseTestStateProgress
         final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence();
         sequence.showFromIndex(-1);
     }
+
+    @Test
+    public void testPromptViewReuse()
+    {
+        final MaterialTapTargetPrompt prompt1 = UnitTestUtils.createPromptOptions()
+                .setTarget(0, 0)
+                .setPrimaryText("Test 1")
+                .create();
+        assertNotNull(prompt1);
+        // The view can only be shared by prompts in the same parent view
+        final MaterialTapTargetPrompt prompt2 = new PromptOptions(prompt1.mView.mPromptOptions.getResourceFinder())
+                .setTarget(0, 0)
+                .setPrimaryText("Test 2")
+                .create();
+        assertNotNull(prompt2);
+        final MaterialTapTargetPrompt.PromptView view = prompt1.mView;
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .setPromptViewReuseEnabled(true)
+                .addPrompt(prompt1)
+                .addPrompt(prompt2);
+        assertTrue(sequence.getPromptViewReuseEnabled());
+        sequence.show();
+        final ViewParent parent = view.getParent();
+        assertNotNull(parent);
+        prompt1.dismiss();
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        // The second prompt takes over the attached view
+        assertSame(view, prompt2.mView);
+        assertSame(prompt2, view.mPrompt);
+        assertEquals("Test 2", view.mPromptOptions.getPrimaryText());
+        assertSame(parent, view.getParent());
+        assertNotSame(view, prompt1.mView);
+        assertSame(prompt1, prompt1.mView.mPrompt);
+        assertNull(prompt1.mView.getParent());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt2.getState());
+        // Removed once the sequence completes
+        prompt2.dismiss();
+        UnitTestUtils.endCurrentAnimation(prompt2);
+        assertNull(view.getParent());
+    }
+
+    @Test
+    public void testPrefetch()
+    {
+        final MaterialTapTargetPrompt prompt1 = UnitTestUtils.createPromptOptions()
+                .setTarget(0, 0)
+                .setPrimaryText("Test 1")
+                .create();
+        final MaterialTapTargetPrompt prompt2 = UnitTestUtils.createPromptOptions()
+                .setTarget(0, 0)
+                .setPrimaryText("Test 2")
+                .create();
+        final MaterialTapTargetPrompt prompt3 = UnitTestUtils.createPromptOptions()
+                .setTarget(0, 0)
+                .setPrimaryText("Test 3")
+                .create();
+        assertNotNull(prompt1);
+        assertNotNull(prompt2);
+        assertNotNull(prompt3);
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .setPrefetchDepth(1)
+                .addPrompt(prompt1)
+                .addPrompt(prompt2)
+                .addPrompt(prompt3);
+        assertEquals(1, sequence.getPrefetchDepth());
+        sequence.show();
+        final MessageQueue.IdleHandler idleHandler = sequence.mPrefetchIdleHandler;
+        assertNotNull(idleHandler);
+        // Waits for the current prompt to be revealed
+        assertTrue(idleHandler.queueIdle());
+        assertFalse(prompt2.mPrefetched);
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt1.getState());
+        // Only prefetches up to the depth
+        assertFalse(idleHandler.queueIdle());
+        assertTrue(prompt2.mPrefetched);
+        assertFalse(prompt3.mPrefetched);
+        assertNull(sequence.mPrefetchIdleHandler);
+        prompt1.dismiss();
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        assertFalse(prompt2.mPrefetched);
+        assertNotNull(sequence.mPrefetchIdleHandler);
+        sequence.finish();
+        assertNull(sequence.mPrefetchIdleHandler);
+    }
+
+    @Test
+    public void testMorphTransition()
+    {
+        final MaterialTapTargetPrompt prompt1 = UnitTestUtils.createPromptOptions()
+                .setTarget(10, 10)
+                .setPrimaryText("Test 1")
+                .create();
+        assertNotNull(prompt1);
+        final MaterialTapTargetPrompt prompt2 = new PromptOptions(prompt1.mView.mPromptOptions.getResourceFinder())
+                .setTarget(100, 200)
+                .setPrimaryText("Test 2")
+                .create();
+        assertNotNull(prompt2);
+        final PromptOptions fromOptions = prompt1.mView.mPromptOptions;
+        final PromptText fromText = spy(fromOptions.getPromptText());
+        fromOptions.setPromptText(fromText);
+        final MaterialTapTargetPrompt.PromptView view = prompt1.mView;
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .setMorphTransitionEnabled(true)
+                .addPrompt(prompt1)
+                .addPrompt(prompt2);
+        assertTrue(sequence.getMorphTransitionEnabled());
+        sequence.show();
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt1.getState());
+        // Finishing doesn't animate, the next prompt morphs from the previous one instead
+        prompt1.finish();
+        assertEquals(MaterialTapTargetPrompt.STATE_FINISHED, prompt1.getState());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt2.getState());
+        assertSame(view, prompt2.mView);
+        final PromptMorph morph = view.mMorph;
+        assertNotNull(morph);
+        assertSame(prompt1.mView.mPromptOptions, morph.mFrom);
+        // Half way the focal is between the two prompt focals
+        prompt2.updateMorph(0.5f);
+        final RectF focalBounds = new RectF(morph.mToFocalBounds);
+        morph.mToFocalMatrix.mapRect(focalBounds);
+        assertEquals((morph.mFromFocalBounds.centerX() + morph.mToFocalBounds.centerX()) / 2,
+                focalBounds.centerX(), 0.01f);
+        assertEquals((morph.mFromFocalBounds.centerY() + morph.mToFocalBounds.centerY()) / 2,
+                focalBounds.centerY(), 0.01f);
+        view.onDraw(new Canvas());
+        clearInvocations(fromText);
+        UnitTestUtils.endCurrentAnimation(prompt2);
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALED, prompt2.getState());
+        assertNull(morph.mFrom);
+        // The faded out text of the previous prompt is restored
+        verify(fromText).update(fromOptions, 1, 1);
+        // The last prompt exits with the normal animation
+        prompt2.finish();
+        assertEquals(MaterialTapTargetPrompt.STATE_FINISHING, prompt2.getState());
+    }
+
+    @Test
+    public void testMorphTransitionViewNotAdopted()
+    {
+        final MaterialTapTargetPrompt prompt1 = UnitTestUtils.createPromptOptions()
+                .setTarget(10, 10)
+                .setPrimaryText("Test 1")
+                .create();
+        assertNotNull(prompt1);
+        // In a different parent view so can't take over the view
+        final MaterialTapTargetPrompt prompt2 = UnitTestUtils.createPromptOptions()
+                .setTarget(100, 200)
+                .setPrimaryText("Test 2")
+                .create();
+        assertNotNull(prompt2);
+        final MaterialTapTargetPrompt.PromptView view = prompt1.mView;
+        final MaterialTapTargetSequence sequence = new MaterialTapTargetSequence()
+                .setMorphTransitionEnabled(true)
+                .addPrompt(prompt1)
+                .addPrompt(prompt2);
+        sequence.show();
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        final ViewParent parent = view.getParent();
+        assertNotNull(parent);
+        prompt1.finish();
+        assertEquals(MaterialTapTargetPrompt.STATE_FINISHED, prompt1.getState());
+        assertEquals(MaterialTapTargetPrompt.STATE_REVEALING, prompt2.getState());
+        assertNotSame(view, prompt2.mView);
+        // The previous prompt falls back to the exit animation
+        assertSame(prompt1.mView, view);
+        assertSame(parent, view.getParent());
+        assertNotNull(prompt1.mAnimationCurrent);
+        UnitTestUtils.endCurrentAnimation(prompt1);
+        assertNull(view.getParent());
+        assertEquals(MaterialTapTargetPrompt.STATE_FINISHED, prompt1.getState());
+    }
 }
@@ -0,0 +1,621 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.animation.ValueAnimator;
+import android.app.Activity;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.RenderNode;
+import android.os.Looper;
+import android.widget.FrameLayout;
+
+import org.robolectric.Robolectric;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+import static org.robolectric.Shadows.shadowOf;
+
+/**
+ * Steps a prompt through its lifecycle one frame at a time on Robolectric's paused main looper,
+ * recording the wall time, allocated bytes and draw operations for each frame.
+ * <p>
+ * Each frame advances the looper clock by {@link #FRAME_INTERVAL_MS}, then the measured part seeks
+ * the current animator to the frame time and draws the prompt view. The numbers are from the JVM
+ * running Robolectric so are only useful for comparing changes, not as device timings.
+ * <p>
+ * The budgets default to values that only catch large regressions and can be changed with the
+ * setters or the system properties, e.g. {@code ./gradlew test -Dprompt.perf.frameTimeMs=20}:
+ * <ul>
+ * <li>prompt.perf.frameTimeMs, prompt.perf.frameAllocatedBytes, prompt.perf.frameDrawOps</li>
+ * <li>prompt.perf.showTimeMs, prompt.perf.showAllocatedBytes, prompt.perf.showDrawOps</li>
+ * </ul>
+ */
+public class PromptFrameHarness
+{
+    /**
+     * The time between frames.
+     */
+    public static final long FRAME_INTERVAL_MS = 16;
+
+    /**
+     * {@link MaterialTapTargetPrompt#show()} and the first frame drawn.
+     */
+    public static final int PHASE_SHOW = 0;
+
+    /**
+     * The reveal animation frames.
+     */
+    public static final int PHASE_REVEAL = 1;
+
+    /**
+     * The idle focal breathing and ripple animation frames, or the idle drawable frames from API 25.
+     */
+    public static final int PHASE_IDLE = 2;
+
+    /**
+     * {@link MaterialTapTargetPrompt#dismiss()} and the dismiss animation frames.
+     */
+    public static final int PHASE_DISMISS = 3;
+
+    private static final String[] PHASE_NAMES = {"show", "reveal", "idle", "dismiss"};
+
+    @NonNull private final MaterialTapTargetPrompt.Builder mBuilder;
+    @NonNull private final ThreadMXBean mThreadBean = ManagementFactory.getThreadMXBean();
+    @NonNull private final List<String> mBudgetFailures = new ArrayList<>();
+    @NonNull final PhaseStats[] mPhaseStats = new PhaseStats[PHASE_NAMES.length];
+    @NonNull final FrameBudget mShowBudget = new FrameBudget("prompt.perf.show", 1000, 16 * 1024 * 1024, 64);
+    @NonNull final FrameBudget mFrameBudget = new FrameBudget("prompt.perf.frame", 100, 1024 * 1024, 64);
+    @NonNull private final DrawOpCountingCanvas mCanvas;
+    long mIdleDuration = 2000;
+    private long mFrameStartTime;
+    private long mFrameStartBytes;
+
+    /**
+     * Creates a harness for a prompt in an activity with a content view of the supplied size.
+     * The prompt is clipped to the content view.
+     *
+     * @param width The content view width.
+     * @param height The content view height.
+     */
+    public PromptFrameHarness(final int width, final int height)
+    {
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final FrameLayout layout = new FrameLayout(activity);
+        activity.setContentView(layout);
+        MaterialTapTargetPromptUnitTest.setViewBounds(layout, width, height);
+        mBuilder = new MaterialTapTargetPrompt.Builder(activity);
+        mBuilder.setClipToView(layout);
+        // Draws all of the text lines, a canvas with empty clip bounds skips them
+        mCanvas = new DrawOpCountingCanvas(Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888));
+    }
+
+    /**
+     * Get the builder used to create the measured prompts, to set the target, text and shapes.
+     *
+     * @return The prompt builder.
+     */
+    @NonNull
+    public MaterialTapTargetPrompt.Builder getBuilder()
+    {
+        return mBuilder;
+    }
+
+    /**
+     * Set how long to step through the idle animation for.
+     *
+     * @param duration The idle animation duration in milliseconds.
+     * @return This harness.
+     */
+    public PromptFrameHarness setIdleDuration(final long duration)
+    {
+        mIdleDuration = duration;
+        return this;
+    }
+
+    /**
+     * Set the budget for each reveal, idle and dismiss frame.
+     *
+     * @param timeMillis The maximum wall time in milliseconds.
+     * @param allocatedBytes The maximum bytes allocated.
+     * @param drawOps The maximum draw operations.
+     * @return This harness.
+     */
+    public PromptFrameHarness setFrameBudget(final long timeMillis, final long allocatedBytes,
+                                             final int drawOps)
+    {
+        mFrameBudget.set(timeMillis, allocatedBytes, drawOps);
+        return this;
+    }
+
+    /**
+     * Set the budget for the show frame, which prepares the prompt and lays out the text.
+     *
+     * @param timeMillis The maximum wall time in milliseconds.
+     * @param allocatedBytes The maximum bytes allocated.
+     * @param drawOps The maximum draw operations.
+     * @return This harness.
+     */
+    public PromptFrameHarness setShowBudget(final long timeMillis, final long allocatedBytes,
+                                            final int drawOps)
+    {
+        mShowBudget.set(timeMillis, allocatedBytes, drawOps);
+        return this;
+    }
+
+    /**
+     * Set whether the canvas reports that it is hardware accelerated, which draws the prompt
+     * through the render nodes from API 29.
+     *
+     * @param hardwareAccelerated True to report a hardware accelerated canvas.
+     * @return This harness.
+     */
+    public PromptFrameHarness setHardwareAccelerated(final boolean hardwareAccelerated)
+    {
+        mCanvas.mHardwareAccelerated = hardwareAccelerated;
+        return this;
+    }
+
+    /**
+     * Get the recorded stats for a phase.
+     *
+     * @param phase One of the PHASE_ constants.
+     * @return The phase stats, null before {@link #run()}.
+     */
+    @Nullable
+    public PhaseStats getPhaseStats(final int phase)
+    {
+        return mPhaseStats[phase];
+    }
+
+    /**
+     * Runs an unmeasured lifecycle to load and initialise the classes, then steps a new prompt
+     * through show, reveal, idle and dismiss. Fails if a frame exceeds its budget.
+     *
+     * @return This harness.
+     */
+    public PromptFrameHarness run()
+    {
+        runLifecycle(false);
+        for (int i = 0; i < mPhaseStats.length; i++)
+        {
+            mPhaseStats[i] = new PhaseStats(PHASE_NAMES[i]);
+        }
+        mBudgetFailures.clear();
+        runLifecycle(true);
+        if (!mBudgetFailures.isEmpty())
+        {
+            final StringBuilder message = new StringBuilder("Prompt frame budget exceeded:\n")
+                    .append(String.join("\n", mBudgetFailures));
+            for (final PhaseStats stats : mPhaseStats)
+            {
+                message.append('\n').append(stats);
+            }
+            fail(message.toString());
+        }
+        return this;
+    }
+
+    private void runLifecycle(final boolean measure)
+    {
+        final MaterialTapTargetPrompt prompt = mBuilder.create();
+        assertNotNull(prompt);
+        final MaterialTapTargetPrompt.PromptView view = prompt.mView;
+        // Show
+        startFrame();
+        prompt.show();
+        view.onDraw(mCanvas);
+        endFrame(measure, PHASE_SHOW);
+
+        // Reveal
+        stepAnimation(prompt, MaterialTapTargetPrompt.STATE_REVEALING, measure, PHASE_REVEAL);
+        if (prompt.getState() == MaterialTapTargetPrompt.STATE_REVEALING)
+        {
+            // The looper didn't run the animator to its end
+            if (prompt.mAnimationCurrent != null)
+            {
+                prompt.mAnimationCurrent.removeAllListeners();
+            }
+            prompt.onRevealAnimationEnd();
+        }
+
+        // Idle
+        final ValueAnimator breathing = prompt.mAnimationFocalBreathing;
+        if (breathing != null)
+        {
+            for (long time = 0; time <= mIdleDuration; time += FRAME_INTERVAL_MS)
+            {
+                idleFrame();
+                startFrame();
+                breathing.setCurrentPlayTime(time);
+                view.onDraw(mCanvas);
+                endFrame(measure, PHASE_IDLE);
+            }
+        }
+        else if (view.mFocalIdleDrawable != null)
+        {
+            // The idle drawable animates itself from API 25 so only the redraws are measured
+            for (long time = 0; time <= mIdleDuration; time += FRAME_INTERVAL_MS)
+            {
+                idleFrame();
+                startFrame();
+                view.onDraw(mCanvas);
+                endFrame(measure, PHASE_IDLE);
+            }
+        }
+
+        // Dismiss
+        startFrame();
+        prompt.dismiss();
+        view.onDraw(mCanvas);
+        endFrame(measure, PHASE_DISMISS);
+        stepAnimation(prompt, MaterialTapTargetPrompt.STATE_DISMISSING, measure, PHASE_DISMISS);
+        if (!prompt.isDismissed())
+        {
+            if (prompt.mAnimationCurrent != null)
+            {
+                prompt.mAnimationCurrent.removeAllListeners();
+            }
+            prompt.cleanUpPrompt(MaterialTapTargetPrompt.STATE_DISMISSED);
+        }
+        shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    /**
+     * Steps the current animation a frame at a time while the prompt is in the supplied state.
+     */
+    private void stepAnimation(@NonNull final MaterialTapTargetPrompt prompt, final int state,
+                               final boolean measure, final int phase)
+    {
+        final ValueAnimator animator = prompt.mAnimationCurrent;
+        if (animator == null)
+        {
+            return;
+        }
+        final long duration = animator.getDuration();
+        for (long time = FRAME_INTERVAL_MS; time <= duration; time += FRAME_INTERVAL_MS)
+        {
+            idleFrame();
+            if (prompt.getState() != state || prompt.mAnimationCurrent != animator)
+            {
+                break;
+            }
+            startFrame();
+            // Seeking to the time that the looper has reached so it matches the animator progress
+            animator.setCurrentPlayTime(time);
+            prompt.mView.onDraw(mCanvas);
+            endFrame(measure, phase);
+        }
+    }
+
+    /**
+     * Advance the looper by a frame, running the posted work and frame callbacks.
+     */
+    private void idleFrame()
+    {
+        shadowOf(Looper.getMainLooper()).idleFor(FRAME_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private void startFrame()
+    {
+        mCanvas.mDrawOps = 0;
+        mFrameStartBytes = getAllocatedBytes();
+        mFrameStartTime = System.nanoTime();
+    }
+
+    private void endFrame(final boolean measure, final int phase)
+    {
+        final long time = System.nanoTime() - mFrameStartTime;
+        final long startBytes = mFrameStartBytes;
+        final long bytes = startBytes < 0 ? -1 : getAllocatedBytes() - startBytes;
+        final int drawOps = mCanvas.mDrawOps;
+        if (!measure)
+        {
+            return;
+        }
+        final PhaseStats stats = mPhaseStats[phase];
+        stats.record(time, bytes, drawOps);
+        final FrameBudget budget = phase == PHASE_SHOW ? mShowBudget : mFrameBudget;
+        final String failure = budget.check(time, bytes, drawOps);
+        if (failure != null)
+        {
+            mBudgetFailures.add(String.format(Locale.ROOT, "%s frame %d: %s",
+                    stats.mName, stats.mFrames, failure));
+        }
+    }
+
+    /**
+     * Get the bytes allocated by this thread.
+     *
+     * @return The allocated bytes or -1 if the JVM can't measure them.
+     */
+    private long getAllocatedBytes()
+    {
+        if (mThreadBean instanceof com.sun.management.ThreadMXBean)
+        {
+            final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) mThreadBean;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled())
+            {
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The maximum cost of a frame.
+     */
+    static class FrameBudget
+    {
+        long mMaxTimeNanos;
+        long mMaxAllocatedBytes;
+        int mMaxDrawOps;
+
+        FrameBudget(@NonNull final String property, final long timeMillis,
+                    final long allocatedBytes, final int drawOps)
+        {
+            set(Long.getLong(property + "TimeMs", timeMillis),
+                    Long.getLong(property + "AllocatedBytes", allocatedBytes),
+                    Integer.getInteger(property + "DrawOps", drawOps));
+        }
+
+        void set(final long timeMillis, final long allocatedBytes, final int drawOps)
+        {
+            mMaxTimeNanos = TimeUnit.MILLISECONDS.toNanos(timeMillis);
+            mMaxAllocatedBytes = allocatedBytes;
+            mMaxDrawOps = drawOps;
+        }
+
+        /**
+         * Check a frame against the budget.
+         *
+         * @return The reason the frame is over budget or null if it is within budget.
+         */
+        @Nullable
+        String check(final long timeNanos, final long allocatedBytes, final int drawOps)
+        {
+            if (timeNanos > mMaxTimeNanos)
+            {
+                return String.format(Locale.ROOT, "took %.2fms, budget %.2fms",
+                        timeNanos / 1e6, mMaxTimeNanos / 1e6);
+            }
+            if (allocatedBytes > mMaxAllocatedBytes)
+            {
+                return String.format(Locale.ROOT, "allocated %d bytes, budget %d bytes",
+                        allocatedBytes, mMaxAllocatedBytes);
+            }
+            if (drawOps > mMaxDrawOps)
+            {
+                return String.format(Locale.ROOT, "drew %d ops, budget %d ops",
+                        drawOps, mMaxDrawOps);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The frames recorded for a lifecycle phase.
+     */
+    public static class PhaseStats
+    {
+        @NonNull final String mName;
+        int mFrames;
+        long mTotalTimeNanos;
+        long mMaxTimeNanos;
+        long mTotalAllocatedBytes;
+        long mMaxAllocatedBytes;
+        int mTotalDrawOps;
+        int mMaxDrawOps;
+
+        PhaseStats(@NonNull final String name)
+        {
+            mName = name;
+        }
+
+        void record(final long timeNanos, final long allocatedBytes, final int drawOps)
+        {
+            mFrames++;
+            mTotalTimeNanos += timeNanos;
+            mMaxTimeNanos = Math.max(mMaxTimeNanos, timeNanos);
+            mTotalAllocatedBytes += Math.max(0, allocatedBytes);
+            mMaxAllocatedBytes = Math.max(mMaxAllocatedBytes, allocatedBytes);
+            mTotalDrawOps += drawOps;
+            mMaxDrawOps = Math.max(mMaxDrawOps, drawOps);
+        }
+
+        public int getFrameCount()
+        {
+            return mFrames;
+        }
+
+        public int getMaxDrawOps()
+        {
+            return mMaxDrawOps;
+        }
+
+        @Override
+        public String toString()
+        {
+            if (mFrames == 0)
+            {
+                return mName + ": no frames";
+            }
+            return String.format(Locale.ROOT,
+                    "%s: %d frames, time mean %.3fms max %.3fms, allocated mean %d max %d bytes,"
+                            + " draw ops mean %.1f max %d",
+                    mName, mFrames, mTotalTimeNanos / 1e6 / mFrames, mMaxTimeNanos / 1e6,
+                    mTotalAllocatedBytes / mFrames, mMaxAllocatedBytes,
+                    (float) mTotalDrawOps / mFrames, mMaxDrawOps);
+        }
+    }
+
+    /**
+     * Counts the draw calls instead of drawing them so Robolectric's canvas isn't measured.
+     * State calls such as save, clip and translate are passed through.
+     */
+    static class DrawOpCountingCanvas extends Canvas
+    {
+        int mDrawOps;
+        boolean mHardwareAccelerated;
+
+        DrawOpCountingCanvas(@NonNull final Bitmap bitmap)
+        {
+            super(bitmap);
+        }
+
+        @Override
+        public boolean isHardwareAccelerated()
+        {
+            return mHardwareAccelerated;
+        }
+
+        @Override
+        public void drawRenderNode(@NonNull RenderNode renderNode)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawCircle(float cx, float cy, float radius, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawPath(@NonNull Path path, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawRect(@NonNull RectF rect, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawRect(@NonNull Rect r, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawRoundRect(@NonNull RectF rect, float rx, float ry, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawRoundRect(float left, float top, float right, float bottom, float rx,
+                                  float ry, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawOval(@NonNull RectF oval, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawColor(int color)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawPaint(@NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, float left, float top, @Nullable Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @Nullable Rect src, @NonNull RectF dst,
+                               @Nullable Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @Nullable Rect src, @NonNull Rect dst,
+                               @Nullable Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawBitmap(@NonNull Bitmap bitmap, @NonNull Matrix matrix, @Nullable Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawText(@NonNull char[] text, int index, int count, float x, float y,
+                             @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawText(@NonNull String text, float x, float y, @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawText(@NonNull String text, int start, int end, float x, float y,
+                             @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+
+        @Override
+        public void drawText(@NonNull CharSequence text, int start, int end, float x, float y,
+                             @NonNull Paint paint)
+        {
+            mDrawOps++;
+        }
+    }
+}
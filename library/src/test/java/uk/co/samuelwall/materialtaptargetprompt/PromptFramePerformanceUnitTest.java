@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt;
+
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.FullscreenPromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.RectanglePromptBackground;
+import uk.co.samuelwall.materialtaptargetprompt.extras.focals.RectanglePromptFocal;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = {Build.VERSION_CODES.LOLLIPOP_MR1, Build.VERSION_CODES.N_MR1, Build.VERSION_CODES.Q})
+public class PromptFramePerformanceUnitTest
+{
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    @Test
+    public void testCircleBackgroundFrames()
+    {
+        final PromptFrameHarness harness = createHarness();
+        harness.run();
+        assertPhasesRecorded(harness);
+    }
+
+    @Test
+    public void testRectangleBackgroundFrames()
+    {
+        final PromptFrameHarness harness = createHarness();
+        harness.getBuilder()
+                .setPromptBackground(new RectanglePromptBackground())
+                .setPromptFocal(new RectanglePromptFocal());
+        harness.run();
+        assertPhasesRecorded(harness);
+    }
+
+    @Test
+    public void testFullscreenBackgroundFrames()
+    {
+        final PromptFrameHarness harness = createHarness();
+        harness.getBuilder().setPromptBackground(new FullscreenPromptBackground());
+        harness.run();
+        assertPhasesRecorded(harness);
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.Q)
+    public void testRenderNodeFrames()
+    {
+        final PromptFrameHarness harness = createHarness().setHardwareAccelerated(true);
+        harness.run();
+        assertPhasesRecorded(harness);
+    }
+
+    @Test
+    public void testFrameBudgetExceeded()
+    {
+        final PromptFrameHarness harness = createHarness().setFrameBudget(1000, Long.MAX_VALUE, 0);
+        try
+        {
+            harness.run();
+        }
+        catch (final AssertionError error)
+        {
+            assertTrue(error.getMessage().contains("budget 0 ops"));
+            return;
+        }
+        fail("Frame budget not enforced");
+    }
+
+    private PromptFrameHarness createHarness()
+    {
+        final PromptFrameHarness harness = new PromptFrameHarness(SCREEN_WIDTH, SCREEN_HEIGHT)
+                .setIdleDuration(1000);
+        harness.getBuilder()
+                .setTarget(SCREEN_WIDTH - 100, SCREEN_HEIGHT - 100)
+                .setPrimaryText("Primary text")
+                .setSecondaryText("Secondary text that is long enough to wrap over a few lines"
+                        + " of the prompt so the text layout cost is included");
+        return harness;
+    }
+
+    private void assertPhasesRecorded(final PromptFrameHarness harness)
+    {
+        for (int phase = PromptFrameHarness.PHASE_SHOW; phase <= PromptFrameHarness.PHASE_DISMISS; phase++)
+        {
+            final PromptFrameHarness.PhaseStats stats = harness.getPhaseStats(phase);
+            assertNotNull(stats);
+            assertTrue(stats.toString(), stats.getFrameCount() > 0);
+        }
+        // The show frame is drawn before the prompt has started to reveal so may be empty
+        assertTrue(harness.getPhaseStats(PromptFrameHarness.PHASE_REVEAL).getMaxDrawOps() > 0);
+        assertTrue(harness.getPhaseStats(PromptFrameHarness.PHASE_IDLE).getMaxDrawOps() > 0);
+    }
+}
@@ -23,10 +23,12 @@ import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
+import android.os.Looper;
 import android.os.SystemClock;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
 import android.view.View;
+import android.view.ViewConfiguration;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,16 +36,28 @@ import org.robolectric.Robolectric;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 
+import java.util.concurrent.TimeUnit;
+
 import uk.co.samuelwall.materialtaptargetprompt.extras.PromptOptions;
 import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.RectanglePromptBackground;
 import uk.co.samuelwall.materialtaptargetprompt.extras.focals.RectanglePromptFocal;
 
+import static junit.framework.Assert.assertNull;
 import static junit.framework.Assert.assertTrue;
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
@@ -65,6 +79,28 @@ public class PromptViewUnitTest
         return event;
     }
 
+    private MotionEvent createMotionEvent(final int action, final float x, final float y)
+    {
+        final MotionEvent event = spy(MotionEvent.obtain(1, SystemClock.uptimeMillis(), action, x, y, 1, 1, 1, 1, 0, 0, 0));
+        when(event.getX()).thenReturn(x);
+        when(event.getY()).thenReturn(y);
+        return event;
+    }
+
+    private MaterialTapTargetPrompt.PromptView createGesturePromptView(
+            final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener)
+    {
+        final MaterialTapTargetPrompt.PromptView promptView = createPromptView();
+        promptView.mClipToBounds = false;
+        promptView.mPromptOptions.setCaptureTouchEventOnFocal(true);
+        promptView.mPromptOptions.setPromptBackground(spy(new RectanglePromptBackground()));
+        promptView.mPromptOptions.setPromptFocal(spy(new RectanglePromptFocal()));
+        when(promptView.mPromptOptions.getPromptBackground().contains(anyFloat(), anyFloat())).thenReturn(true);
+        when(promptView.mPromptOptions.getPromptFocal().contains(anyFloat(), anyFloat())).thenReturn(true);
+        promptView.mPromptTouchedListener = listener;
+        return promptView;
+    }
+
     @Test
     public void testPromptView_TouchEvent_OutsideClipBounds()
     {
@@ -373,4 +409,158 @@ public class PromptViewUnitTest
         promptView.mTargetRenderView = mock(View.class);
         promptView.onDraw(mock(Canvas.class));
     }
+
+    @SuppressLint("WrongCall")
+    @Test
+    public void testPromptView_Draw_RenderView_Cached()
+    {
+        final MaterialTapTargetPrompt.PromptView promptView = createPromptView();
+        promptView.mClipToBounds = false;
+        final View target = mock(View.class);
+        when(target.getWidth()).thenReturn(48);
+        when(target.getHeight()).thenReturn(48);
+        promptView.mTargetRenderView = target;
+        promptView.mTargetRenderCache = new TargetRenderCache();
+        final Canvas canvas = mock(Canvas.class);
+        promptView.onDraw(canvas);
+        promptView.onDraw(canvas);
+        verify(target, times(1)).draw(any(Canvas.class));
+        // Not redrawn until the target has been invalidated
+        promptView.mTargetPreDrawListener.onPreDraw();
+        promptView.onDraw(canvas);
+        verify(target, times(1)).draw(any(Canvas.class));
+        when(target.isDirty()).thenReturn(true);
+        promptView.mTargetPreDrawListener.onPreDraw();
+        promptView.onDraw(canvas);
+        verify(target, times(2)).draw(any(Canvas.class));
+    }
+
+    @Test
+    public void testPromptView_RenderNodes_NotUsedBelowQ()
+    {
+        final MaterialTapTargetPrompt.PromptView promptView = createPromptView();
+        assertNull(promptView.mRenderNodes);
+        promptView.invalidateRecordings();
+    }
+
+    @Test
+    public void testPromptView_Gesture_ResolvedOnce()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        verify(listener, times(1)).onFocalPressed();
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 100, 100)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 200, 200)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 200, 200)));
+        verify(listener, times(1)).onFocalPressed();
+        verify(listener, never()).onNonFocalPressed();
+        // The moves are not hit tested
+        verify(promptView.mPromptOptions.getPromptFocal(), times(1)).contains(anyFloat(), anyFloat());
+        // A new gesture
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        verify(listener, times(2)).onFocalPressed();
+    }
+
+    @Test
+    public void testPromptView_Gesture_PressOnRelease()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        promptView.mPromptOptions.setPressOnRelease(true);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 11, 11)));
+        verify(listener, never()).onFocalPressed();
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 11, 11)));
+        verify(listener, times(1)).onFocalPressed();
+        assertEquals(PromptGestureTracker.GESTURE_NONE, promptView.mGestureTracker.mState);
+    }
+
+    @Test
+    public void testPromptView_Gesture_PressOnRelease_NotCaptured()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        // The default capture settings, the rest of the gesture isn't sent to the prompt
+        promptView.mPromptOptions.setCaptureTouchEventOnFocal(false);
+        promptView.mPromptOptions.setCaptureTouchEventOutsidePrompt(false);
+        promptView.mPromptOptions.setPressOnRelease(true);
+        promptView.mPromptOptions.setLongPressEnabled(true);
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        verify(listener, times(1)).onFocalPressed();
+        assertEquals(PromptGestureTracker.GESTURE_RESOLVED, promptView.mGestureTracker.mState);
+        // Outside of the prompt
+        when(promptView.mPromptOptions.getPromptBackground().contains(anyFloat(), anyFloat())).thenReturn(false);
+        assertFalse(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        verify(listener, times(1)).onNonFocalPressed();
+        assertEquals(PromptGestureTracker.GESTURE_RESOLVED, promptView.mGestureTracker.mState);
+        // A long press isn't waited for
+        verify(promptView, never()).postDelayed(any(), anyLong());
+    }
+
+    @Test
+    public void testPromptView_Gesture_PressOnRelease_Slop()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        promptView.mPromptOptions.setPressOnRelease(true);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 300, 10)));
+        assertEquals(PromptGestureTracker.GESTURE_CANCELLED, promptView.mGestureTracker.mState);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 10, 10)));
+        verify(listener, never()).onFocalPressed();
+        verify(listener, never()).onNonFocalPressed();
+    }
+
+    @Test
+    public void testPromptView_Gesture_Cancel()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        promptView.mPromptOptions.setPressOnRelease(true);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_CANCEL, 10, 10)));
+        assertEquals(PromptGestureTracker.GESTURE_NONE, promptView.mGestureTracker.mState);
+        verify(listener, never()).onFocalPressed();
+    }
+
+    @Test
+    public void testPromptView_Gesture_LongPress()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        doAnswer(invocation -> {
+            shadowOf(Looper.getMainLooper()).post(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(promptView).postDelayed(any(), anyLong());
+        promptView.mPromptOptions.setPressOnRelease(true);
+        promptView.mPromptOptions.setLongPressEnabled(true);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        verify(listener, never()).onFocalPressed();
+        shadowOf(Looper.getMainLooper()).idleFor(ViewConfiguration.getLongPressTimeout(), TimeUnit.MILLISECONDS);
+        verify(listener, times(1)).onFocalPressed();
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 10, 10)));
+        verify(listener, times(1)).onFocalPressed();
+    }
+
+    @Test
+    public void testPromptView_Gesture_NonFocal()
+    {
+        final MaterialTapTargetPrompt.PromptView.PromptTouchedListener listener =
+                mock(MaterialTapTargetPrompt.PromptView.PromptTouchedListener.class);
+        final MaterialTapTargetPrompt.PromptView promptView = createGesturePromptView(listener);
+        when(promptView.mPromptOptions.getPromptFocal().contains(anyFloat(), anyFloat())).thenReturn(false);
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_DOWN, 10, 10)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_MOVE, 20, 20)));
+        assertTrue(promptView.onTouchEvent(createMotionEvent(MotionEvent.ACTION_UP, 20, 20)));
+        verify(listener, times(1)).onNonFocalPressed();
+        verify(listener, never()).onFocalPressed();
+    }
 }
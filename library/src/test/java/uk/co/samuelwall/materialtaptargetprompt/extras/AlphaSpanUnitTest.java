@@ -42,4 +42,16 @@ public class AlphaSpanUnitTest
         assertEquals(100, textPaint.getAlpha());
         assertEquals(Color.argb(50, 100, 100, 100), textPaint.bgColor);
     }
+
+    @Test
+    public void testAlphaSpan_SetAlpha()
+    {
+        final AlphaSpan alphaSpan = new AlphaSpan(1f);
+        alphaSpan.setAlpha(0.25f);
+        assertEquals(0.25f, alphaSpan.getAlpha(), 0);
+        final TextPaint textPaint = new TextPaint();
+        textPaint.setAlpha(200);
+        alphaSpan.updateDrawState(textPaint);
+        assertEquals(50, textPaint.getAlpha());
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PromptDurationHistogramUnitTest
+{
+    @Test
+    public void testRecord()
+    {
+        final PromptDurationHistogram histogram = new PromptDurationHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(4));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(4) + 1);
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(16));
+        histogram.record(TimeUnit.SECONDS.toNanos(2));
+        assertEquals(4, histogram.getCount());
+        assertEquals(1, histogram.getBucketValue(0));
+        assertEquals(1, histogram.getBucketValue(1));
+        assertEquals(1, histogram.getBucketValue(3));
+        assertEquals(1, histogram.getBucketValue(histogram.getBucketCount() - 1));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(2024) + 1, histogram.getTotalNanos());
+    }
+
+    @Test
+    public void testBucketUpperBounds()
+    {
+        final PromptDurationHistogram histogram = new PromptDurationHistogram();
+        assertEquals(4, histogram.getBucketUpperBoundMillis(0));
+        assertEquals(16, histogram.getBucketUpperBoundMillis(3));
+        assertEquals(Long.MAX_VALUE, histogram.getBucketUpperBoundMillis(histogram.getBucketCount() - 1));
+        long previous = 0;
+        for (int i = 0; i < histogram.getBucketCount(); i++)
+        {
+            final long bound = histogram.getBucketUpperBoundMillis(i);
+            assertTrue(bound > previous);
+            previous = bound;
+        }
+    }
+
+    @Test
+    public void testAddAndReset()
+    {
+        final PromptDurationHistogram histogram = new PromptDurationHistogram();
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(10));
+        final PromptDurationHistogram other = new PromptDurationHistogram();
+        other.record(TimeUnit.MILLISECONDS.toNanos(10));
+        other.record(TimeUnit.MILLISECONDS.toNanos(40));
+        histogram.add(other);
+        assertEquals(3, histogram.getCount());
+        assertEquals(2, histogram.getBucketValue(2));
+        assertEquals(1, histogram.getBucketValue(6));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(40), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(60), histogram.getTotalNanos());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getTotalNanos());
+        assertEquals(0, histogram.getMaxNanos());
+        for (int i = 0; i < histogram.getBucketCount(); i++)
+        {
+            assertEquals(0, histogram.getBucketValue(i));
+        }
+    }
+}
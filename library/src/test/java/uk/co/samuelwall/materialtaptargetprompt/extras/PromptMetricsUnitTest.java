@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.concurrent.TimeUnit;
+
+import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptMetricsUnitTest
+{
+    @Test
+    public void testRecord()
+    {
+        final PromptMetrics metrics = new PromptMetrics();
+        assertEquals(-1, metrics.getTimeToFirstFrameNanos());
+        metrics.recordPrepare(TimeUnit.MILLISECONDS.toNanos(2));
+        metrics.recordTimeToFirstFrame(TimeUnit.MILLISECONDS.toNanos(30));
+        metrics.recordFrame(PromptMetrics.PHASE_REVEAL, TimeUnit.MILLISECONDS.toNanos(16), 0,
+                PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+        metrics.recordFrame(PromptMetrics.PHASE_REVEAL, TimeUnit.MILLISECONDS.toNanos(50), 2,
+                PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+        metrics.recordFrame(PromptMetrics.PHASE_DISMISS, TimeUnit.MILLISECONDS.toNanos(16), 0,
+                PromptMetrics.FRAME_SOURCE_FRAME_METRICS);
+        // Frames outside of an animation aren't recorded
+        metrics.recordFrame(PromptMetrics.PHASE_NONE, TimeUnit.MILLISECONDS.toNanos(100), 5,
+                PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+        assertEquals(1, metrics.getPrepareTimes().getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(30), metrics.getTimeToFirstFrameNanos());
+        assertEquals(2, metrics.getRevealFrames().getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), metrics.getRevealFrames().getMaxNanos());
+        assertEquals(1, metrics.getDismissFrames().getCount());
+        assertEquals(2, metrics.getDroppedFrames());
+        assertEquals(PromptMetrics.FRAME_SOURCE_FRAME_METRICS, metrics.getFrameSource());
+    }
+
+    @Test
+    public void testAggregator()
+    {
+        final MaterialTapTargetPrompt prompt = mock(MaterialTapTargetPrompt.class);
+        final PromptMetricsAggregator aggregator = new PromptMetricsAggregator();
+        final PromptMetrics shown = new PromptMetrics();
+        shown.recordPrepare(TimeUnit.MILLISECONDS.toNanos(2));
+        shown.recordTimeToFirstFrame(TimeUnit.MILLISECONDS.toNanos(30));
+        shown.recordFrame(PromptMetrics.PHASE_REVEAL, TimeUnit.MILLISECONDS.toNanos(50), 2,
+                PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+        aggregator.onPromptMetrics(prompt, shown);
+        final PromptMetrics notDrawn = new PromptMetrics();
+        notDrawn.recordPrepare(TimeUnit.MILLISECONDS.toNanos(3));
+        notDrawn.recordFrame(PromptMetrics.PHASE_DISMISS, TimeUnit.MILLISECONDS.toNanos(33), 1,
+                PromptMetrics.FRAME_SOURCE_CHOREOGRAPHER);
+        aggregator.onPromptMetrics(prompt, notDrawn);
+
+        assertEquals(2, aggregator.getPromptCount());
+        assertEquals(2, aggregator.getPrepareTimes().getCount());
+        assertEquals(1, aggregator.getTimesToFirstFrame().getCount());
+        assertEquals(1, aggregator.getRevealFrames().getCount());
+        assertEquals(1, aggregator.getDismissFrames().getCount());
+        assertEquals(3, aggregator.getDroppedFrames());
+
+        aggregator.reset();
+        assertEquals(0, aggregator.getPromptCount());
+        assertEquals(0, aggregator.getPrepareTimes().getCount());
+        assertEquals(0, aggregator.getTimesToFirstFrame().getCount());
+        assertEquals(0, aggregator.getRevealFrames().getCount());
+        assertEquals(0, aggregator.getDismissFrames().getCount());
+        assertEquals(0, aggregator.getDroppedFrames());
+    }
+}
@@ -42,6 +42,8 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.annotation.Config;
 import org.robolectric.util.ReflectionHelpers;
 
+import java.util.concurrent.Executor;
+
 import uk.co.samuelwall.materialtaptargetprompt.ActivityResourceFinder;
 import uk.co.samuelwall.materialtaptargetprompt.MaterialTapTargetPrompt;
 import uk.co.samuelwall.materialtaptargetprompt.R;
@@ -55,6 +57,7 @@ import static junit.framework.TestCase.assertNotNull;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -496,6 +499,122 @@ public class PromptOptionsUnitTest
         assertEquals(view, options.getTargetRenderView());
     }
 
+    @Test
+    public void testPromptOptions_TargetRenderCache()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertTrue(options.getTargetRenderCacheEnabled());
+        assertEquals(options, options.setTargetRenderCacheEnabled(false));
+        assertFalse(options.getTargetRenderCacheEnabled());
+    }
+
+    @Test
+    public void testPromptOptions_OverlayAttach()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertFalse(options.getOverlayAttachEnabled());
+        assertEquals(options, options.setOverlayAttachEnabled(true));
+        assertTrue(options.getOverlayAttachEnabled());
+    }
+
+    @Test
+    public void testPromptOptions_TextMeasureExecutor()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertNull(options.getTextMeasureExecutor());
+        final Executor executor = Runnable::run;
+        assertEquals(options, options.setTextMeasureExecutor(executor));
+        assertSame(executor, options.getTextMeasureExecutor());
+    }
+
+    @Test
+    public void testPromptOptions_PromptMetricsListener()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptions();
+        assertNull(options.getPromptMetricsListener());
+        final PromptMetrics.Listener listener = mock(PromptMetrics.Listener.class);
+        assertSame(options, options.setPromptMetricsListener(listener));
+        assertSame(listener, options.getPromptMetricsListener());
+        options.setPromptMetricsListener(null);
+        assertNull(options.getPromptMetricsListener());
+    }
+
+    @Test
+    public void testPromptOptions_Template()
+    {
+        final Interpolator interpolator = mock(Interpolator.class);
+        final Executor executor = Runnable::run;
+        final PromptMetricsAggregator metricsListener = new PromptMetricsAggregator();
+        final PromptOptions options = UnitTestUtils.createPromptOptions()
+                .setPrimaryText("Primary")
+                .setSecondaryText("Secondary")
+                .setBackgroundColour(Color.RED)
+                .setFocalColour(Color.BLUE)
+                .setPrimaryTextSize(30f)
+                .setSecondaryTextSize(20f)
+                .setFocalRadius(50f)
+                .setPrimaryTextTypeface(Typeface.MONOSPACE, Typeface.BOLD)
+                .setPrimaryTextGravity(Gravity.END)
+                .setAnimationInterpolator(interpolator)
+                .setAutoDismiss(false)
+                .setTextMeasureExecutor(executor)
+                .setPromptMetricsListener(metricsListener)
+                .setTarget(10, 10);
+        final PromptOptionsTemplate template = options.createTemplate();
+        assertEquals(Color.RED, template.getBackgroundColour());
+        assertEquals(Color.BLUE, template.getFocalColour());
+        assertEquals(30f, template.getPrimaryTextSize(), 0);
+        assertEquals(20f, template.getSecondaryTextSize(), 0);
+        // Changing the options doesn't change the template
+        options.setBackgroundColour(Color.GREEN);
+        assertEquals(Color.RED, template.getBackgroundColour());
+
+        final PromptOptions stamped = UnitTestUtils.createPromptOptions();
+        assertEquals(stamped, stamped.applyTemplate(template));
+        assertEquals("Primary", stamped.getPrimaryText());
+        assertEquals("Secondary", stamped.getSecondaryText());
+        assertEquals(Color.RED, stamped.getBackgroundColour());
+        assertEquals(Color.BLUE, stamped.getFocalColour());
+        assertEquals(30f, stamped.getPrimaryTextSize(), 0);
+        assertEquals(20f, stamped.getSecondaryTextSize(), 0);
+        assertEquals(50f, stamped.getFocalRadius(), 0);
+        assertSame(Typeface.MONOSPACE, stamped.getPrimaryTextTypeface());
+        assertEquals(Typeface.BOLD, stamped.getPrimaryTextTypefaceStyle());
+        assertEquals(Gravity.END, stamped.getPrimaryTextGravity());
+        assertSame(interpolator, stamped.getAnimationInterpolator());
+        assertFalse(stamped.getAutoDismiss());
+        assertNotNull(stamped.getClipToView());
+        // The target, executor and listeners are specific to each prompt
+        assertNull(stamped.getTargetPosition());
+        assertNull(stamped.getTextMeasureExecutor());
+        assertNull(stamped.getPromptMetricsListener());
+        final PromptMetricsAggregator stampedListener = new PromptMetricsAggregator();
+        final PromptOptions withListener = UnitTestUtils.createPromptOptions()
+                .setPromptMetricsListener(stampedListener);
+        withListener.applyTemplate(template);
+        assertSame(stampedListener, withListener.getPromptMetricsListener());
+        // Changing the stamped options doesn't change the template
+        stamped.setPrimaryText("Other");
+        assertEquals("Primary", UnitTestUtils.createPromptOptions().applyTemplate(template).getPrimaryText());
+    }
+
+    @Test
+    public void testPromptOptions_Template_Builder()
+    {
+        final PromptOptionsTemplate template = UnitTestUtils.createPromptOptions()
+                .setBackgroundColour(Color.RED)
+                .setPrimaryTextSize(30f)
+                .createTemplate();
+        final Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        final MaterialTapTargetPrompt.Builder builder = new MaterialTapTargetPrompt.Builder(activity, template)
+                .setPrimaryText("Primary")
+                .setTarget(10, 10);
+        assertEquals(Color.RED, builder.getBackgroundColour());
+        assertEquals(30f, builder.getPrimaryTextSize(), 0);
+        assertEquals("Primary", builder.getPrimaryText());
+        assertNotNull(builder.getClipToView());
+    }
+
     @Test
     public void testPromptOptions_PrimaryTextGravity_Default()
     {
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Path;
+import android.graphics.RectF;
+import android.os.Build;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptPathRegionUnitTest
+{
+    @Test
+    public void testContains_NullPath()
+    {
+        final PromptPathRegion region = new PromptPathRegion();
+        assertFalse(region.contains(null, 10, 10));
+        assertFalse(region.mValid);
+    }
+
+    @Test
+    public void testContains_Cached()
+    {
+        final PromptPathRegion region = new PromptPathRegion();
+        final Path path = spy(new Path());
+        path.addRect(new RectF(10, 10, 50, 50), Path.Direction.CW);
+        // Outside of the path bounds
+        assertFalse(region.contains(path, 5, 5));
+        assertTrue(region.mValid);
+        assertSame(path, region.mPath);
+        region.contains(path, 20, 20);
+        region.contains(path, 60, 60);
+        verify(path, times(1)).computeBounds(any(RectF.class), anyBoolean());
+        // Converted again once invalidated
+        region.invalidate();
+        assertFalse(region.contains(path, 5, 5));
+        verify(path, times(2)).computeBounds(any(RectF.class), anyBoolean());
+        // Converted again for a different path
+        final Path otherPath = spy(new Path());
+        region.contains(otherPath, 5, 5);
+        verify(otherPath, times(1)).computeBounds(any(RectF.class), anyBoolean());
+        assertSame(otherPath, region.mPath);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.text.Layout;
+import android.view.Gravity;
+import android.view.View;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptTextDirectionUnitTest
+{
+    @Test
+    public void testGetTextAlignment()
+    {
+        final Configuration configuration = mock(Configuration.class);
+        when(configuration.getLayoutDirection()).thenReturn(View.LAYOUT_DIRECTION_RTL);
+        final Resources resources = mock(Resources.class);
+        when(resources.getConfiguration()).thenReturn(configuration);
+        final PromptTextDirection direction = new PromptTextDirection();
+        final String text = "جبا";
+        assertEquals(Layout.Alignment.ALIGN_NORMAL, direction.getTextAlignment(resources, Gravity.START, text));
+        // Resolved again when the gravity, text or layout direction changes
+        assertEquals(Layout.Alignment.ALIGN_OPPOSITE, direction.getTextAlignment(resources, Gravity.END, text));
+        assertEquals(Layout.Alignment.ALIGN_OPPOSITE, direction.getTextAlignment(resources, Gravity.START, "abc"));
+        when(configuration.getLayoutDirection()).thenReturn(View.LAYOUT_DIRECTION_LTR);
+        assertEquals(Layout.Alignment.ALIGN_NORMAL, direction.getTextAlignment(resources, Gravity.START, "abc"));
+    }
+
+    @Test
+    public void testGetTextAlignment_Cached()
+    {
+        final Configuration configuration = mock(Configuration.class);
+        when(configuration.getLayoutDirection()).thenReturn(View.LAYOUT_DIRECTION_RTL);
+        final Resources resources = mock(Resources.class);
+        when(resources.getConfiguration()).thenReturn(configuration);
+        final PromptTextDirection direction = new PromptTextDirection();
+        final String text = "جبا";
+        assertEquals(Layout.Alignment.ALIGN_NORMAL, direction.getTextAlignment(resources, Gravity.START, text));
+        // The alignment isn't resolved again for the same inputs
+        direction.mAlignment = Layout.Alignment.ALIGN_CENTER;
+        assertEquals(Layout.Alignment.ALIGN_CENTER, direction.getTextAlignment(resources, Gravity.START, text));
+    }
+
+    @Test
+    public void testIsRtlText()
+    {
+        final Configuration configuration = mock(Configuration.class);
+        when(configuration.getLayoutDirection()).thenReturn(View.LAYOUT_DIRECTION_LTR);
+        final Resources resources = mock(Resources.class);
+        when(resources.getConfiguration()).thenReturn(configuration);
+        final PromptTextDirection direction = new PromptTextDirection();
+        assertFalse(direction.isRtlText(null, resources));
+        final Layout layout = mock(Layout.class);
+        when(layout.getAlignment()).thenReturn(Layout.Alignment.ALIGN_NORMAL);
+        when(layout.isRtlCharAt(0)).thenReturn(true);
+        assertTrue(direction.isRtlText(layout, resources));
+        clearInvocations(layout);
+        assertTrue(direction.isRtlText(layout, resources));
+        verify(layout, never()).isRtlCharAt(0);
+        // Resolved again for a different layout
+        final Layout otherLayout = mock(Layout.class);
+        when(otherLayout.getAlignment()).thenReturn(Layout.Alignment.ALIGN_NORMAL);
+        assertFalse(direction.isRtlText(otherLayout, resources));
+        // Resolved again when the layout direction changes
+        when(configuration.getLayoutDirection()).thenReturn(View.LAYOUT_DIRECTION_RTL);
+        assertTrue(direction.isRtlText(otherLayout, resources));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Build;
+import android.text.Layout;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.style.StyleSpan;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptTextLayoutCacheUnitTest
+{
+    @Test
+    public void testGetPut()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        assertNull(cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertEquals(1, cache.getMissCount());
+        final StaticLayout layout = createLayout("Text", paint);
+        cache.put("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100, layout);
+        assertSame(layout, cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        // Equal text in a different instance
+        assertSame(layout, cache.get(new StringBuilder("Text"), paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getSize());
+        cache.clear();
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+    }
+
+    @Test
+    public void testKey_ColourIndependent()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        final StaticLayout layout = createLayout("Text", paint);
+        cache.put("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100, layout);
+        final TextPaint colourPaint = createPaint();
+        colourPaint.setColor(Color.RED);
+        assertSame(layout, cache.get("Text", colourPaint, Layout.Alignment.ALIGN_NORMAL, 100));
+    }
+
+    @Test
+    public void testKey_Differences()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        cache.put("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100, createLayout("Text", paint));
+        assertNull(cache.get("Other", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertNull(cache.get("Text", paint, Layout.Alignment.ALIGN_CENTER, 100));
+        assertNull(cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 101));
+        final TextPaint sizePaint = createPaint();
+        sizePaint.setTextSize(21);
+        assertNull(cache.get("Text", sizePaint, Layout.Alignment.ALIGN_NORMAL, 100));
+        final TextPaint typefacePaint = createPaint();
+        typefacePaint.setTypeface(Typeface.MONOSPACE);
+        assertNull(cache.get("Text", typefacePaint, Layout.Alignment.ALIGN_NORMAL, 100));
+        final TextPaint boldPaint = createPaint();
+        boldPaint.setFakeBoldText(true);
+        assertNull(cache.get("Text", boldPaint, Layout.Alignment.ALIGN_NORMAL, 100));
+    }
+
+    @Test
+    public void testSpannedTextNotCached()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        final SpannableString text = new SpannableString("Text");
+        text.setSpan(new StyleSpan(Typeface.BOLD), 0, 2, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        assertFalse(PromptTextLayoutCache.canCache(text));
+        cache.put(text, paint, Layout.Alignment.ALIGN_NORMAL, 100, createLayout(text, paint));
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(text, paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        // Not looked up so not a miss
+        assertEquals(0, cache.getMissCount());
+        // Empty spans are found too
+        final SpannableString emptySpanText = new SpannableString("Text");
+        emptySpanText.setSpan(new StyleSpan(Typeface.BOLD), 4, 4, Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        assertFalse(PromptTextLayoutCache.canCache(emptySpanText));
+    }
+
+    @Test
+    public void testAlphaSpanTextCached()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        assertTrue(PromptTextLayoutCache.canCache(new SpannableString("Text")));
+        final SpannableString text = new SpannableString("Text");
+        text.setSpan(new AlphaSpan(1), 0, 4, Spanned.SPAN_INCLUSIVE_INCLUSIVE);
+        assertTrue(PromptTextLayoutCache.canCache(text));
+        final StaticLayout layout = createLayout(text, paint);
+        cache.put(text, paint, Layout.Alignment.ALIGN_NORMAL, 100, layout);
+        // The alpha doesn't change the layout so the key is only the characters
+        assertSame(layout, cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertSame(layout, cache.get(text, paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertFalse(cache.mCache.snapshot().keySet().iterator().next().mText instanceof Spanned);
+    }
+
+    @Test
+    public void testKey_TextHashCode()
+    {
+        // Hashed without copying the text to a string
+        assertEquals("Text".hashCode(), PromptTextLayoutCache.Key.textHashCode(new StringBuilder("Text")));
+        assertEquals("Text".hashCode(), PromptTextLayoutCache.Key.textHashCode(new SpannableString("Text")));
+        assertEquals("Text".hashCode(), PromptTextLayoutCache.Key.textHashCode("Text"));
+        assertNotEquals("Text".hashCode(), PromptTextLayoutCache.Key.textHashCode(new StringBuilder("Other")));
+    }
+
+    @Test
+    public void testGet_LookupKeyReleasesText()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(100);
+        final TextPaint paint = createPaint();
+        final StringBuilder text = new StringBuilder("Text");
+        cache.put(text, paint, Layout.Alignment.ALIGN_NORMAL, 100, createLayout(text, paint));
+        assertNotNull(cache.get(text, paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        // The cached key is a copy and the lookup key doesn't keep the text
+        text.append(" changed");
+        assertNotNull(cache.get("Text", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertEquals(0, cache.mLookupKey.mText.length());
+    }
+
+    @Test
+    public void testEviction()
+    {
+        final PromptTextLayoutCache cache = new PromptTextLayoutCache(10);
+        final TextPaint paint = createPaint();
+        final StaticLayout first = createLayout("First", paint);
+        cache.put("First", paint, Layout.Alignment.ALIGN_NORMAL, 100, first);
+        cache.put("Other", paint, Layout.Alignment.ALIGN_NORMAL, 100, createLayout("Other", paint));
+        assertEquals(10, cache.getSize());
+        // Use the first so the other is the least recently used
+        assertNotNull(cache.get("First", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        cache.put("Third", paint, Layout.Alignment.ALIGN_NORMAL, 100, createLayout("Third", paint));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(10, cache.getSize());
+        assertEquals(10, cache.getMaxSize());
+        assertSame(first, cache.get("First", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        assertNull(cache.get("Other", paint, Layout.Alignment.ALIGN_NORMAL, 100));
+        cache.trimToSize(5);
+        assertEquals(5, cache.getSize());
+        assertEquals(2, cache.getEvictionCount());
+    }
+
+    private static TextPaint createPaint()
+    {
+        final TextPaint paint = new TextPaint();
+        paint.setTextSize(20);
+        paint.setAntiAlias(true);
+        return paint;
+    }
+
+    private static StaticLayout createLayout(final CharSequence text, final TextPaint paint)
+    {
+        return PromptUtils.createStaticTextLayout(text, paint, 100, Layout.Alignment.ALIGN_NORMAL, 1f);
+    }
+}
@@ -17,9 +17,16 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras;
 
 import android.graphics.Canvas;
+import android.graphics.Color;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.Typeface;
 import android.os.Build;
+import android.text.Layout;
+import android.text.SpannableString;
+import android.text.Spanned;
+import android.text.TextPaint;
+import android.text.style.StyleSpan;
 import android.view.Gravity;
 import android.view.ViewGroup;
 
@@ -32,6 +39,11 @@ import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
 
 import static junit.framework.TestCase.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -747,4 +759,198 @@ public class PromptTextUnitTest
         assertFalse(promptText.contains(10, 10));
         promptText.draw(mock(Canvas.class));
     }
+
+    @Test
+    public void testPromptText_Update_NoLayout()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        when(parentView.getRight()).thenReturn(1080);
+        when(parentView.getLeft()).thenReturn(0);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.setMaxTextWidth(300f);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final TestPromptText promptText = new TestPromptText(300);
+        promptText.prepare(options, false, clipBounds);
+        assertEquals(1, promptText.mCreateTextLayoutCount);
+        final Layout primaryTextLayout = promptText.mPrimaryTextLayout;
+        final Layout secondaryTextLayout = promptText.mSecondaryTextLayout;
+        for (int i = 0; i <= 100; i++)
+        {
+            final float frame = i / 100f;
+            promptText.update(options, frame, frame);
+            promptText.draw(mock(Canvas.class));
+        }
+        promptText.update(options, 0.5f, 0.25f);
+        assertEquals(1, promptText.mCreateTextLayoutCount);
+        assertSame(primaryTextLayout, promptText.mPrimaryTextLayout);
+        assertSame(secondaryTextLayout, promptText.mSecondaryTextLayout);
+        assertEquals(0.25f, promptText.mPrimaryTextAlphaSpan.getAlpha(), 0);
+        assertEquals(0.25f, promptText.mSecondaryTextAlphaSpan.getAlpha(), 0);
+        promptText.prepare(options, false, clipBounds);
+        assertEquals(2, promptText.mCreateTextLayoutCount);
+        assertEquals(0.25f, promptText.mPrimaryTextAlphaSpan.getAlpha(), 0);
+    }
+
+    @Test
+    public void testPromptText_MeasureTask()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.setTextLayoutCacheEnabled(false);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        final Runnable task = promptText.createMeasureTask(options, false, clipBounds);
+        assertNotNull(task);
+        assertFalse(promptText.mPrimaryTextMeasurement.isMeasured());
+        assertFalse(promptText.mSecondaryTextMeasurement.isMeasured());
+        task.run();
+        assertTrue(promptText.mPrimaryTextMeasurement.isMeasured());
+        assertTrue(promptText.mSecondaryTextMeasurement.isMeasured());
+        // Already measured
+        assertNull(promptText.createMeasureTask(options, false, clipBounds));
+        promptText.prepare(options, false, clipBounds);
+        assertSame(promptText.mPrimaryTextMeasurement.mLayout, promptText.mPrimaryTextLayout);
+        assertSame(promptText.mSecondaryTextMeasurement.mLayout, promptText.mSecondaryTextLayout);
+        // The measurement isn't used for different text
+        options.setPrimaryText("Changed Primary Text");
+        promptText.prepare(options, false, clipBounds);
+        assertNotSame(promptText.mPrimaryTextMeasurement.mLayout, promptText.mPrimaryTextLayout);
+        assertSame(promptText.mSecondaryTextMeasurement.mLayout, promptText.mSecondaryTextLayout);
+        assertNotNull(promptText.createMeasureTask(options, false, clipBounds));
+    }
+
+    @Test
+    public void testPromptText_LayoutCache()
+    {
+        final PromptTextLayoutCache cache = PromptTextLayoutCache.getInstance();
+        cache.clear();
+        final int hitCount = cache.getHitCount();
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        options.load(-1);
+        options.setPrimaryText("Layout Cache Primary Text");
+        options.setPrimaryTextColour(Color.RED);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, clipBounds);
+        final PromptText otherPromptText = new PromptText();
+        options.setPrimaryTextColour(Color.BLUE);
+        otherPromptText.prepare(options, false, clipBounds);
+        // The layout is shared as only the colour differs
+        assertSame(promptText.mPrimaryTextLayout, otherPromptText.mPrimaryTextLayout);
+        assertSame(promptText.mPrimaryTextAlphaSpan, otherPromptText.mPrimaryTextAlphaSpan);
+        assertEquals(hitCount + 1, cache.getHitCount());
+        // Each prompt's colour and alpha are applied when drawn
+        promptText.update(options, 1f, 0.5f);
+        otherPromptText.update(options, 1f, 1f);
+        promptText.draw(mock(Canvas.class));
+        assertEquals(Color.RED, promptText.mPrimaryTextLayout.getPaint().getColor());
+        assertEquals(0.5f, promptText.mPrimaryTextAlphaSpan.getAlpha(), 0);
+        otherPromptText.draw(mock(Canvas.class));
+        assertEquals(Color.BLUE, otherPromptText.mPrimaryTextLayout.getPaint().getColor());
+        assertEquals(1f, otherPromptText.mPrimaryTextAlphaSpan.getAlpha(), 0);
+        // Not shared when disabled
+        options.setTextLayoutCacheEnabled(false);
+        final PromptText uncachedPromptText = new PromptText();
+        uncachedPromptText.prepare(options, false, clipBounds);
+        assertNotSame(promptText.mPrimaryTextLayout, uncachedPromptText.mPrimaryTextLayout);
+    }
+
+    @Test
+    public void testPromptText_LayoutCache_SpannedText()
+    {
+        final PromptTextLayoutCache cache = PromptTextLayoutCache.getInstance();
+        cache.clear();
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        options.load(-1);
+        final SpannableString text = new SpannableString("Layout Cache Spanned Text");
+        text.setSpan(new StyleSpan(Typeface.BOLD), 0, 6, Spanned.SPAN_EXCLUSIVE_EXCLUSIVE);
+        options.setPrimaryText(text);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, clipBounds);
+        final PromptText otherPromptText = new PromptText();
+        otherPromptText.prepare(options, false, clipBounds);
+        // The process wide cache doesn't keep the caller's spans
+        assertNotNull(promptText.mPrimaryTextLayout);
+        assertNotSame(promptText.mPrimaryTextLayout, otherPromptText.mPrimaryTextLayout);
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    public void testPromptText_PaintReused()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setSecondaryText("Secondary Text");
+        options.setPrimaryTextColour(Color.RED);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, clipBounds);
+        final TextPaint primaryPaint = promptText.mPaintPrimaryText;
+        final TextPaint secondaryPaint = promptText.mPaintSecondaryText;
+        options.setPrimaryTextColour(Color.BLUE);
+        options.setSecondaryTextSize(30f);
+        promptText.prepare(options, false, clipBounds);
+        assertSame(primaryPaint, promptText.mPaintPrimaryText);
+        assertSame(secondaryPaint, promptText.mPaintSecondaryText);
+        assertEquals(Color.BLUE, primaryPaint.getColor());
+        assertEquals(30, secondaryPaint.getTextSize(), 0);
+        assertTrue(primaryPaint.isAntiAlias());
+    }
+
+    @Test
+    public void testPromptText_PaintReused_StyleRemoved()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ViewGroup parentView = options.getResourceFinder().getPromptParentView();
+        when(parentView.getWidth()).thenReturn(1080);
+        options.load(-1);
+        options.setPrimaryText("Primary Text");
+        options.setPrimaryTextTypeface(Typeface.MONOSPACE, Typeface.BOLD_ITALIC);
+        options.setPromptFocal(mock(PromptFocal.class));
+        when(options.getPromptFocal().getBounds()).thenReturn(focalBounds);
+        final PromptText promptText = new PromptText();
+        promptText.prepare(options, false, clipBounds);
+        final TextPaint primaryPaint = promptText.mPaintPrimaryText;
+        // The style is faked when the typeface doesn't have a bold or italic variant
+        primaryPaint.setFakeBoldText(true);
+        primaryPaint.setTextSkewX(-0.25f);
+        options.setPrimaryTextTypeface(Typeface.MONOSPACE, Typeface.NORMAL);
+        promptText.prepare(options, false, clipBounds);
+        assertSame(primaryPaint, promptText.mPaintPrimaryText);
+        assertFalse(primaryPaint.isFakeBoldText());
+        assertEquals(0, primaryPaint.getTextSkewX(), 0);
+    }
 }
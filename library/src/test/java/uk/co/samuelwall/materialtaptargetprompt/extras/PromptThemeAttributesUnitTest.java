@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.graphics.Color;
+import android.os.Build;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import uk.co.samuelwall.materialtaptargetprompt.R;
+import uk.co.samuelwall.materialtaptargetprompt.ResourceFinder;
+import uk.co.samuelwall.materialtaptargetprompt.UnitTestUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = Build.VERSION_CODES.LOLLIPOP_MR1)
+public class PromptThemeAttributesUnitTest
+{
+    @After
+    public void after()
+    {
+        PromptThemeAttributes.clear();
+    }
+
+    @Test
+    public void testObtain_Cached()
+    {
+        final ResourceFinder resourceFinder = UnitTestUtils.createPromptOptionsWithTestResourceFinder().getResourceFinder();
+        final TypedArray typedArray = resourceFinder.obtainStyledAttributes(0, new int[0]);
+        final PromptThemeAttributes attributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        assertSame(attributes, PromptThemeAttributes.obtain(resourceFinder, 0));
+        verify(typedArray, times(1)).recycle();
+        // Each theme resource id is parsed separately
+        assertNotSame(attributes, PromptThemeAttributes.obtain(resourceFinder, 1));
+        verify(typedArray, times(2)).recycle();
+    }
+
+    @Test
+    public void testObtain_ConfigurationChanged()
+    {
+        final ResourceFinder resourceFinder = UnitTestUtils.createPromptOptionsWithTestResourceFinder().getResourceFinder();
+        final PromptThemeAttributes attributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        final Resources resources = resourceFinder.getResources();
+        final Configuration configuration = new Configuration(resources.getConfiguration());
+        configuration.fontScale = configuration.fontScale * 2;
+        resources.updateConfiguration(configuration, resources.getDisplayMetrics());
+        final PromptThemeAttributes changedAttributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        assertNotSame(attributes, changedAttributes);
+        assertSame(changedAttributes, PromptThemeAttributes.obtain(resourceFinder, 0));
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.M)
+    public void testObtain_ThemeChanged()
+    {
+        final ResourceFinder resourceFinder = UnitTestUtils.createPromptOptionsWithTestResourceFinder().getResourceFinder();
+        final PromptThemeAttributes attributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        resourceFinder.getTheme().applyStyle(android.R.style.Theme_Holo_Light, true);
+        final PromptThemeAttributes changedAttributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        assertNotSame(attributes, changedAttributes);
+        assertSame(changedAttributes, PromptThemeAttributes.obtain(resourceFinder, 0));
+    }
+
+    @Test
+    public void testObtain_ClearedAfterThemeChanged()
+    {
+        final ResourceFinder resourceFinder = UnitTestUtils.createPromptOptionsWithTestResourceFinder().getResourceFinder();
+        final PromptThemeAttributes attributes = PromptThemeAttributes.obtain(resourceFinder, 0);
+        resourceFinder.getTheme().applyStyle(android.R.style.Theme_Holo_Light, true);
+        // Not detected before API 23
+        assertSame(attributes, PromptThemeAttributes.obtain(resourceFinder, 0));
+        PromptOptions.clearThemeAttributesCache();
+        assertNotSame(attributes, PromptThemeAttributes.obtain(resourceFinder, 0));
+    }
+
+    @Test
+    public void testLoad_Cached()
+    {
+        final PromptOptions options = UnitTestUtils.createPromptOptionsWithTestResourceFinder();
+        final ResourceFinder resourceFinder = options.getResourceFinder();
+        final TypedArray typedArray = resourceFinder.obtainStyledAttributes(0, new int[0]);
+        when(typedArray.hasValue(R.styleable.PromptView_mttp_backgroundColour)).thenReturn(true);
+        when(typedArray.getColor(R.styleable.PromptView_mttp_backgroundColour, 0)).thenReturn(Color.RED);
+        when(typedArray.getString(R.styleable.PromptView_mttp_primaryText)).thenReturn("Primary");
+        options.setPrimaryTextSize(50f);
+        options.load(0);
+        assertEquals(Color.RED, options.getBackgroundColour());
+        assertEquals("Primary", options.getPrimaryText());
+        assertNull(options.getSecondaryText());
+        // Not set in the theme so the current value is kept
+        assertEquals(50f, options.getPrimaryTextSize(), 0);
+
+        final PromptOptions otherOptions = new PromptOptions(resourceFinder);
+        otherOptions.load(0);
+        assertEquals(Color.RED, otherOptions.getBackgroundColour());
+        assertEquals("Primary", otherOptions.getPrimaryText());
+        verify(typedArray, times(1)).recycle();
+    }
+}
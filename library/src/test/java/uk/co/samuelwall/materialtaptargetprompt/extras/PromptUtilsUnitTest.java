@@ -42,6 +42,7 @@ import org.robolectric.util.ReflectionHelpers;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -110,6 +111,55 @@ public class PromptUtilsUnitTest
         assertEquals(Typeface.BOLD, textPaint.getTypeface().getStyle());
     }
 
+    @Test
+    public void testSetTypeface_Cached()
+    {
+        final int[] changes = new int[1];
+        final TextPaint textPaint = new TextPaint()
+        {
+            @Override
+            public Typeface setTypeface(Typeface typeface)
+            {
+                changes[0]++;
+                return super.setTypeface(typeface);
+            }
+
+            @Override
+            public void setFakeBoldText(boolean fakeBoldText)
+            {
+                changes[0]++;
+                super.setFakeBoldText(fakeBoldText);
+            }
+
+            @Override
+            public void setTextSkewX(float skewX)
+            {
+                changes[0]++;
+                super.setTextSkewX(skewX);
+            }
+        };
+        PromptUtils.setTypeface(textPaint, Typeface.MONOSPACE, Typeface.BOLD);
+        final Typeface typeface = textPaint.getTypeface();
+        assertTrue(changes[0] > 0);
+        changes[0] = 0;
+        // The same typeface is used and the paint isn't changed when the values are the same
+        PromptUtils.setTypeface(textPaint, Typeface.MONOSPACE, Typeface.BOLD);
+        assertSame(typeface, textPaint.getTypeface());
+        assertEquals(0, changes[0]);
+        final TextPaint otherTextPaint = new TextPaint();
+        PromptUtils.setTypeface(otherTextPaint, Typeface.MONOSPACE, Typeface.BOLD);
+        assertSame(typeface, otherTextPaint.getTypeface());
+    }
+
+    @Test
+    public void testSetTypefaceFromAttrs_Cached()
+    {
+        final Typeface typeface = PromptUtils.setTypefaceFromAttrs("Arial", 0, Typeface.BOLD);
+        assertSame(typeface, PromptUtils.setTypefaceFromAttrs("Arial", 0, Typeface.BOLD));
+        assertSame(PromptUtils.setTypefaceFromAttrs(null, 3, Typeface.ITALIC),
+                PromptUtils.setTypefaceFromAttrs(null, 3, Typeface.ITALIC));
+    }
+
     @Test
     public void testSetTypefaceFromAttrs()
     {
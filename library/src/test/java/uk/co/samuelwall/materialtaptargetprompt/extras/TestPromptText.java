@@ -26,6 +26,7 @@ public class TestPromptText extends PromptText
 {
     boolean mRtl;
     float mMaxTextWidth;
+    public int mCreateTextLayoutCount;
 
     public TestPromptText(float maxTextWidth)
     {
@@ -41,6 +42,7 @@ public class TestPromptText extends PromptText
     @Override
     void createTextLayout(@NonNull final PromptOptions options, final float maxWidth, final float alphaModifier)
     {
+        mCreateTextLayoutCount++;
         super.createTextLayout(options, maxWidth, alphaModifier);
         if (mPrimaryTextLayout != null)
         {
@@ -1415,4 +1415,33 @@ public class CirclePromptBackgroundUnitTest
         assertTrue(promptBackground.contains(1046, 1800));
         assertFalse(promptBackground.contains(200, 22));
     }
+
+    @Test
+    public void testCirclePromptBackground_Offset()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF focalBounds = new RectF(496, 456, 584, 544);
+        final PromptOptions options = createOptions(clipBounds, focalBounds);
+        final CirclePromptBackground promptBackground = (CirclePromptBackground) options.getPromptBackground();
+        final TestPromptText promptText = (TestPromptText) options.getPromptText();
+        promptBackground.prepare(options, false, clipBounds);
+        final int layoutCount = promptText.mCreateTextLayoutCount;
+
+        // Move the prompt down with the focal staying in the top half
+        assertTrue(options.getPromptFocal().offset(options, 0, 100));
+        assertTrue(promptText.offset(options, 0, 100));
+        assertTrue(promptBackground.offset(options, 0, 100));
+        assertEquals(layoutCount, promptText.mCreateTextLayoutCount);
+        final PointF offsetPosition = new PointF(promptBackground.mBasePosition.x, promptBackground.mBasePosition.y);
+        final float offsetRadius = promptBackground.mBaseRadius;
+        promptBackground.prepare(options, false, clipBounds);
+        assertEquals(promptBackground.mBasePosition.x, offsetPosition.x, 1);
+        assertEquals(promptBackground.mBasePosition.y, offsetPosition.y, 1);
+        assertEquals(promptBackground.mBaseRadius, offsetRadius, 1);
+
+        // Moving to the bottom half changes the text position so the background can't be moved
+        assertTrue(options.getPromptFocal().offset(options, 0, 1000));
+        assertTrue(promptText.offset(options, 0, 1000));
+        assertFalse(promptBackground.offset(options, 0, 1000));
+    }
 }
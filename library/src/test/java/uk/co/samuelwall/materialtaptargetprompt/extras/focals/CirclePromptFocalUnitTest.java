@@ -17,11 +17,17 @@
 package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
 
 import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Path;
+import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
+import android.graphics.drawable.AnimatedVectorDrawable;
+import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.animation.LinearInterpolator;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -37,8 +43,13 @@ import uk.co.samuelwall.materialtaptargetprompt.extras.TestPromptText;
 import uk.co.samuelwall.materialtaptargetprompt.extras.backgrounds.CirclePromptBackground;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @RunWith(RobolectricTestRunner.class)
@@ -127,4 +138,81 @@ public class CirclePromptFocalUnitTest
         promptFocal.setDrawRipple(false);
         promptFocal.draw(canvas);
     }
+
+    @Test
+    public void testCirclePromptFocal_UpdateReusesPath()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final Path path = promptFocal.getPath();
+        final PointF edgePoint = promptFocal.calculateAngleEdgePoint(90, 20);
+        for (int i = 0; i <= 100; i++)
+        {
+            promptFocal.update(options, 1 + (i / 1000f), 1);
+            promptFocal.updateRipple(1.1f + (i / 200f), 1);
+            assertSame(path, promptFocal.getPath());
+            assertSame(edgePoint, promptFocal.calculateAngleEdgePoint(i, 20));
+        }
+        assertEquals(66f, promptFocal.mRadius, 0.001f);
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.N_MR1)
+    public void testCirclePromptFocal_IdleAnimationDrawable()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.setColour(Color.WHITE);
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final Drawable drawable = promptFocal.getIdleAnimationDrawable(options);
+        assertTrue(drawable instanceof AnimatedVectorDrawable);
+        assertSame(drawable, promptFocal.mIdleAnimationDrawable);
+        // 1.6 x the 60 focal radius around the target centre
+        assertEquals(new Rect(962, 1802, 1154, 1994), drawable.getBounds());
+
+        // Loaded once then tinted and moved for each request
+        final Drawable spyDrawable = spy(drawable);
+        promptFocal.mIdleAnimationDrawable = spyDrawable;
+        promptFocal.setColour(0xFF3F51B5);
+        promptFocal.prepare(options, 100, 200);
+        assertSame(spyDrawable, promptFocal.getIdleAnimationDrawable(options));
+        verify(spyDrawable).setTint(0xFF3F51B5);
+        assertEquals(new Rect(4, 104, 196, 296), spyDrawable.getBounds());
+    }
+
+    @Test
+    @Config(sdk = Build.VERSION_CODES.N_MR1)
+    public void testCirclePromptFocal_IdleAnimationDrawableUnsupported()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        promptFocal.setColour(0x80FFFFFF);
+        assertNull(promptFocal.getIdleAnimationDrawable(options));
+        promptFocal.setColour(Color.WHITE);
+        promptFocal.setDrawRipple(false);
+        assertNull(promptFocal.getIdleAnimationDrawable(options));
+        promptFocal.setDrawRipple(true);
+        options.setAnimationInterpolator(new LinearInterpolator());
+        assertNull(promptFocal.getIdleAnimationDrawable(options));
+    }
+
+    @Test
+    public void testCirclePromptFocal_IdleAnimationDrawableBeforeApi25()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final CirclePromptFocal promptFocal = (CirclePromptFocal) options.getPromptFocal();
+        promptFocal.setColour(Color.WHITE);
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        assertNull(promptFocal.getIdleAnimationDrawable(options));
+    }
 }
@@ -18,6 +18,7 @@ package uk.co.samuelwall.materialtaptargetprompt.extras.focals;
 
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Path;
 import android.graphics.PointF;
 import android.graphics.Rect;
 import android.graphics.RectF;
@@ -40,6 +41,7 @@ import static junit.framework.Assert.fail;
 import static junit.framework.TestCase.assertTrue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -278,4 +280,23 @@ public class RectanglePromptFocalUnitTest
         promptFocal.setDrawRipple(false);
         promptFocal.draw(canvas);
     }
+
+    @Test
+    public void testRectanglePromptFocal_UpdateReusesPath()
+    {
+        final Rect clipBounds = new Rect(0, 0, 1080, 1920);
+        final RectF targetBounds = new RectF(1036, 1876, 1080, 1920);
+        final PromptOptions options = createOptions(clipBounds, targetBounds);
+        final RectanglePromptFocal promptFocal = (RectanglePromptFocal) options.getPromptFocal();
+        promptFocal.prepare(options, options.getTargetView(), new int[]{0,0});
+        final Path path = promptFocal.getPath();
+        final PointF edgePoint = promptFocal.calculateAngleEdgePoint(90, 20);
+        for (int i = 0; i <= 100; i++)
+        {
+            promptFocal.update(options, 1 + (i / 1000f), 1);
+            promptFocal.updateRipple(1.1f + (i / 200f), 1);
+            assertSame(path, promptFocal.getPath());
+            assertSame(edgePoint, promptFocal.calculateAngleEdgePoint(i, 20));
+        }
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PromptGeometryUnitTest
+{
+    @Test
+    public void testScale()
+    {
+        assertEquals(25, PromptGeometry.scaleStart(50, 0, 50, 0.5f), 0);
+        assertEquals(75, PromptGeometry.scaleEnd(50, 100, 50, 0.5f), 0);
+        assertEquals(-50, PromptGeometry.scaleStart(50, 0, 50, 2), 0);
+        assertEquals(150, PromptGeometry.scaleEnd(50, 100, 50, 2), 0);
+    }
+
+    @Test
+    public void testScaleEvenChange()
+    {
+        assertEquals(20, PromptGeometry.scaleEvenChange(50, 20, 2), 0);
+        assertEquals(10, PromptGeometry.scaleEvenChange(10, 20, 2), 0);
+    }
+
+    @Test
+    public void testCalculateMaxWidth()
+    {
+        assertEquals(300, PromptGeometry.calculateMaxWidth(300, 1000, 10), 0);
+        assertEquals(480, PromptGeometry.calculateMaxWidth(1000, 500, 10), 0);
+        assertEquals(80, PromptGeometry.calculateMaxWidth(1000, 50, 10), 0);
+    }
+
+    @Test
+    public void testCircleEdge()
+    {
+        assertEquals(15, PromptGeometry.circleEdgeX(0, 10, 5), 0.0001f);
+        assertEquals(5, PromptGeometry.circleEdgeY(0, 10, 5), 0.0001f);
+        assertEquals(5, PromptGeometry.circleEdgeX(90, 10, 5), 0.0001f);
+        assertEquals(15, PromptGeometry.circleEdgeY(90, 10, 5), 0.0001f);
+    }
+
+    @Test
+    public void testRectangleEdge()
+    {
+        assertEquals(62, PromptGeometry.rectangleEdgeX(0, 20, 4, 50), 0);
+        assertEquals(38, PromptGeometry.rectangleEdgeX(180, 20, 4, 50), 0);
+        assertEquals(62, PromptGeometry.rectangleEdgeY(90, 20, 4, 50), 0);
+        assertEquals(38, PromptGeometry.rectangleEdgeY(270, 20, 4, 50), 0);
+    }
+
+    @Test
+    public void testCalculateCircumcircle()
+    {
+        final float[] circle = new float[3];
+        PromptGeometry.calculateCircumcircle(0, 10, 10, 0, 0, -10, circle);
+        assertEquals(0, circle[PromptGeometry.CIRCLE_X], 0.0001f);
+        assertEquals(0, circle[PromptGeometry.CIRCLE_Y], 0.0001f);
+        assertEquals(10, circle[PromptGeometry.CIRCLE_RADIUS], 0.0001f);
+        PromptGeometry.calculateCircumcircle(100, 150, 150, 100, 100, 50, circle);
+        assertEquals(100, circle[PromptGeometry.CIRCLE_X], 0.0001f);
+        assertEquals(100, circle[PromptGeometry.CIRCLE_Y], 0.0001f);
+        assertEquals(50, circle[PromptGeometry.CIRCLE_RADIUS], 0.0001f);
+    }
+
+    @Test
+    public void testCalculateFocalCentredRadius()
+    {
+        assertEquals(50, PromptGeometry.calculateFocalCentredRadius(50, 20, 10, 20, 80, 20, 0), 0);
+        assertEquals(Math.sqrt(40 * 40 + 25 * 25),
+                PromptGeometry.calculateFocalCentredRadius(50, 20, 5, 20, 80, 10, 10), 0.0001f);
+    }
+}
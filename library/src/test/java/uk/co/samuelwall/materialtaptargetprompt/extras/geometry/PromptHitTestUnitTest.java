@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PromptHitTestUnitTest
+{
+    @Test
+    public void testIsPointInCircle()
+    {
+        assertTrue(PromptHitTest.isPointInCircle(10, 10, 10, 10, 10));
+        assertTrue(PromptHitTest.isPointInCircle(5, 5, 10, 10, 10));
+        assertTrue(PromptHitTest.isPointInCircle(19, 10, 10, 10, 10));
+    }
+
+    @Test
+    public void testIsPointInCircle_Outside()
+    {
+        // Outside of the bounds
+        assertFalse(PromptHitTest.isPointInCircle(20, 10, 10, 10, 10));
+        assertFalse(PromptHitTest.isPointInCircle(10, -1, 10, 10, 10));
+        // Inside the bounds but outside of the circle
+        assertFalse(PromptHitTest.isPointInCircle(1, 1, 10, 10, 10));
+        assertFalse(PromptHitTest.isPointInCircle(18, 18, 10, 10, 10));
+        assertFalse(PromptHitTest.isPointInCircle(10, 10, 10, 10, 0));
+    }
+
+    @Test
+    public void testIsPointInBounds()
+    {
+        assertTrue(PromptHitTest.isPointInBounds(0, 0, 0, 0, 10, 10));
+        assertTrue(PromptHitTest.isPointInBounds(9.9f, 5, 0, 0, 10, 10));
+        assertFalse(PromptHitTest.isPointInBounds(10, 5, 0, 0, 10, 10));
+        assertFalse(PromptHitTest.isPointInBounds(5, -1, 0, 0, 10, 10));
+        // Empty bounds
+        assertFalse(PromptHitTest.isPointInBounds(0, 0, 0, 0, 0, 0));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2021 Samuel Wall
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package uk.co.samuelwall.materialtaptargetprompt.extras.geometry;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PromptTextPlacementUnitTest
+{
+    @Test
+    public void testCalculateTextLeft_Inset()
+    {
+        assertEquals(320, PromptTextPlacement.calculateTextLeft(true, true, 500, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+        assertEquals(280, PromptTextPlacement.calculateTextLeft(true, false, 500, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+    }
+
+    @Test
+    public void testCalculateTextLeft_InsetClamped()
+    {
+        assertEquals(10, PromptTextPlacement.calculateTextLeft(true, false, 100, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+        assertEquals(790, PromptTextPlacement.calculateTextLeft(true, true, 1100, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+    }
+
+    @Test
+    public void testCalculateTextLeft_NotInset()
+    {
+        assertEquals(790, PromptTextPlacement.calculateTextLeft(false, true, 950, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+        assertEquals(10, PromptTextPlacement.calculateTextLeft(false, false, 50, 0, 1000,
+                0, 1000, 200, 300, 20, 10), 0);
+    }
+
+    @Test
+    public void testCalculateTextTop()
+    {
+        assertEquals(120, PromptTextPlacement.calculateTextTop(false, 80, 100, 20,
+                true, 50, true, 30, 10), 0);
+        assertEquals(390, PromptTextPlacement.calculateTextTop(true, 500, 520, 20,
+                true, 50, true, 30, 10), 0);
+        assertEquals(430, PromptTextPlacement.calculateTextTop(true, 500, 520, 20,
+                true, 50, false, 0, 10), 0);
+        assertEquals(450, PromptTextPlacement.calculateTextTop(true, 500, 520, 20,
+                false, 0, true, 30, 10), 0);
+    }
+}